@@ -0,0 +1,103 @@
+package evaluation.benchmarks;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import games.GameType;
+import players.simple.RandomPlayer;
+import utilities.Utils;
+
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+
+public class CopyBenchmark {
+
+    /**
+     * Compares the time taken by AbstractGameState.copy() and AbstractGameState.copyForSearch() for each game.
+     * <p>
+     * Games are played to completion with random players, and at each decision point we time a number of copies
+     * of the game state from the perspective of the acting player, with each of the two methods.
+     * The first game of each type is not timed, to give the JIT a chance to warm up.
+     * Build with 'mvn -Pjmh package' and then run
+     * 'java -cp target/Benchmarks-jar-with-dependencies.jar evaluation.benchmarks.CopyBenchmark'.
+     * <p>
+     * Arguments (all optional):
+     * game=all|Dominion|... pipe-delimited list of games (all|-name1|-name2 excludes games)
+     * nGames=10 number of timed games per game type
+     * nPlayers=-1 number of players (-1 uses the minimum for each game)
+     * copies=20 number of copies of each type at each decision point
+     * seed=... random seed
+     */
+    public static void main(String... args) {
+        String gameArg = Utils.getArg(args, "game", "all");
+        int nGames = Utils.getArg(args, "nGames", 10);
+        int nPlayers = Utils.getArg(args, "nPlayers", -1);
+        int copies = Utils.getArg(args, "copies", 20);
+        long seed = Utils.getArg(args, "seed", System.currentTimeMillis());
+
+        List<String> gameNames = Arrays.asList(gameArg.split("\\|"));
+        List<GameType> games = gameNames.get(0).equals("all") ?
+                Arrays.stream(GameType.values()).filter(gt -> !gameNames.contains("-" + gt.name())).collect(toList()) :
+                gameNames.stream().map(GameType::valueOf).collect(toList());
+
+        Random rnd = new Random(seed);
+        System.out.printf("%-20s %10s %15s %15s %10s%n", "Game", "Decisions", "copy() us", "search us", "Saving");
+        for (GameType gameType : games) {
+            int players = nPlayers == -1 ? gameType.getMinPlayers() : nPlayers;
+            try {
+                double[] results = new double[3];
+                for (int g = 0; g <= nGames; g++) {
+                    double[] gameResults = timeOneGame(gameType, players, rnd.nextLong(), copies);
+                    if (g == 0) continue; // warm-up
+                    for (int i = 0; i < results.length; i++)
+                        results[i] += gameResults[i];
+                }
+                double fullCopy = results[1] / results[0] / 1e3;
+                double searchCopy = results[2] / results[0] / 1e3;
+                System.out.printf("%-20s %10d %15.2f %15.2f %9.1f%%%n", gameType.name(), (int) results[0],
+                        fullCopy, searchCopy, 100.0 * (fullCopy - searchCopy) / fullCopy);
+            } catch (Exception | AssertionError e) {
+                System.out.printf("%-20s failed : %s%n", gameType.name(), e);
+            }
+        }
+    }
+
+    /**
+     * @return an array of {decisions, total nanoseconds for copy(), total nanoseconds for copyForSearch()}
+     * where each of the totals is the time for a single copy, summed over all decisions
+     */
+    private static double[] timeOneGame(GameType gameType, int nPlayers, long seed, int copies) {
+        Game game = gameType.createGameInstance(nPlayers, seed);
+        List<AbstractPlayer> players = new ArrayList<>();
+        for (int i = 0; i < nPlayers; i++)
+            players.add(new RandomPlayer(new Random(seed + i)));
+        game.reset(players, seed);
+
+        double[] retValue = new double[3];
+        while (game.getGameState().isNotTerminal()) {
+            AbstractGameState state = game.getGameState();
+            int player = state.getCurrentPlayer();
+            // alternate the order to avoid penalising whichever goes first
+            boolean searchFirst = (int) retValue[0] % 2 == 0;
+            if (searchFirst)
+                retValue[2] += timeCopies(state, player, copies, true);
+            retValue[1] += timeCopies(state, player, copies, false);
+            if (!searchFirst)
+                retValue[2] += timeCopies(state, player, copies, true);
+            retValue[0]++;
+            game.oneAction();
+        }
+        return retValue;
+    }
+
+    private static double timeCopies(AbstractGameState state, int player, int copies, boolean forSearch) {
+        long start = System.nanoTime();
+        for (int i = 0; i < copies; i++) {
+            AbstractGameState copy = forSearch ? state.copyForSearch(player) : state.copy(player);
+            if (copy == null)
+                throw new AssertionError("Null copy");
+        }
+        return (System.nanoTime() - start) / (double) copies;
+    }
+}
@@ -0,0 +1,140 @@
+package evaluation.benchmarks;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.openjdk.jmh.annotations.*;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the operations that dominate the cost of simulation-based players: copying a state, computing the
+ * available actions, applying an action with the forward model, and a complete random playout.
+ * <p>
+ * These are parameterised by game. The states used are taken from one game played by random players (up to
+ * MAX_STATES of them, evenly spaced through the game), and each benchmark cycles through them so that the results are
+ * an average over the course of a game rather than for the start position only.
+ * <p>
+ * RunBenchmarks supplies the game parameter (all games by default). When running the JMH jar directly, use
+ * -p game=... as the default is just TicTacToe.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBenchmarks {
+
+    static final int MAX_STATES = 200;
+    // playouts are cut off after this many actions, for games that rarely end with random players
+    static final int MAX_PLAYOUT_ACTIONS = 10000;
+
+    /**
+     * The game being benchmarked, and the states from it that are used
+     */
+    @State(Scope.Thread)
+    public static class GameStates {
+        @Param({"TicTacToe"})
+        public String game;
+        @Param({"-1"})
+        public int nPlayers;
+        @Param({"42"})
+        public long seed;
+
+        AbstractForwardModel forwardModel;
+        AbstractGameState initialState;
+        AbstractGameState[] states;
+        Random rnd;
+        int next;
+
+        @Setup(Level.Trial)
+        public void playGame() {
+            GameType gameType = GameType.valueOf(game);
+            int players = nPlayers == -1 ? gameType.getMinPlayers() : nPlayers;
+            Game game = gameType.createGameInstance(players, seed);
+            List<AbstractPlayer> randomPlayers = new ArrayList<>();
+            for (int i = 0; i < players; i++)
+                randomPlayers.add(new RandomPlayer(new Random(seed + i)));
+            game.reset(randomPlayers, seed);
+            forwardModel = game.getForwardModel();
+            initialState = game.getGameState().copy();
+
+            List<AbstractGameState> allStates = new ArrayList<>();
+            while (game.getGameState().isNotTerminal() && allStates.size() < MAX_PLAYOUT_ACTIONS) {
+                allStates.add(game.getGameState().copy());
+                game.oneAction();
+            }
+            int step = Math.max(1, allStates.size() / MAX_STATES);
+            List<AbstractGameState> sample = new ArrayList<>();
+            for (int i = 0; i < allStates.size(); i += step)
+                sample.add(allStates.get(i));
+            states = sample.toArray(new AbstractGameState[0]);
+            rnd = new Random(seed);
+        }
+
+        AbstractGameState nextState() {
+            next = (next + 1) % states.length;
+            return states[next];
+        }
+    }
+
+    /**
+     * A fresh copy of one of the states, and an action to apply to it, for benchmarks that change the state.
+     * Level.Invocation is usually best avoided for very short benchmarks, but the cost of making the copy must not
+     * be included in the measurement.
+     */
+    @State(Scope.Thread)
+    public static class StateToChange {
+        AbstractGameState state;
+        AbstractAction action;
+
+        @Setup(Level.Invocation)
+        public void prepare(GameStates games) {
+            state = games.nextState().copy();
+            List<AbstractAction> actions = games.forwardModel.computeAvailableActions(state);
+            action = actions.get(games.rnd.nextInt(actions.size()));
+        }
+    }
+
+    @Benchmark
+    public AbstractGameState copy(GameStates games) {
+        return games.nextState().copy();
+    }
+
+    @Benchmark
+    public AbstractGameState copyForSearch(GameStates games) {
+        AbstractGameState state = games.nextState();
+        return state.copyForSearch(state.getCurrentPlayer());
+    }
+
+    @Benchmark
+    public List<AbstractAction> computeAvailableActions(GameStates games) {
+        return games.forwardModel.computeAvailableActions(games.nextState());
+    }
+
+    @Benchmark
+    public AbstractGameState next(GameStates games, StateToChange toChange) {
+        games.forwardModel.next(toChange.state, toChange.action);
+        return toChange.state;
+    }
+
+    /**
+     * A complete game from the start, with uniformly random actions (and no copying, as in a rollout)
+     */
+    @Benchmark
+    public AbstractGameState randomPlayout(GameStates games) {
+        AbstractGameState state = games.initialState.copy();
+        int actions = 0;
+        while (state.isNotTerminal() && actions < MAX_PLAYOUT_ACTIONS) {
+            List<AbstractAction> available = games.forwardModel.computeAvailableActions(state);
+            games.forwardModel.next(state, available.get(games.rnd.nextInt(available.size())));
+            actions++;
+        }
+        return state;
+    }
+}
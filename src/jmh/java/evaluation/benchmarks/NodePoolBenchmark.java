@@ -0,0 +1,136 @@
+package evaluation.benchmarks;
+
+import core.AbstractPlayer;
+import core.Game;
+import games.GameType;
+import players.PlayerConstants;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+import players.simple.RandomPlayer;
+import utilities.Utils;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+
+public class NodePoolBenchmark {
+
+    /**
+     * Compares the garbage collection load of MCTS with and without MCTSParams.poolNodes.
+     * <p>
+     * For each game we play a number of games with an MCTS player (with a fixed iteration budget) against random
+     * players, alternating between pooled and un-pooled nodes. For each setting we report the time per decision,
+     * the memory allocated per decision (by the game thread; if the JVM can measure this), and the number of
+     * garbage collections and time spent in them per 100 decisions.
+     * The first game of each type is not counted, to give the JIT a chance to warm up.
+     * Build with 'mvn -Pjmh package' and then run
+     * 'java -cp target/Benchmarks-jar-with-dependencies.jar evaluation.benchmarks.NodePoolBenchmark'.
+     * <p>
+     * Arguments (all optional):
+     * game=all|Dominion|... pipe-delimited list of games (all|-name1|-name2 excludes games)
+     * nGames=10 number of timed games per game type (with each setting)
+     * nPlayers=-1 number of players (-1 uses the minimum for each game)
+     * budget=1000 MCTS iterations per decision
+     * seed=... random seed
+     */
+    public static void main(String... args) {
+        String gameArg = Utils.getArg(args, "game", "all");
+        int nGames = Utils.getArg(args, "nGames", 10);
+        int nPlayers = Utils.getArg(args, "nPlayers", -1);
+        int budget = Utils.getArg(args, "budget", 1000);
+        long seed = Utils.getArg(args, "seed", System.currentTimeMillis());
+
+        List<String> gameNames = Arrays.asList(gameArg.split("\\|"));
+        List<GameType> games = gameNames.get(0).equals("all") ?
+                Arrays.stream(GameType.values()).filter(gt -> !gameNames.contains("-" + gt.name())).collect(toList()) :
+                gameNames.stream().map(GameType::valueOf).collect(toList());
+
+        Random rnd = new Random(seed);
+        System.out.printf("%-20s %-8s %10s %12s %12s %12s %12s%n", "Game", "Pool", "Decisions", "ms/dec",
+                "MB/dec", "GCs/100", "GC ms/100");
+        for (GameType gameType : games) {
+            int players = nPlayers == -1 ? gameType.getMinPlayers() : nPlayers;
+            try {
+                // decisions, nanoseconds, bytes allocated, GC count, GC milliseconds; for un-pooled and pooled
+                double[][] results = new double[2][5];
+                for (int g = 0; g <= nGames; g++) {
+                    long gameSeed = rnd.nextLong();
+                    for (int pool = 0; pool < 2; pool++) {
+                        double[] gameResults = runOneGame(gameType, players, gameSeed, budget, pool == 1);
+                        if (g == 0) continue; // warm-up
+                        for (int i = 0; i < gameResults.length; i++)
+                            results[pool][i] += gameResults[i];
+                    }
+                }
+                for (int pool = 0; pool < 2; pool++) {
+                    double[] r = results[pool];
+                    System.out.printf("%-20s %-8s %10d %12.2f %12s %12.2f %12.2f%n", gameType.name(), pool == 1,
+                            (int) r[0], r[1] / r[0] / 1e6, r[2] < 0 ? "n/a" : String.format("%.2f", r[2] / r[0] / 1e6),
+                            100.0 * r[3] / r[0], 100.0 * r[4] / r[0]);
+                }
+            } catch (Exception | AssertionError e) {
+                System.out.printf("%-20s failed : %s%n", gameType.name(), e);
+            }
+        }
+    }
+
+    /**
+     * @return an array of {MCTS decisions, total nanoseconds, total bytes allocated (or -1 if not available),
+     * number of garbage collections, milliseconds spent in garbage collection}
+     */
+    private static double[] runOneGame(GameType gameType, int nPlayers, long seed, int budget, boolean poolNodes) {
+        MCTSParams params = new MCTSParams(seed);
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", budget);
+        params.setParameterValue("poolNodes", poolNodes);
+        MCTSPlayer mctsPlayer = new MCTSPlayer(params);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        for (int i = 1; i < nPlayers; i++)
+            players.add(new RandomPlayer(new Random(seed + i)));
+        Game game = gameType.createGameInstance(nPlayers, seed);
+        game.reset(players, seed);
+
+        double[] retValue = new double[5];
+        while (game.getGameState().isNotTerminal()) {
+            boolean mctsTurn = game.getGameState().getCurrentPlayer() == 0;
+            if (!mctsTurn) {
+                game.oneAction();
+                continue;
+            }
+            long bytes = allocatedBytes();
+            long gcCount = gcCount(), gcTime = gcTime();
+            long start = System.nanoTime();
+            game.oneAction();
+            retValue[1] += System.nanoTime() - start;
+            retValue[2] = bytes < 0 || retValue[2] < 0 ? -1 : retValue[2] + allocatedBytes() - bytes;
+            retValue[3] += gcCount() - gcCount;
+            retValue[4] += gcTime() - gcTime;
+            retValue[0]++;
+        }
+        return retValue;
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled())
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcTime() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+}
@@ -0,0 +1,48 @@
+package evaluation.benchmarks;
+
+import games.GameType;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import utilities.Utils;
+
+import java.util.*;
+
+public class RunBenchmarks {
+
+    /**
+     * Runs GameBenchmarks for each game.
+     * Build with 'mvn -Pjmh package' and then run 'java -jar target/Benchmarks-jar-with-dependencies.jar'.
+     * <p>
+     * Arguments (all optional):
+     * game=all|Dominion|... pipe-delimited list of games (all|-name1|-name2 excludes games)
+     * benchmark=.* regular expression for the benchmarks to run (copy|next|...)
+     * nPlayers=-1 number of players (-1 uses the minimum for each game)
+     * seed=42 random seed used to create the game, and the states used in the benchmarks
+     * output= file to write the results to as csv (none by default)
+     */
+    public static void main(String... args) throws RunnerException {
+        String gameArg = Utils.getArg(args, "game", "all");
+        String benchmark = Utils.getArg(args, "benchmark", ".*");
+        int nPlayers = Utils.getArg(args, "nPlayers", -1);
+        long seed = Utils.getArg(args, "seed", 42L);
+        String output = Utils.getArg(args, "output", "");
+
+        List<String> gameNames = Arrays.asList(gameArg.split("\\|"));
+        String[] games = gameNames.get(0).equals("all") ?
+                Arrays.stream(GameType.values()).map(GameType::name)
+                        .filter(name -> !gameNames.contains("-" + name)).toArray(String[]::new) :
+                gameNames.stream().map(name -> GameType.valueOf(name).name()).toArray(String[]::new);
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(GameBenchmarks.class.getSimpleName() + "\\.(" + benchmark + ")$")
+                .param("game", games)
+                .param("nPlayers", String.valueOf(nPlayers))
+                .param("seed", String.valueOf(seed));
+        if (!output.isEmpty())
+            options.resultFormat(ResultFormatType.CSV).result(output);
+        new Runner(options.build()).run();
+    }
+}
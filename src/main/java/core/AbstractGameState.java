@@ -13,6 +13,8 @@ import evaluation.listeners.IGameListener;
 import evaluation.metrics.Event;
 import games.GameType;
 import utilities.ElapsedCpuChessTimer;
+import utilities.PersistentLog;
+import utilities.Zobrist;
 
 import java.util.*;
 import java.util.function.BiFunction;
@@ -39,6 +41,8 @@ public abstract class AbstractGameState {
     // Game being played
     protected final GameType gameType = _getGameType();
     private Area allComponents;
+    // false if allComponents needs to be rebuilt before use
+    private boolean componentIndexValid = false;
 
     // Game tick, number of iterations of game loop
     private int tick = 0;
@@ -47,13 +51,21 @@ public abstract class AbstractGameState {
     protected int roundCounter, turnCounter, turnOwner, firstPlayer;
     protected int nPlayers;
     protected List<IGameListener> listeners = new ArrayList<>();
+    // Re-usable Events to send to the listeners (created when first needed, and not copied)
+    private Event.Pool eventPool;
 
     // Timers for all players
     protected ElapsedCpuChessTimer[] playerTimer;
 
     // A record of all actions taken to reach this game state
-    private List<AbstractAction> history = new ArrayList<>();
-    private List<String> historyText = new ArrayList<>();
+    // These are persistent logs, so that copies share the common prefix and copy() does not grow with game length
+    private PersistentLog<AbstractAction> history = PersistentLog.empty();
+    private PersistentLog<HistoryEntry> historyText = PersistentLog.empty();
+    // If true then the text for each action is only generated when getHistoryAsText() is called
+    // This is the case for all copies, as these are used by agents (and their searches) that rarely read the text
+    private boolean lazyHistoryText = false;
+    // If false then no history at all is recorded (this is the case for copies made with copyForSearch())
+    private boolean historyEnabled = true;
 
     // Status of the game, and status for each player (in cooperative games, the game status is also each player's status)
     protected CoreConstants.GameResult gameStatus;
@@ -81,11 +93,14 @@ public abstract class AbstractGameState {
      */
     void reset() {
         allComponents = new Area(-1, "All Components");
+        componentIndexValid = false;
         gameStatus = GAME_ONGOING;
         playerResults = new CoreConstants.GameResult[getNPlayers()];
         Arrays.fill(playerResults, GAME_ONGOING);
-        history = new ArrayList<>();
-        historyText = new ArrayList<>();
+        history = PersistentLog.empty();
+        historyText = PersistentLog.empty();
+        lazyHistoryText = false;
+        historyEnabled = true;
         playerTimer = new ElapsedCpuChessTimer[getNPlayers()];
         tick = 0;
         turnOwner = 0;
@@ -145,9 +160,13 @@ public abstract class AbstractGameState {
     /**
      * @return All actions that have been executed on this state since reset()/initialisation
      */
-    public List<AbstractAction> getHistory() { return new ArrayList<>(history);}
+    public List<AbstractAction> getHistory() { return history.toList();}
     public List<String> getHistoryAsText() {
-        return new ArrayList<>(historyText);
+        List<HistoryEntry> entries = historyText.toList();
+        List<String> retValue = new ArrayList<>(entries.size());
+        for (HistoryEntry entry : entries)
+            retValue.add(entry.getText(this));
+        return retValue;
     }
     public int getGameID() {
         return gameID;
@@ -206,18 +225,38 @@ public abstract class AbstractGameState {
         return playerResults[player] == GAME_ONGOING && gameStatus == GAME_ONGOING;
     }
     public final int getGameTick() {return tick;}
+    /**
+     * The index of components by ID is built lazily on the first call after a copy (or after
+     * invalidateComponentIndex()), and is rebuilt whenever an ID is not found (in case it is a new component).
+     * Copies of the state that never look up a component by ID therefore never pay the cost of building it.
+     */
     public final Component getComponentById(int id) {
-        Component c = allComponents.getComponent(id);
-        if (c == null) {
-            try {
+        Component c = null;
+        try {
+            boolean rebuilt = false;
+            if (!componentIndexValid) {
+                addAllComponents();
+                rebuilt = true;
+            }
+            c = allComponents.getComponent(id);
+            if (c == null && !rebuilt) {
                 addAllComponents();
                 c = allComponents.getComponent(id);
-            } catch (Exception ignored) {
-            }  // Can crash from concurrent modifications if running with GUI TODO: this is an ugly fix
-        }
+            }
+        } catch (Exception ignored) {
+        }  // Can crash from concurrent modifications if running with GUI TODO: this is an ugly fix
         return c;
     }
 
+    /**
+     * Marks the index of components by ID as out of date, so that it is rebuilt on the next call to getComponentById().
+     * This should be called if a game replaces a component with a new object that has the same ID, as otherwise
+     * getComponentById() will continue to return the old object.
+     */
+    public final void invalidateComponentIndex() {
+        componentIndexValid = false;
+    }
+
     public final Area getAllComponents() {
         addAllComponents(); // otherwise the list of allComponents is only ever updated when we copy the state!
         return allComponents;
@@ -241,6 +280,7 @@ public abstract class AbstractGameState {
     protected final void addAllComponents() {
         allComponents.clear();
         allComponents.putComponents(_getAllComponents());
+        componentIndexValid = true;
     }
 
     /**
@@ -263,22 +303,14 @@ public abstract class AbstractGameState {
      */
     public final AbstractGameState copy(int playerId) {
         AbstractGameState s = _copy(playerId);
-        // Copy super class things
-        s.allComponents = allComponents.emptyCopy();
-        s.gameStatus = gameStatus;
-        s.playerResults = playerResults.clone();
-        s.gamePhase = gamePhase;
-        s.coreGameParameters = coreGameParameters;
-        s.tick = tick;
-        s.nPlayers = nPlayers;
-        s.roundCounter = roundCounter;
-        s.turnCounter = turnCounter;
-        s.turnOwner = turnOwner;
-        s.firstPlayer = firstPlayer;
+        copySuperClassState(s);
+        s.lazyHistoryText = true;
+        s.historyEnabled = historyEnabled;
 
         if (!coreGameParameters.competitionMode) {
-            s.history = new ArrayList<>(history);
-            s.historyText = new ArrayList<>(historyText);
+            s.history = history;
+            s.historyText = historyText;
+            // the logs are immutable, so the copy shares them (and any later actions are appended to the copy's log only)
             // we do not copy individual actions in history, as these are now dead and should not change
             // History is for debugging and spectation of games. There is a risk that History might contain information
             // formally hidden to some participants. For this reason, in COMPETITION_MODE we explicitly do not copy
@@ -287,32 +319,92 @@ public abstract class AbstractGameState {
             // be incorporated in the game-specific data in GameState where the correct hiding protocols can be enforced.
         }
 
-        s.actionsInProgress = new Stack<>();
-        actionsInProgress.forEach(
-                a -> s.actionsInProgress.push(a.copy())
-        );
-
         s.playerTimer = new ElapsedCpuChessTimer[getNPlayers()];
         for (int i = 0; i < getNPlayers(); i++) {
             s.playerTimer[i] = playerTimer[i].copy();
         }
 
-        // Update the list of components for ID matching in actions.
-        s.addAllComponents();
+        // The list of components for ID matching in actions is populated when first needed
         return s;
     }
 
+    /**
+     * Public access copy method for use within search. As for copy(), none of the game-specific state is hidden or
+     * shuffled, but the history and player timers are left out; see copyForSearch(int).
+     *
+     * @return - copy of this game state, without history or timers.
+     */
+    public final AbstractGameState copyForSearch() {
+        return copyForSearch(-1);
+    }
+
+    /**
+     * A lightweight version of copy(playerId) for states that are only used inside an agent's search (for
+     * rollouts, or advancing through a tree), and then discarded.
+     * The game-specific state is copied exactly as for copy(playerId), but the bookkeeping that the forward model
+     * never reads is not:
+     * - no history is copied, and none is recorded on the copy (or any copies made from it)
+     * - player timers are replaced with ones that ignore all updates (and never time out)
+     * (Listeners are never copied.)
+     *
+     * @param playerId - player observing the state
+     * @return - reduced copy of the game state, without history or timers
+     */
+    public final AbstractGameState copyForSearch(int playerId) {
+        AbstractGameState s = _copy(playerId);
+        copySuperClassState(s);
+        s.historyEnabled = false;
+        s.playerTimer = new ElapsedCpuChessTimer[getNPlayers()];
+        Arrays.fill(s.playerTimer, ElapsedCpuChessTimer.INERT);
+        return s;
+    }
+
+    private void copySuperClassState(AbstractGameState s) {
+        s.allComponents = allComponents.emptyCopy();
+        s.gameID = gameID;
+        s.gameStatus = gameStatus;
+        s.playerResults = playerResults.clone();
+        s.gamePhase = gamePhase;
+        s.coreGameParameters = coreGameParameters;
+        s.tick = tick;
+        s.nPlayers = nPlayers;
+        s.roundCounter = roundCounter;
+        s.turnCounter = turnCounter;
+        s.turnOwner = turnOwner;
+        s.firstPlayer = firstPlayer;
+
+        s.actionsInProgress = new Stack<>();
+        actionsInProgress.forEach(
+                a -> s.actionsInProgress.push(a.copy())
+        );
+    }
+
     /**
      * Used by ForwardModel.next() to log history (very useful for debugging)
      *
      * @param action The action that has just been applied (or is about to be applied) to the game state
      */
     protected final void recordAction(AbstractAction action, int player) {
-        history.add(action);
-        historyText.add("Player " + player + " : " + action.getString(this));
+        if (!historyEnabled)
+            return;
+        history = history.append(action);
+        HistoryEntry entry = new HistoryEntry(action, player);
+        if (!lazyHistoryText)
+            entry.getText(this);
+        historyText = historyText.append(entry);
     }
 
 
+    /**
+     * Sends an event about this state to all its listeners
+     */
+    void sendEvent(IGameEvent event, AbstractAction action, int playerID) {
+        if (listeners.isEmpty()) return;
+        if (eventPool == null)
+            eventPool = new Event.Pool();
+        eventPool.send(listeners, event, this, action, playerID);
+    }
+
     // helper function to avoid time-consuming string manipulations if the message is not actually
     // going to be logged anywhere
     public void logEvent(IGameEvent event, Supplier<String> eventText) {
@@ -321,22 +413,56 @@ public abstract class AbstractGameState {
         logEvent(event, eventText.get());
     }
     public void logEvent(IGameEvent event, String eventText) {
-        LogEvent logAction = new LogEvent(eventText);
-        listeners.forEach(l -> l.onEvent(Event.createEvent(event, this, logAction)));
+        sendEvent(event, new LogEvent(eventText), -1);
         if (getCoreGameParameters().recordEventHistory) {
             recordHistory(eventText);
         }
     }
     public void logEvent(IGameEvent event) {
-        LogEvent logAction = new LogEvent(event.name());
-        listeners.forEach(l -> l.onEvent(Event.createEvent(event, this, logAction)));
+        sendEvent(event, new LogEvent(event.name()), -1);
         if (getCoreGameParameters().recordEventHistory) {
             recordHistory(event.name());
         }
     }
 
     public void recordHistory(String history) {
-        historyText.add(history);
+        if (!historyEnabled)
+            return;
+        historyText = historyText.append(new HistoryEntry(history));
+    }
+
+    /**
+     * An entry in the text history. This is either a fixed piece of text (from recordHistory), or an action taken
+     * by a player, for which the text is only generated when first needed (as getString() can be expensive, and
+     * is called for every action taken in every rollout otherwise).
+     * Note that lazily generated text uses the state at the time it is requested, not when the action was taken.
+     */
+    private static final class HistoryEntry {
+        final AbstractAction action;
+        final int player;
+        String text;
+
+        HistoryEntry(String text) {
+            this.action = null;
+            this.player = -1;
+            this.text = text;
+        }
+
+        HistoryEntry(AbstractAction action, int player) {
+            this.action = action;
+            this.player = player;
+        }
+
+        String getText(AbstractGameState state) {
+            if (text == null)
+                text = "Player " + player + " : " + action.getString(state);
+            return text;
+        }
+
+        @Override
+        public String toString() {
+            return text == null ? "Player " + player + " : " + action : text;
+        }
     }
 
     /* Methods dealing with ExtendedActions and the actionStack */
@@ -618,4 +744,62 @@ public abstract class AbstractGameState {
         result = 31 * result + Arrays.hashCode(playerResults);
         return result;
     }
+
+    /**
+     * A 64-bit hash of the state that, unlike hashCode(), is meant to be cheap enough to use on every state visited
+     * in a search (for example as the key of a transposition table). As with hashCode(), equal states must have the
+     * same hash, and history is excluded.
+     * <p>
+     * This hashes the fields held here, and then adds _getZobristHash() for the game-specific state.
+     *
+     * @return the hash of this state
+     */
+    public final long getZobristHash() {
+        long retValue = _getZobristHash();
+        retValue = Zobrist.combine(retValue, Zobrist.key(tick, turnOwner));
+        retValue = Zobrist.combine(retValue, Zobrist.key(roundCounter, turnCounter));
+        retValue = Zobrist.combine(retValue, Zobrist.key(firstPlayer, nPlayers));
+        retValue = Zobrist.combine(retValue, Zobrist.key(Objects.hashCode(gameStatus), Objects.hashCode(gamePhase)));
+        for (CoreConstants.GameResult result : playerResults)
+            retValue = Zobrist.combine(retValue, Objects.hashCode(result));
+        if (!actionsInProgress.isEmpty())
+            retValue = Zobrist.combine(retValue, actionsInProgress.hashCode());
+        return retValue;
+    }
+
+    /**
+     * Override this to opt in to fast hashing of the game-specific state. The usual implementation combines (with
+     * Zobrist.combine()) the getZobristHash() of each Deck, GridBoard, Counter etc. in the state, as these are kept
+     * up to date as the components are changed, with any other fields that are part of _equals().
+     * The default is hashCode(), which is correct but usually no faster.
+     *
+     * @return a hash of the game-specific state, which must be equal for any two states that are equal
+     */
+    protected long _getZobristHash() {
+        return hashCode();
+    }
+
+    // whether each class of state overrides _getZobristHash()
+    private static final ClassValue<Boolean> HAS_ZOBRIST_HASH = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != AbstractGameState.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("_getZobristHash");
+                    return true;
+                } catch (NoSuchMethodException e) {
+                    // try the superclass
+                }
+            }
+            return false;
+        }
+    };
+
+    /**
+     * @return true if this game overrides _getZobristHash(). Otherwise getZobristHash() is based on hashCode(), which
+     * is no cheaper to calculate, and (being only 32 bits) much more likely to be the same for different states.
+     */
+    public final boolean hasZobristHash() {
+        return HAS_ZOBRIST_HASH.get(getClass());
+    }
 }
@@ -148,6 +148,20 @@ public abstract class AbstractPlayer {
     public void onEvent(Event event) {
     }
 
+    /**
+     * Reseeds all the random number generators used by the player, so that it makes the same decisions each time it
+     * plays the same game after being given the same seed.
+     * This is used by tournaments, so that a game played by copies of the players (on another thread, or process) is
+     * the same as when it is played by the originals.
+     * Override this if the player has any source of randomness other than rnd and its parameters.
+     *
+     * @param seed - the new random seed
+     */
+    public void setSeed(long seed) {
+        rnd.setSeed(seed);
+        parameters.setRandomSeed(seed);
+    }
+
     public abstract AbstractPlayer copy();
 
     // override this to provide information on the last decision taken
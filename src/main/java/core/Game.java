@@ -43,6 +43,7 @@ public class Game {
     protected AbstractGameState gameState;
     protected AbstractForwardModel forwardModel;
     private List<IGameListener> listeners = new ArrayList<>();
+    private final Event.Pool eventPool = new Event.Pool();
 
     /* Game Statistics */
     private int lastPlayer; // used to track actions per 'turn'
@@ -394,7 +395,7 @@ public class Game {
      */
     public final void run() {
 
-        listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.ABOUT_TO_START, gameState)));
+        eventPool.send(listeners, Event.GameEvent.ABOUT_TO_START, gameState);
 
         boolean firstEnd = true;
 
@@ -562,8 +563,7 @@ public class Game {
                 action = null;
             }
             // We publish an ACTION_CHOSEN message before we implement the action, so that observers can record the state that led to the decision
-            AbstractAction finalAction = action;
-            listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.ACTION_CHOSEN, gameState, finalAction, activePlayer)));
+            eventPool.send(listeners, Event.GameEvent.ACTION_CHOSEN, gameState, action, activePlayer);
         } else {
             currentPlayer.registerUpdatedObservation(observation);
         }
@@ -592,8 +592,8 @@ public class Game {
 
         // We publish an ACTION_TAKEN message once the action is taken so that observers can record the result of the action
         // (such as the next player)
-        AbstractAction finalAction1 = action;
-        listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.ACTION_TAKEN, gameState, finalAction1.copy(), activePlayer)));
+        if (!listeners.isEmpty())
+            eventPool.send(listeners, Event.GameEvent.ACTION_TAKEN, gameState, action.copy(), activePlayer);
 
         if (debug) System.out.printf("Finishing oneAction for player %s%n", activePlayer);
         return action;
@@ -610,7 +610,7 @@ public class Game {
 
         // Perform any end of game computations as required by the game
         forwardModel.endGame(gameState);
-        listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, gameState)));
+        eventPool.send(listeners, Event.GameEvent.GAME_OVER, gameState);
         if (gameState.coreGameParameters.recordEventHistory) {
             gameState.recordHistory(Event.GameEvent.GAME_OVER.name());
             for (int i = 0; i < gameState.getNPlayers(); i++) {
@@ -2,7 +2,6 @@ package core;
 
 import core.actions.AbstractAction;
 import core.interfaces.IExtendedSequence;
-import evaluation.metrics.Event;
 
 import java.util.Arrays;
 
@@ -71,7 +70,7 @@ public abstract class StandardForwardModel extends AbstractForwardModel {
 
         int currentPlayer = gs.getCurrentPlayer();
         gs.getPlayerTimer()[currentPlayer].incrementTurn();
-        gs.listeners.forEach(l -> l.onEvent(Event.createEvent(TURN_OVER, gs, currentPlayer)));
+        gs.sendEvent(TURN_OVER, null, currentPlayer);
         if (gs.getCoreGameParameters().recordEventHistory) {
             gs.recordHistory(TURN_OVER.name());
         }
@@ -96,8 +95,9 @@ public abstract class StandardForwardModel extends AbstractForwardModel {
         do {
             turnOwner = (turnOwner + 1) % gs.nPlayers;
             if (turnOwner == gs.turnOwner) {
+                // copies made for search have no history
                 throw new AssertionError("Infinite loop - apparently all players are terminal, but game state is not. " +
-                        "Last action played: " + gs.getHistory().get(gs.getHistory().size() - 1));
+                        "Last action played: " + (gs.getHistory().isEmpty() ? "unknown" : gs.getHistory().get(gs.getHistory().size() - 1)));
             }
         } while (!gs.isNotTerminalForPlayer(turnOwner));
         endPlayerTurn(gs, turnOwner);
@@ -121,7 +121,7 @@ public abstract class StandardForwardModel extends AbstractForwardModel {
 
         int currentPlayer = gs.getCurrentPlayer();
         gs.getPlayerTimer()[currentPlayer].incrementRound();
-        gs.listeners.forEach(l -> l.onEvent(Event.createEvent(ROUND_OVER, gs, currentPlayer)));
+        gs.sendEvent(ROUND_OVER, null, currentPlayer);
         if (gs.getCoreGameParameters().recordEventHistory) {
             gs.recordHistory(ROUND_OVER.name());
         }
@@ -4,11 +4,13 @@ import core.properties.*;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import core.CoreConstants.ComponentType;
+import utilities.IDFountain;
 
 import java.util.*;
 
 public abstract class Component {
-    private static int ID = 0;  // All components receive a unique and final ID from this always increasing counter
+    // All components receive a unique and final ID from this fountain (which is safe to use from several threads)
+    private static final IDFountain ID = new IDFountain();
 
     protected transient final int componentID;  // Unique ID of this component
     protected final ComponentType type;  // Type of this component
@@ -17,14 +19,14 @@ public abstract class Component {
     protected String componentName;  // Name of this component
 
     public Component(ComponentType type, String name) {
-        this.componentID = ID++;
+        this.componentID = ID.nextID();
         this.type = type;
         this.componentName = name;
         this.properties = new HashMap<>();
     }
 
     public Component(ComponentType type) {
-        this.componentID = ID++;
+        this.componentID = ID.nextID();
         this.type = type;
         this.componentName = type.toString();
         this.properties = new HashMap<>();
@@ -236,4 +238,14 @@ public abstract class Component {
     public int hashCode() {
         return componentID;
     }
+
+    /**
+     * A 64-bit hash of this component, for use in AbstractGameState.getZobristHash(). This must be the same for any
+     * two components that are equal.
+     * The default is just hashCode(); containers whose hashCode() has to look at everything they contain (Deck,
+     * GridBoard) override this with a hash that they update as they are changed.
+     */
+    public long getZobristHash() {
+        return hashCode();
+    }
 }
@@ -5,6 +5,7 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -231,6 +232,15 @@ public class Counter extends Component {
         return result;
     }
 
+    /**
+     * The minimum, maximum and values of a Counter rarely change, so only the current value (and the ID) are hashed.
+     * This is O(1), so there is nothing to keep up to date.
+     */
+    @Override
+    public long getZobristHash() {
+        return Zobrist.key(componentID, valueIdx);
+    }
+
     @Override
     public String toString() {
         return "" + getValue();
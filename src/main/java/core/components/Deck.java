@@ -6,6 +6,7 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -26,6 +27,9 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     protected int capacity;  // Capacity of the deck (maximum number of elements)
     protected List<T> components;  // List of components in this deck
     protected VisibilityMode visibility;
+    // Hash of the components (see getZobristHash()); this is only kept up to date while zobristHashValid is true
+    private long zobristHash;
+    private boolean zobristHashValid;
 
     public Deck(String name, VisibilityMode visibility) {
         this(name, -1, visibility);
@@ -120,6 +124,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         if (components.size() > 0 && idx < components.size() && idx >= 0) {
             T c = components.get(idx);
             components.remove(idx);
+            hashRemoved(idx, c);
             return c;
         }
         return null;
@@ -198,6 +203,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
             throw new IllegalArgumentException("null cannot be added to a Deck");
         c.setOwnerId(ownerId);
         components.add(index, c);
+        hashInserted(index);
         return capacity == -1 || components.size() <= capacity;
     }
 
@@ -234,6 +240,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         for (T comp : d.components) {
             comp.setOwnerId(ownerId);
         }
+        zobristHashValid = false;
         return capacity == -1 || components.size() <= capacity;
     }
 
@@ -246,6 +253,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         for (T comp : d) {
             comp.setOwnerId(ownerId);
         }
+        zobristHashValid = false;
         return capacity == -1 || components.size() <= capacity;
     }
 
@@ -272,8 +280,10 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public boolean remove(int idx) {
         if (idx >= 0 && idx < components.size()) {
-            components.get(idx).setOwnerId(-1);
+            T c = components.get(idx);
+            c.setOwnerId(-1);
             components.remove(idx);
+            hashRemoved(idx, c);
             return true;
         }
         return false;
@@ -299,6 +309,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
             comp.setOwnerId(-1);
         }
         components.clear();
+        zobristHash = 0;
     }
 
     // Getters, Setters
@@ -308,6 +319,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public void shuffle(Random rnd) {
         Collections.shuffle(components, rnd);
+        zobristHashValid = false;
     }
 
     /**
@@ -325,14 +337,16 @@ public class Deck<T extends Component> extends Component implements IComponentCo
             components.set(fromIndex + i, component);
             i++;
         }
+        zobristHashValid = false;
     }
 
     /**
-     * @return all the components in this deck.
+     * @return all the components in this deck, as an unmodifiable view (use the methods of this class to change the
+     * deck, so that its hash is kept up to date).
      */
     @Override
     public List<T> getComponents() {
-        return components;
+        return Collections.unmodifiableList(components);
     }
 
     /**
@@ -345,6 +359,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         for (T comp : components) {
             comp.setOwnerId(ownerId);
         }
+        zobristHashValid = false;
     }
 
     /**
@@ -378,7 +393,11 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public void setComponent(int idx, T component) {
         component.setOwnerId(ownerId);
-        components.set(idx, component);
+        T old = components.set(idx, component);
+        if (zobristHashValid) {
+            int position = components.size() - 1 - idx;
+            zobristHash ^= Zobrist.key(position, old.hashCode()) ^ Zobrist.key(position, component.hashCode());
+        }
     }
 
     /**
@@ -418,6 +437,8 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         }
         deck.components = newComponents;
         deck.capacity = capacity;
+        deck.zobristHash = zobristHash;
+        deck.zobristHashValid = zobristHashValid;
 
         //copy type and component.
         copyComponentTo(deck);
@@ -454,4 +475,58 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         return Objects.hash(capacity, ownerId, componentID, components);
     }
 
+    /**
+     * Each component is hashed with its position counted from the bottom of the deck, so that adding a component to
+     * the top, or drawing one from it, only changes the hash by one key. The hash is calculated in full the first time
+     * this is called (and after shuffles and additions of whole decks), and then kept up to date by the methods
+     * of this class, in O(1) for the top of the deck and O(idx) elsewhere.
+     * Changes to the hashCode() of a component while it is in the deck are not seen. Use setComponent() to replace a
+     * component in place.
+     */
+    @Override
+    public long getZobristHash() {
+        if (!zobristHashValid) {
+            zobristHash = 0;
+            int size = components.size();
+            for (int i = 0; i < size; i++)
+                zobristHash ^= Zobrist.key(size - 1 - i, components.get(i).hashCode());
+            zobristHashValid = true;
+        }
+        return zobristHash;
+    }
+
+    /**
+     * The hash will be calculated in full the next time it is needed. Subclasses must call this if they change
+     * the list of components directly.
+     */
+    protected void invalidateZobristHash() {
+        zobristHashValid = false;
+    }
+
+    /**
+     * Updates the hash after a component has been inserted at idx, which moves all those above it up by one
+     */
+    private void hashInserted(int idx) {
+        if (!zobristHashValid) return;
+        int size = components.size();
+        for (int i = 0; i < idx; i++) {
+            int h = components.get(i).hashCode();
+            zobristHash ^= Zobrist.key(size - 2 - i, h) ^ Zobrist.key(size - 1 - i, h);
+        }
+        zobristHash ^= Zobrist.key(size - 1 - idx, components.get(idx).hashCode());
+    }
+
+    /**
+     * Updates the hash after the component c has been removed from idx, which moves all those above it down by one
+     */
+    private void hashRemoved(int idx, T c) {
+        if (!zobristHashValid) return;
+        int size = components.size();
+        zobristHash ^= Zobrist.key(size - idx, c.hashCode());
+        for (int i = 0; i < idx; i++) {
+            int h = components.get(i).hashCode();
+            zobristHash ^= Zobrist.key(size - i, h) ^ Zobrist.key(size - 1 - i, h);
+        }
+    }
+
 }
@@ -10,6 +10,7 @@ import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import utilities.Pair;
 import utilities.Vector2D;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -26,6 +27,11 @@ public class GridBoard<T extends Component> extends Component implements ICompon
 
     private Component[][] grid;  // 2D grid representation of this board
 
+    // Hash of the grid (see getZobristHash()), and the hashCode() of each cell when it was last set (one row after
+    // another). These are null/not kept up to date until the hash is first asked for.
+    private long zobristHash;
+    private int[] cellHashes;
+
     protected GridBoard() {
         super(CoreConstants.ComponentType.BOARD);
     }
@@ -122,6 +128,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
             if (w >= 0) System.arraycopy(this.grid[i], 0, grid[i + offsetY], offsetX, w);
         }
         this.grid = grid;
+        this.cellHashes = null;
     }
 
     /**
@@ -135,6 +142,12 @@ public class GridBoard<T extends Component> extends Component implements ICompon
     public boolean setElement(int x, int y, T value) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
             grid[y][x] = value;
+            if (cellHashes != null) {
+                int cell = y * width + x;
+                int h = Objects.hashCode(value);
+                zobristHash ^= Zobrist.key(cell, cellHashes[cell]) ^ Zobrist.key(cell, h);
+                cellHashes[cell] = h;
+            }
             return true;
         } else
             return false;
@@ -237,12 +250,18 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         }
         GridBoard<T> g = new GridBoard<>(gridCopy, componentID);
         copyComponentTo(g);
+        if (cellHashes != null) {
+            g.cellHashes = cellHashes.clone();
+            g.zobristHash = zobristHash;
+        }
         return g;
     }
 
     public GridBoard<T> emptyCopy() {
         GridBoard<T> g = new GridBoard<>(getWidth(), getHeight(), componentID);
         copyComponentTo(g);
+        if (cellHashes != null)
+            g.getZobristHash();  // so that the board is hashed as it is filled in
         return g;
     }
 
@@ -302,6 +321,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         }
 
         this.grid = new Component[height][width];
+        this.cellHashes = null;
 
         JSONArray grids = (JSONArray) board.get("grid");
         int y = 0;
@@ -410,6 +430,28 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         return Objects.hash(componentID) + 5 * Arrays.hashCode(flattenGrid());
     }
 
+    /**
+     * The XOR of one key for each cell and the hashCode() of its content. This is calculated in full the first time it
+     * is called, and then updated in O(1) by each setElement(), and copied with the board.
+     * If a component on the board is changed in a way that changes its hashCode() then it must be set again
+     * (setElement() with the same component) so that the hash sees the change.
+     */
+    @Override
+    public long getZobristHash() {
+        if (cellHashes == null) {
+            cellHashes = new int[width * height];
+            zobristHash = 0;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int cell = y * width + x;
+                    cellHashes[cell] = Objects.hashCode(grid[y][x]);
+                    zobristHash ^= Zobrist.key(cell, cellHashes[cell]);
+                }
+            }
+        }
+        return zobristHash;
+    }
+
     @Override
     public List<T> getComponents() {
         return Arrays.stream(flattenGrid()).map( component -> (T) component).collect(Collectors.toList());
@@ -16,6 +16,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     protected boolean[] deckVisibility;
 
     // Visibility of each component in the deck, order corresponds to order of elements in the deck;
+    // this is left out of getZobristHash(), as it is of equals(), so that equal decks always have the same hash
     protected List<boolean[]> elementVisibility = new ArrayList<>();
 
     public boolean getVisibilityForPlayer(int elementIdx, int playerID) {
@@ -269,6 +270,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
         Pair<List<T>, List<boolean[]>> shuffled = shuffleLists(components, elementVisibility, rnd);
         components = shuffled.a;
         elementVisibility = shuffled.b;
+        invalidateZobristHash();
     }
 
     /**
@@ -343,6 +345,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
                 n++;
             }
         }
+        invalidateZobristHash();
     }
 
     public boolean[] getDeckVisibility() {
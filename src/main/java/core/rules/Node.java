@@ -2,12 +2,13 @@ package core.rules;
 
 import core.AbstractGameStateWithTurnOrder;
 import core.actions.AbstractAction;
+import utilities.IDFountain;
 
 /**
  * A node in a tree of game rules. Receives a unique ID on creation, and keeps track of node properties.
  */
 public abstract class Node {
-    private static int nextID = 0;
+    private static final IDFountain nextID = new IDFountain();
 
     private int id;  // Unique id for this node
     protected boolean actionNode;  // True if this node requires an action to execute
@@ -16,7 +17,7 @@ public abstract class Node {
     protected Node parent;  // Parent node, can be used to retrieve parameters set by a previous node
 
     public Node() {
-        id = nextID++;
+        id = nextID.nextID();
     }
 
     /**
@@ -2,7 +2,9 @@ package core.turnorders;
 
 import core.AbstractGameState;
 import core.CoreConstants;
+import core.actions.AbstractAction;
 import core.actions.LogEvent;
+import core.interfaces.IGameEvent;
 import evaluation.listeners.IGameListener;
 import evaluation.metrics.Event;
 
@@ -38,6 +40,8 @@ public abstract class TurnOrder {
     protected int roundCounter;  // 1 round = (1 turn) x nPlayers(alive)
 
     protected List<IGameListener> listeners = new ArrayList<>();
+    // Re-usable Events to send to the listeners (created when first needed, and not copied)
+    private Event.Pool eventPool;
 
     public TurnOrder(int nPlayers, int nMaxRounds) {
         reset();
@@ -137,7 +141,7 @@ public abstract class TurnOrder {
 
         gameState.getPlayerTimer()[getCurrentPlayer(gameState)].incrementTurn();
 
-        listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.TURN_OVER, gameState,getCurrentPlayer(gameState))));
+        sendEvent(Event.GameEvent.TURN_OVER, gameState, null, getCurrentPlayer(gameState));
 
         turnCounter++;
         if (turnCounter >= nPlayers) endRound(gameState);
@@ -146,6 +150,16 @@ public abstract class TurnOrder {
         }
     }
 
+    /**
+     * Sends an event to all the listeners of this turn order
+     */
+    protected void sendEvent(IGameEvent event, AbstractGameState state, AbstractAction action, int playerID) {
+        if (listeners.isEmpty()) return;
+        if (eventPool == null)
+            eventPool = new Event.Pool();
+        eventPool.send(listeners, event, state, action, playerID);
+    }
+
     // helper function to avoid time-consuming string manipulations if the message is not actually
     // going to be logged anywhere
     public void logEvent(Supplier<String> eventText, AbstractGameState state) {
@@ -154,8 +168,7 @@ public abstract class TurnOrder {
         logEvent(eventText.get(), state);
     }
     public void logEvent(String eventText, AbstractGameState state) {
-        LogEvent logAction = new LogEvent(eventText);
-        listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.GAME_EVENT, state, logAction)));
+        sendEvent(Event.GameEvent.GAME_EVENT, state, new LogEvent(eventText), -1);
         if (state.getCoreGameParameters().recordEventHistory) {
             state.recordHistory(eventText);
         }
@@ -174,7 +187,7 @@ public abstract class TurnOrder {
 
         gameState.getPlayerTimer()[getCurrentPlayer(gameState)].incrementRound();
 
-        listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.ROUND_OVER, gameState, getCurrentPlayer(gameState))));
+        sendEvent(Event.GameEvent.ROUND_OVER, gameState, null, getCurrentPlayer(gameState));
         if (gameState.getCoreGameParameters().recordEventHistory) {
             gameState.recordHistory(Event.GameEvent.ROUND_OVER.name());
         }
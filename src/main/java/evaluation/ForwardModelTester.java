@@ -72,6 +72,12 @@ public class ForwardModelTester {
                     System.out.printf("\tOrig: %s%n\tCopy: %s%n", game.getGameState().toString(), stateCopy);
                     throw new AssertionError("Copy of game state should have same hashcode as original");
                 }
+                if (stateCopy.getZobristHash() != game.getGameState().getZobristHash()) {
+                    String error = String.format("Problem on state copy - orig/copy Zobrist hashes are %d/%d",
+                            game.getGameState().getZobristHash(), stateCopy.getZobristHash());
+                    System.out.println(error);
+                    throw new AssertionError("Copy of game state should have same Zobrist hash as original");
+                }
                 allFine = checkHistory();
                 int player = game.getGameState().getCurrentPlayer();
                 int currentRound = game.getGameState().getRoundCounter();
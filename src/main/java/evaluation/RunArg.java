@@ -23,6 +23,10 @@ public enum RunArg {
             "\t This may be useful if you want to use the same destDir for multiple experiments.",
             false,
             new Usage[]{Usage.RunGames}),
+    asyncListeners("(Optional) If true (default is false), then listeners process game events on a background thread,\n" +
+            "\t so that the time they take is not included in the time of the game (or the agents).",
+            false,
+            new Usage[]{Usage.RunGames}),
     config("The location of a JSON file from which to read the configuration. \n" +
             "\t If this is specified, then all other arguments are ignored.",
             "",
@@ -93,6 +97,12 @@ public enum RunArg {
     nPlayers("The number of players in each game. Overrides playerRange.",
             -1,
             new Usage[]{Usage.ParameterSearch, Usage.RunGames}),
+    nThreads("The number of threads to use to run games in parallel. Defaults to 1 (all games run sequentially).\n" +
+            "\t With more than one thread each game is played with copies of the players, and results are\n" +
+            "\t collated in the same order as a sequential run.\n" +
+            "\t For NTBEA this many candidate settings are evaluated at once, as are the evalGames and final tournament.",
+            1,
+            new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
     neighbourhood("The size of neighbourhood to look at in NTBEA. Default is min(50, |searchSpace|/100) ",
             50,
             new Usage[]{Usage.ParameterSearch}),
@@ -133,6 +143,11 @@ public enum RunArg {
             "\t Defaults to false",
             false,
             new Usage[]{Usage.RunGames}),
+    streamMetrics("(Optional) If true (default is false), then metrics are summarised as they are recorded, rather than\n" +
+            "\t keeping all the data in memory until the end. This is useful for long runs. Raw data is written to a temporary\n" +
+            "\t file if needed, and RawDataPerEvent reports are not possible.",
+            false,
+            new Usage[]{Usage.RunGames}),
     tuneGame("If true, then we will tune the game instead of tuning the agent.\n" +
             "\tIn this case the searchSpace file must be relevant for the game.",
             false,
@@ -142,7 +157,24 @@ public enum RunArg {
             new Usage[]{Usage.ParameterSearch}),
     verbose("If true, then the result of each game is reported. Default is false.",
             false,
-            new Usage[]{Usage.RunGames, Usage.ParameterSearch});
+            new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
+    workerAddress("(Optional) The address on which to wait for worker processes if workerPort is set. The default of\n" +
+            "\t localhost only accepts workers on this machine; 0.0.0.0 accepts them from any machine that can reach it.",
+            "localhost",
+            new Usage[]{Usage.RunGames}),
+    workerPort("(Optional) The port on which to wait for worker processes if workers > 0. The default of 0 launches\n" +
+            "\t the workers as local processes. Otherwise each worker must be started (on this or another machine, as\n" +
+            "\t allowed by workerAddress) with\n" +
+            "\t java -cp <classpath> evaluation.tournaments.TournamentWorker host=<this machine> port=<workerPort>\n" +
+            "\t from a directory in which any files given as arguments (players, listeners, gameParams) can be found.",
+            0,
+            new Usage[]{Usage.RunGames}),
+    workers("(Optional) The number of worker processes to run games on. Defaults to 0 (games are run in this process).\n" +
+            "\t Each worker plays games with its own copies of the agents, and the results are collated here in\n" +
+            "\t the same order as a sequential run. The metrics of each listener are run on the workers, and the\n" +
+            "\t data for each game sent back to be reported here (so only listeners with metrics can be used).",
+            0,
+            new Usage[]{Usage.RunGames});
 
     public final String helpText;
     public final Object defaultValue;
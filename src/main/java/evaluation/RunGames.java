@@ -3,11 +3,14 @@ package evaluation;
 import core.AbstractParameters;
 import core.AbstractPlayer;
 import core.interfaces.IGameRunner;
+import evaluation.listeners.AsyncGameListener;
 import evaluation.listeners.IGameListener;
+import evaluation.listeners.MetricsGameListener;
 import evaluation.tournaments.AbstractTournament;
 import evaluation.tournaments.SkillGrid;
 import evaluation.tournaments.RandomRRTournament;
 import evaluation.tournaments.RoundRobinTournament;
+import evaluation.tournaments.TournamentWorkers;
 import games.GameType;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -24,6 +27,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.regex.Pattern;
@@ -83,23 +88,13 @@ public class RunGames implements IGameRunner {
 
         // 2. Setup
 
-        LinkedList<AbstractPlayer> agents = new LinkedList<>();
-        if (!runGames.config.get(playerDirectory).equals("")) {
-            agents.addAll(PlayerFactory.createPlayers((String) runGames.config.get(playerDirectory)));
-        } else {
-//            agents.add(new MCTSPlayer());
-//            agents.add(new BasicMCTSPlayer());
-            agents.add(new RandomPlayer());
-            agents.add(new RMHCPlayer());
-            agents.add(new OSLAPlayer());
-        }
+        LinkedList<AbstractPlayer> agents = createAgents(runGames.config);
         runGames.agents = agents;
 
         runGames.focus = null;
         if (!runGames.config.get(focusPlayer).equals("")) {
             runGames.config.put(mode, "exhaustive"); // this is irrelevant in this case
-            runGames.focus = PlayerFactory.createPlayer((String) runGames.config.get(focusPlayer));
-            agents.add(0, runGames.focus);  // convention is that they go first in the list of agents
+            runGames.focus = agents.get(0);
         }
 
         runGames.tournamentMode = ((boolean) runGames.config.get(selfPlay)) ? SELF_PLAY : NO_SELF_PLAY;
@@ -118,8 +113,49 @@ public class RunGames implements IGameRunner {
     }
 
 
+    /**
+     * Creates the agents for a tournament from the playerDirectory and focusPlayer arguments (or the defaults if no
+     * playerDirectory is given). If there is a focus player, then it is the first agent.
+     * This is also used by each TournamentWorker, so that it has the same agents (in the same order) as the coordinator.
+     */
+    public static LinkedList<AbstractPlayer> createAgents(Map<RunArg, Object> config) {
+        LinkedList<AbstractPlayer> agents = new LinkedList<>();
+        if (!config.get(playerDirectory).equals("")) {
+            agents.addAll(PlayerFactory.createPlayers((String) config.get(playerDirectory)));
+        } else {
+//            agents.add(new MCTSPlayer());
+//            agents.add(new BasicMCTSPlayer());
+            agents.add(new RandomPlayer());
+            agents.add(new RMHCPlayer());
+            agents.add(new OSLAPlayer());
+        }
+        if (!config.get(focusPlayer).equals(""))
+            agents.add(0, PlayerFactory.createPlayer((String) config.get(focusPlayer)));  // convention is that they go first in the list of agents
+        return agents;
+    }
+
+    private InetAddress workerAddress() {
+        try {
+            return InetAddress.getByName((String) config.get(workerAddress));
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Unknown workerAddress " + config.get(workerAddress), e);
+        }
+    }
+
     @Override
     public void run() {
+        // If there are workers, then they run all the games (and metrics), and are shared by all the tournaments
+        TournamentWorkers tournamentWorkers = (int) config.get(workers) > 0 ?
+                new TournamentWorkers((int) config.get(workers), (int) config.get(workerPort), workerAddress()) : null;
+        try {
+            runTournaments(tournamentWorkers);
+        } finally {
+            if (tournamentWorkers != null)
+                tournamentWorkers.close();
+        }
+    }
+
+    private void runTournaments(TournamentWorkers tournamentWorkers) {
         // Now we loop over each game and player count combination
         for (GameType gameType : gamesAndPlayerCounts.keySet()) {
             String gameName = gameType.name();
@@ -136,19 +172,29 @@ public class RunGames implements IGameRunner {
                         new RandomRRTournament(agents, gameType, playerCount, tournamentMode, (int) config.get(matchups), (int) config.get(reportPeriod),
                                 System.currentTimeMillis(), params);
 
-                // Add listeners
+                String outputDir = (String) config.get(destDir);
+                List<String> directories = new ArrayList<>(Arrays.asList(outputDir.split(Pattern.quote(File.separator))));
+                if (gamesAndPlayerCounts.size() > 1)
+                    directories.add(gameName);
+                if (gamesAndPlayerCounts.get(gameType).length > 1)
+                    directories.add(playersDir);
+                if ((boolean) config.get(addTimeStamp))
+                    directories.add(timeDir);
+
+                if (tournamentWorkers != null) {
+                    tournamentWorkers.setWorkerArgs(workerArgs());
+                    tournament.setWorkers(tournamentWorkers);
+                }
+
+                // Add listeners (which, with workers, get the data that their metrics record on the workers)
                 //noinspection unchecked
                 for (String listenerClass : ((List<String>) config.get(listener))) {
                     IGameListener gameTracker = IGameListener.createListener(listenerClass, (String) config.get(metrics));
+                    if ((boolean) config.get(streamMetrics) && gameTracker instanceof MetricsGameListener)
+                        ((MetricsGameListener) gameTracker).streamData();
+                    if ((boolean) config.get(asyncListeners))
+                        gameTracker = new AsyncGameListener(gameTracker);
                     tournament.addListener(gameTracker);
-                    String outputDir = (String) config.get(destDir);
-                    List<String> directories = new ArrayList<>(Arrays.asList(outputDir.split(Pattern.quote(File.separator))));
-                    if (gamesAndPlayerCounts.size() > 1)
-                        directories.add(gameName);
-                    if (gamesAndPlayerCounts.get(gameType).length > 1)
-                        directories.add(playersDir);
-                    if ((boolean) config.get(addTimeStamp))
-                        directories.add(timeDir);
                     gameTracker.setOutputDirectory(directories.toArray(new String[0]));
                 }
 
@@ -157,11 +203,24 @@ public class RunGames implements IGameRunner {
                 tournament.setVerbose((boolean) config.get(verbose));
                 tournament.setResultsFile((String) config.get(output));
                 tournament.setRandomGameParams((boolean) config.get(randomGameParams));
+                tournament.setNumberOfThreads((int) config.get(nThreads));
                 tournament.run();
             }
         }
     }
 
+    /**
+     * @return the arguments from which each TournamentWorker creates the same agents and listeners as we would here
+     */
+    @SuppressWarnings("unchecked")
+    private String[] workerArgs() {
+        List<String> args = new ArrayList<>();
+        for (RunArg arg : new RunArg[]{playerDirectory, focusPlayer, gameParams, randomGameParams, metrics})
+            args.add(arg.name() + "=" + config.get(arg));
+        args.add(listener.name() + "=" + String.join("|", (List<String>) config.get(listener)));
+        return args.toArray(new String[0]);
+    }
+
     private void initialiseGamesAndPlayerCount() {
         String gameArg = config.get(RunArg.game).toString();
         String playerRange = config.get(RunArg.playerRange).toString();
@@ -0,0 +1,252 @@
+package evaluation.listeners;
+
+import core.AbstractGameState;
+import core.Game;
+import core.interfaces.IGameEvent;
+import evaluation.metrics.Event;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Wraps another listener so that it processes events on a background thread, rather than on the thread that runs the
+ * game (which will otherwise include the time taken by, for example, every metric of a MetricsGameListener).
+ * <p>
+ * Each event is captured by a Snapshot (so the game can carry on), and events are passed to the background thread in
+ * batches of batchSize. At most maxBatches batches are queued; after that the game thread waits for the listener to
+ * catch up. Events the listener does not listen to (see IGameListener.listensTo()) are not captured at all.
+ * <p>
+ * The default snapshot, COPY_STATE, copies the game state for every event, which is always safe but not cheap: the
+ * copy is made on the game thread, and for a large game (such as Dominion) can take longer than the metrics it saves
+ * running there. So this only speeds up the game if the listener does more work with each event than copying the
+ * state; otherwise a cheaper Snapshot that captures just what the listener needs (or none of the state, with
+ * WITHOUT_STATE) can be given.
+ * All events are processed before onEvent() returns for GAME_OVER, and before report(), reset() or init(), so the
+ * listener only runs behind the game during a game. The listener should only use the Event it is given (and
+ * getGame() for things that do not change during a game, such as the players), as the Game itself will have moved on.
+ * <p>
+ * Any exception thrown by the listener is rethrown on the game thread at the next point at which events are flushed.
+ */
+public class AsyncGameListener implements IGameListener {
+
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final int DEFAULT_MAX_BATCHES = 16;
+
+    private static final List<PendingEvent> STOP = Collections.emptyList();
+
+    /**
+     * Captures an event on the game thread, for the listener to process later on the background thread. The event
+     * returned must not share anything with the game that may change.
+     */
+    public interface Snapshot {
+        Event capture(Event event);
+    }
+
+    // Copies the game state and action
+    public static final Snapshot COPY_STATE = event -> {
+        AbstractGameState state = null;
+        if (event.state != null) {
+            state = event.state.copy();
+            // copies of the parameters have a new seed, but metrics record the seed of the game
+            state.getGameParameters().setRandomSeed(event.state.getGameParameters().getRandomSeed());
+        }
+        return Event.createEvent(event.type, state, event.action == null ? null : event.action.copy(), event.playerID);
+    };
+
+    // Copies the action, but not the state, for a listener that only uses the type of event, action and player
+    public static final Snapshot WITHOUT_STATE = event ->
+            Event.createEvent(event.type, null, event.action == null ? null : event.action.copy(), event.playerID);
+
+    // an event to be processed, and the Game it came from (as a listener may be shared by several games)
+    private static class PendingEvent {
+        final Event event;
+        final Game game;
+
+        PendingEvent(Event event, Game game) {
+            this.event = event;
+            this.game = game;
+        }
+    }
+
+    private final IGameListener listener;
+    private final Snapshot snapshot;
+    private final int batchSize;
+    private final BlockingQueue<List<PendingEvent>> queue;
+    private List<PendingEvent> batch;
+    private Game game;
+    private Thread consumer;
+
+    private final Object lock = new Object();
+    private long submitted, processed;  // events, guarded by lock
+    private Throwable failure;  // guarded by lock
+
+    public AsyncGameListener(IGameListener listener) {
+        this(listener, COPY_STATE);
+    }
+
+    public AsyncGameListener(IGameListener listener, Snapshot snapshot) {
+        this(listener, snapshot, DEFAULT_BATCH_SIZE, DEFAULT_MAX_BATCHES);
+    }
+
+    public AsyncGameListener(IGameListener listener, int batchSize, int maxBatches) {
+        this(listener, COPY_STATE, batchSize, maxBatches);
+    }
+
+    public AsyncGameListener(IGameListener listener, Snapshot snapshot, int batchSize, int maxBatches) {
+        if (batchSize < 1 || maxBatches < 1)
+            throw new IllegalArgumentException("batchSize and maxBatches must be positive");
+        this.listener = listener;
+        this.snapshot = snapshot;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(maxBatches);
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * @return the listener that events are passed on to
+     */
+    public IGameListener getListener() {
+        return listener;
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        if (listener.listensTo(event.type))
+            batch.add(new PendingEvent(snapshot.capture(event), game));
+        if (event.type == Event.GameEvent.GAME_OVER)
+            flush();
+        else if (batch.size() >= batchSize)
+            submitBatch();
+    }
+
+    private void submitBatch() {
+        if (batch.isEmpty())
+            return;
+        if (consumer == null) {
+            consumer = new Thread(this::processBatches, "AsyncGameListener-" + listener.getClass().getSimpleName());
+            consumer.setDaemon(true);
+            consumer.start();
+        }
+        synchronized (lock) {
+            submitted += batch.size();
+        }
+        put(batch);
+        batch = new ArrayList<>(batchSize);
+    }
+
+    private void put(List<PendingEvent> events) {
+        try {
+            queue.put(events);  // this blocks if the queue is full
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while waiting for " + listener + " to process events");
+        }
+    }
+
+    private void processBatches() {
+        while (true) {
+            List<PendingEvent> events;
+            try {
+                events = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (events == STOP)
+                return;
+            Throwable error = null;
+            for (PendingEvent pending : events) {
+                try {
+                    listener.setGame(pending.game);
+                    listener.onEvent(pending.event);
+                } catch (RuntimeException | Error e) {
+                    if (error == null)
+                        error = e;
+                }
+            }
+            synchronized (lock) {
+                processed += events.size();
+                if (failure == null)
+                    failure = error;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until the listener has processed all events so far
+     */
+    public void flush() {
+        submitBatch();
+        Throwable error;
+        synchronized (lock) {
+            while (processed < submitted) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new AssertionError("Interrupted while waiting for " + listener + " to process events");
+                }
+            }
+            error = failure;
+            failure = null;
+        }
+        if (error != null)
+            throw new RuntimeException("Exception in " + listener + " processing events asynchronously", error);
+    }
+
+    /**
+     * Processes all outstanding events, and then reports on the calling thread.
+     * The background thread is stopped (and will be restarted if there are any more events).
+     */
+    @Override
+    public void report() {
+        flush();
+        if (consumer != null) {
+            put(STOP);
+            try {
+                consumer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            consumer = null;
+        }
+        listener.setGame(game);
+        listener.report();
+    }
+
+    @Override
+    public boolean setOutputDirectory(String... nestedDirectories) {
+        flush();
+        return listener.setOutputDirectory(nestedDirectories);
+    }
+
+    @Override
+    public boolean listensTo(IGameEvent eventType) {
+        // GAME_OVER is always needed, to flush the events of the game
+        return eventType == Event.GameEvent.GAME_OVER || listener.listensTo(eventType);
+    }
+
+    @Override
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
+    @Override
+    public Game getGame() {
+        return game;
+    }
+
+    @Override
+    public void reset() {
+        flush();
+        listener.reset();
+    }
+
+    @Override
+    public void init(Game game, int nPlayersPerGame, Set<String> playerNames) {
+        flush();
+        this.game = game;
+        listener.init(game, nPlayersPerGame, playerNames);
+    }
+}
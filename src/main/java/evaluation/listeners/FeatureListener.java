@@ -3,6 +3,7 @@ package evaluation.listeners;
 import core.*;
 import core.actions.AbstractAction;
 import core.interfaces.IStatisticLogger;
+import evaluation.loggers.BinaryStatsLogger;
 import evaluation.metrics.Event;
 
 import java.util.*;
@@ -64,30 +65,73 @@ public abstract class FeatureListener implements IGameListener {
         }).toArray();
         double[] ordinal = IntStream.range(0, totP).mapToDouble(state::getOrdinalPosition).toArray();
         double finalRound = state.getRoundCounter();
-        for (StateFeatureListener.LocalDataWrapper record : currentData) {
-            // we use a LinkedHashMap so that the order of the keys is preserved, and hence the
-            // data is written to file in a sensible order for human viewing
-            Map<String, Double> data = new LinkedHashMap<>();
-            data.put("GameID", (double) state.getGameID());
-            data.put("Player", (double) record.player);
-            data.put("Round", (double) record.gameRound);
-            data.put("Turn", (double) record.gameTurn);
-            data.put("CurrentScore", record.currentScore);
-            for (int i = 0; i < record.array.length; i++) {
-                data.put(names()[i], record.array[i]);
+        String[] featureNames = names();
+        if (logger instanceof BinaryStatsLogger) {
+            writeBinaryData((BinaryStatsLogger) logger, state, featureNames, finalScores, winLoss, ordinal, finalRound);
+        } else {
+            for (StateFeatureListener.LocalDataWrapper record : currentData) {
+                // we use a LinkedHashMap so that the order of the keys is preserved, and hence the
+                // data is written to file in a sensible order for human viewing
+                Map<String, Double> data = new LinkedHashMap<>();
+                data.put("GameID", (double) state.getGameID());
+                data.put("Player", (double) record.player);
+                data.put("Round", (double) record.gameRound);
+                data.put("Turn", (double) record.gameTurn);
+                data.put("CurrentScore", record.currentScore);
+                for (int i = 0; i < record.array.length; i++) {
+                    data.put(featureNames[i], record.array[i]);
+                }
+                data.put("PlayerCount", (double) getGame().getPlayers().size());
+                data.put("TotalRounds", finalRound);
+                data.put("ActionScore", record.actionScore);
+                data.put("Win", winLoss[record.player]);
+                data.put("Ordinal", ordinal[record.player]);
+                data.put("FinalScore", finalScores[record.player]);
+                logger.record(data);
             }
-            data.put("PlayerCount", (double) getGame().getPlayers().size());
-            data.put("TotalRounds", finalRound);
-            data.put("ActionScore", record.actionScore);
-            data.put("Win", winLoss[record.player]);
-            data.put("Ordinal", ordinal[record.player]);
-            data.put("FinalScore", finalScores[record.player]);
-            logger.record(data);
         }
         logger.processDataAndNotFinish();
         currentData = new ArrayList<>();
     }
 
+    /**
+     * The same columns as in writeDataWithStandardHeaders(), but with each row written directly as a double[] to
+     * avoid boxing every feature into a Map
+     */
+    private void writeBinaryData(BinaryStatsLogger binaryLogger, AbstractGameState state, String[] featureNames,
+                                 double[] finalScores, double[] winLoss, double[] ordinal, double finalRound) {
+        int nFeatures = featureNames.length;
+        if (!binaryLogger.hasColumns()) {
+            String[] columns = new String[nFeatures + 11];
+            BinaryStatsLogger.ColumnType[] types = new BinaryStatsLogger.ColumnType[columns.length];
+            Arrays.fill(types, BinaryStatsLogger.ColumnType.DOUBLE);
+            String[] start = {"GameID", "Player", "Round", "Turn", "CurrentScore"};
+            String[] end = {"PlayerCount", "TotalRounds", "ActionScore", "Win", "Ordinal", "FinalScore"};
+            System.arraycopy(start, 0, columns, 0, start.length);
+            System.arraycopy(featureNames, 0, columns, start.length, nFeatures);
+            System.arraycopy(end, 0, columns, start.length + nFeatures, end.length);
+            for (int i : new int[]{0, 1, 2, 3, nFeatures + 5, nFeatures + 6})
+                types[i] = BinaryStatsLogger.ColumnType.INT;
+            binaryLogger.setColumns(columns, types);
+        }
+        double[] row = new double[nFeatures + 11];
+        for (StateFeatureListener.LocalDataWrapper record : currentData) {
+            row[0] = state.getGameID();
+            row[1] = record.player;
+            row[2] = record.gameRound;
+            row[3] = record.gameTurn;
+            row[4] = record.currentScore;
+            System.arraycopy(record.array, 0, row, 5, nFeatures);
+            row[nFeatures + 5] = getGame().getPlayers().size();
+            row[nFeatures + 6] = finalRound;
+            row[nFeatures + 7] = record.actionScore;
+            row[nFeatures + 8] = winLoss[record.player];
+            row[nFeatures + 9] = ordinal[record.player];
+            row[nFeatures + 10] = finalScores[record.player];
+            binaryLogger.record(row);
+        }
+    }
+
     @Override
     public void report() {
         logger.processDataAndFinish();
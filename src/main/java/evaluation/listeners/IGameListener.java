@@ -1,6 +1,7 @@
 package evaluation.listeners;
 
 import core.Game;
+import core.interfaces.IGameEvent;
 import evaluation.metrics.AbstractMetric;
 import evaluation.metrics.Event;
 import evaluation.metrics.GameMetrics;
@@ -122,6 +123,14 @@ public interface IGameListener {
     default void reset() {
     }
 
+    /**
+     * @return false if this listener does nothing with events of this type (so that they need not be passed to it,
+     * see AsyncGameListener). The default is true.
+     */
+    default boolean listensTo(IGameEvent eventType) {
+        return true;
+    }
+
     default void init(Game game, int nPlayersPerGame, Set<String> playerNames) {}
 
 }
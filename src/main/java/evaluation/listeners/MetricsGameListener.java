@@ -5,6 +5,8 @@ import core.Game;
 import core.interfaces.IGameEvent;
 import evaluation.metrics.*;
 import evaluation.metrics.tablessaw.DataTableSaw;
+import evaluation.metrics.tablessaw.StreamingDataTableSaw;
+import utilities.Pair;
 import utilities.Utils;
 
 import java.io.File;
@@ -31,6 +33,12 @@ public class MetricsGameListener implements IGameListener {
     // Events the metrics in this listener respond to. Game over is always added.
     protected Set<IGameEvent> eventsOfInterest = new HashSet<>();
 
+    // The metrics that respond to each event, indexed by ordinal for Event.GameEvent (null if there are none),
+    // and in a map for any other (game-specific) events
+    private final AbstractMetric[][] metricsByGameEvent = new AbstractMetric[Event.GameEvent.values().length][];
+    private final Map<IGameEvent, AbstractMetric[]> metricsByOtherEvent = new HashMap<>();
+    private AbstractMetric[] allMetrics = new AbstractMetric[0];
+
     // Game this listener listens to
     protected Game game;
 
@@ -64,6 +72,96 @@ public class MetricsGameListener implements IGameListener {
             eventsOfInterest.addAll(m.getEventTypes());
         }
         eventsOfInterest.add(Event.GameEvent.GAME_OVER);
+        indexMetrics();
+    }
+
+    /**
+     * Finds the metrics that respond to each event, in the order they were given, so that onEvent() only has to
+     * look at those
+     */
+    private void indexMetrics() {
+        allMetrics = metrics.values().toArray(new AbstractMetric[0]);
+        for (IGameEvent event : eventsOfInterest) {
+            AbstractMetric[] listening = Arrays.stream(allMetrics).filter(m -> m.listens(event)).toArray(AbstractMetric[]::new);
+            if (event instanceof Event.GameEvent) {
+                metricsByGameEvent[((Event.GameEvent) event).ordinal()] = listening;
+            } else {
+                metricsByOtherEvent.put(event, listening);
+            }
+        }
+    }
+
+    /**
+     * Changes all the metrics to summarise their data as it is recorded (with StreamingDataTableSaw), rather than
+     * keeping every row in memory until the end. This must be called before init().
+     * Raw data is only kept (in a temporary file) if RawData is one of the report types, and RawDataPerEvent reports
+     * are not possible.
+     */
+    public void streamData() {
+        boolean keepRawData = reportTypes.contains(RawData);
+        for (AbstractMetric m : metrics.values()) {
+            m.setDataLogger(new StreamingDataTableSaw(m, keepRawData, StreamingDataTableSaw.DEFAULT_CHUNK_SIZE));
+        }
+    }
+
+    /**
+     * Creates a listener with new instances of the same metrics, for playing games in parallel with this one (on
+     * another thread or process). Its metrics keep the data for each game in a DataRecorder, to be taken with
+     * takeGameData() at the end of the game and added to this listener with addGameData(), so that the data is the
+     * same as if the game had been played with this listener.
+     * Subclasses that do more than run their metrics should override this.
+     *
+     * @return the recorder, or null if one of the metrics cannot be copied
+     */
+    public MetricsGameListener createRecorder() {
+        AbstractMetric[] copies = new AbstractMetric[allMetrics.length];
+        try {
+            for (int i = 0; i < allMetrics.length; i++)
+                copies[i] = allMetrics[i].copy();
+        } catch (UnsupportedOperationException e) {
+            System.out.println(e.getMessage());
+            return null;
+        }
+        MetricsGameListener recorder = new MetricsGameListener(ToConsole, new IDataLogger.ReportType[0], copies);
+        for (AbstractMetric m : copies)
+            m.setDataLogger(new DataRecorder(m));
+        return recorder;
+    }
+
+    /**
+     * @return the data recorded by the metrics of a recorder (see createRecorder()) since this was last called
+     */
+    public GameData takeGameData() {
+        List<List<Pair<String, Object>>> metricData = new ArrayList<>(allMetrics.length);
+        for (AbstractMetric metric : allMetrics)
+            metricData.add(((DataRecorder) metric.getDataLogger()).takeData());
+        return new GameData(metricData);
+    }
+
+    /**
+     * Adds the data recorded for one game by a recorder (see createRecorder()) to the metrics of this listener.
+     */
+    public void addGameData(GameData data) {
+        if (data.metricData.size() != allMetrics.length)
+            throw new IllegalArgumentException("Data for " + data.metricData.size() + " metrics, rather than " + allMetrics.length);
+        for (int i = 0; i < allMetrics.length; i++) {
+            IDataLogger logger = allMetrics[i].getDataLogger();
+            for (Pair<String, Object> entry : data.metricData.get(i))
+                logger.addData(entry.a, entry.b);
+        }
+        for (AbstractMetric metric : allMetrics) {
+            metric.notifyGameOver();
+        }
+    }
+
+    /**
+     * @return the names of the metrics, in the order they are run (which is also the order of the data in GameData)
+     */
+    public List<String> getMetricNames() {
+        List<String> names = new ArrayList<>(allMetrics.length);
+        for (AbstractMetric metric : allMetrics)
+            names.add(metric.getName());
+        return names;
     }
 
     /**
@@ -73,23 +171,28 @@ public class MetricsGameListener implements IGameListener {
      *              It's not guaranteed that the data fields are different to null, so a check is necessary.
      */
     public void onEvent(Event event) {
-        if (!eventsOfInterest.contains(event.type))
+        AbstractMetric[] listening = event.type instanceof Event.GameEvent ?
+                metricsByGameEvent[((Event.GameEvent) event.type).ordinal()] : metricsByOtherEvent.get(event.type);
+        if (listening == null)
             return;
 
-        // Use of LinkedHashMap so that data is stored in the same order it is listed in the json config file
-
-        for (String attrStr : metrics.keySet()) {
-            AbstractMetric metric = metrics.get(attrStr);
-            if (metric.listens(event.type)) {
-                // Apply metric
-                metric.run(this, event);
-            }
+        // Metrics are run in the same order they are listed in the json config file
+        for (AbstractMetric metric : listening) {
+            metric.run(this, event);
+        }
 
-            if (event.type == GAME_OVER)
+        if (event.type == GAME_OVER) {
+            for (AbstractMetric metric : allMetrics) {
                 metric.notifyGameOver();
+            }
         }
     }
 
+    @Override
+    public boolean listensTo(IGameEvent eventType) {
+        return eventsOfInterest.contains(eventType);
+    }
+
     @Override
     public boolean setOutputDirectory(String... nestedDirectories) {
 
@@ -139,6 +242,10 @@ public class MetricsGameListener implements IGameListener {
                         }
                     }
                     if (eventMetrics.size() > 1) {
+                        if (!eventMetrics.stream().allMatch(m -> m.getDataLogger() instanceof DataTableSaw)) {
+                            System.out.println("RawDataPerEvent needs all data to be kept in a DataTableSaw, so is not possible for " + event);
+                            continue;
+                        }
                         IDataLogger dataLogger = new DataTableSaw(eventMetrics, event, eventToIndexingColumn(event));
                         dataLogger.getDefaultProcessor().processRawDataToFile(dataLogger, destDir);
                     }
@@ -184,4 +291,15 @@ public class MetricsGameListener implements IGameListener {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * The data recorded by each metric of a recorder during one game, as (column, value) pairs in the order they were
+     * recorded
+     */
+    public static class GameData {
+        public final List<List<Pair<String, Object>>> metricData;
+
+        public GameData(List<List<Pair<String, Object>>> metricData) {
+            this.metricData = metricData;
+        }
+    }
+}
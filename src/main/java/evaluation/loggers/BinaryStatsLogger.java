@@ -0,0 +1,328 @@
+package evaluation.loggers;
+
+import core.interfaces.IStatisticLogger;
+import evaluation.summarisers.TAGStatSummary;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+
+/**
+ * A Class to log numeric data to file in a compact binary format, as an alternative to FileStatsLogger when there
+ * are a lot of rows (for example the feature vectors recorded by a FeatureListener as training data).
+ * BinaryStatsReader reads the files back.
+ * <p>
+ * The columns are fixed, either by setColumns(), or from the keys of the first call of record(Map). Each column holds
+ * either ints or doubles. Rows are buffered in memory column by column, and each block of rows is then written as
+ * one column after another, optionally compressed.
+ * <p>
+ * File format (big-endian):
+ * header: MAGIC, int version, boolean compressed, int number of columns, then for each column its name (as
+ * writeUTF) and a byte for its type (the ordinal of ColumnType)
+ * blocks: int rows, int length, and then length bytes of data (Deflate compressed if compressed is set), which are
+ * each column in turn with rows values of 4 (int) or 8 (double) bytes
+ */
+public class BinaryStatsLogger implements IStatisticLogger {
+
+    public enum ColumnType {
+        INT(4), DOUBLE(8);
+
+        public final int bytes;
+
+        ColumnType(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    static final int MAGIC = 0x54414742;  // "TAGB"
+    static final int VERSION = 1;
+    // the value written for a missing (or NaN) value in an INT column
+    public static final int MISSING_INT = Integer.MIN_VALUE;
+
+    private final String fileName;
+    private final boolean append;
+    private boolean compress;
+    public int blockSize = 4096;  // number of rows buffered before they are written
+
+    private String[] names;
+    private ColumnType[] types;
+    private Map<String, Integer> columnIndex;
+    private double[][] block;  // [column][row]
+    private int rowsInBlock;
+
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private Deflater deflater;
+    private byte[] compressed;
+    private long rowsWritten;
+    private boolean headerWritten;
+
+    /**
+     * @param fileName The full location of the file to write results to
+     * @param compress If true then each block of rows is compressed
+     * @param append   If true, and the file already exists, then new rows are added to it (in which case the columns
+     *                 must be the same as in the existing file, and compress is taken from the file)
+     */
+    public BinaryStatsLogger(String fileName, boolean compress, boolean append) {
+        this.fileName = fileName;
+        this.compress = compress;
+        this.append = append;
+    }
+
+    public BinaryStatsLogger(String fileName) {
+        this(fileName, true, false);
+    }
+
+    /**
+     * Fixes the columns to be written. This must be called before the first record(double[]), and cannot be called
+     * once the columns have been set.
+     */
+    public void setColumns(String[] names, ColumnType[] types) {
+        if (this.names != null)
+            throw new IllegalStateException("Columns have already been set for " + fileName);
+        if (names.length != types.length)
+            throw new IllegalArgumentException("Need one type for each column");
+        if (Arrays.asList(names).contains(null))
+            throw new IllegalArgumentException("All columns must have a name");
+        this.names = names.clone();
+        this.types = types.clone();
+        columnIndex = new HashMap<>();
+        for (int i = 0; i < names.length; i++)
+            columnIndex.put(names[i], i);
+        block = new double[names.length][blockSize];
+    }
+
+    public boolean hasColumns() {
+        return names != null;
+    }
+
+    /**
+     * Records one row, with a value for each column in the order given to setColumns(). The array is not kept, so
+     * can be re-used for the next row.
+     */
+    public void record(double[] row) {
+        if (names == null)
+            throw new IllegalStateException("setColumns() must be called before record(double[])");
+        if (row.length != names.length)
+            throw new IllegalArgumentException(String.format("Expected %d values, not %d", names.length, row.length));
+        for (int c = 0; c < row.length; c++)
+            block[c][rowsInBlock] = row[c];
+        rowAdded();
+    }
+
+    /**
+     * Use to register a set of data in one go. If the columns have not yet been set, then they are taken from the keys
+     * of the first call (with nested Maps flattened, as in FileStatsLogger), and any later keys that are not one of
+     * these columns are ignored. Columns with no value in a record are written as missing (NaN or MISSING_INT).
+     *
+     * @param rawData A map of name -> value pairs, all of which must be numeric (or Boolean)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void record(Map<String, ?> rawData) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (String key : rawData.keySet()) {
+            Object thing = rawData.get(key);
+            if (thing instanceof Map) {
+                data.putAll((Map<? extends String, ?>) thing);
+            } else {
+                data.put(key, thing);
+            }
+        }
+        if (names == null) {
+            ColumnType[] newTypes = data.values().stream().map(BinaryStatsLogger::typeOf).toArray(ColumnType[]::new);
+            setColumns(data.keySet().toArray(new String[0]), newTypes);
+        }
+        for (int c = 0; c < names.length; c++)
+            block[c][rowsInBlock] = Double.NaN;
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            Integer c = columnIndex.get(entry.getKey());
+            if (c != null)
+                block[c][rowsInBlock] = valueOf(entry.getKey(), entry.getValue());
+        }
+        rowAdded();
+    }
+
+    /**
+     * A Long is recorded as a double (which holds it exactly up to 2^53), as it may not fit in an INT column
+     */
+    private static ColumnType typeOf(Object datum) {
+        if (datum instanceof Integer || datum instanceof Short || datum instanceof Byte || datum instanceof Boolean)
+            return ColumnType.INT;
+        return ColumnType.DOUBLE;
+    }
+
+    private static double valueOf(String key, Object datum) {
+        if (datum == null)
+            return Double.NaN;
+        if (datum instanceof Number)
+            return ((Number) datum).doubleValue();
+        if (datum instanceof Boolean)
+            return (Boolean) datum ? 1.0 : 0.0;
+        throw new IllegalArgumentException("BinaryStatsLogger can only record numeric data, not " + key + " : " + datum);
+    }
+
+    @Override
+    public void record(String key, Object datum) {
+        //   Datum ignored - as with FileStatsLogger only the other record() methods are used
+    }
+
+    private void rowAdded() {
+        rowsInBlock++;
+        if (rowsInBlock == blockSize)
+            writeBlock();
+    }
+
+    private void initialise() {
+        try {
+            Path path = Paths.get(fileName);
+            // once we have written the header, any re-opening of the file (after processDataAndFinish) appends to it
+            if ((append || headerWritten) && Files.exists(path) && Files.size(path) > 0) {
+                BinaryStatsReader existing = BinaryStatsReader.readHeader(fileName);
+                if (!Arrays.equals(existing.names, names) || !Arrays.equals(existing.types, types))
+                    throw new AssertionError("Columns do not match those already in " + fileName);
+                compress = existing.compressed;
+                channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            } else {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                writeHeader();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem opening file " + fileName + " : " + e.getMessage());
+        }
+        if (compress)
+            deflater = new Deflater(Deflater.BEST_SPEED);
+    }
+
+    private void writeHeader() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeBoolean(compress);
+        header.writeInt(names.length);
+        for (int c = 0; c < names.length; c++) {
+            header.writeUTF(names[c]);
+            header.writeByte(types[c].ordinal());
+        }
+        header.flush();
+        writeFully(ByteBuffer.wrap(bytes.toByteArray()));
+        headerWritten = true;
+    }
+
+    private void writeBlock() {
+        if (rowsInBlock == 0)
+            return;
+        if (channel == null)
+            initialise();
+        int length = 0;
+        for (ColumnType type : types)
+            length += type.bytes * rowsInBlock;
+        if (buffer == null || buffer.capacity() < length + 8)
+            buffer = ByteBuffer.allocate(length + 8);
+        buffer.clear();
+        buffer.putInt(rowsInBlock);
+        buffer.putInt(length);
+        for (int c = 0; c < names.length; c++) {
+            double[] column = block[c];
+            if (types[c] == ColumnType.INT) {
+                for (int r = 0; r < rowsInBlock; r++)
+                    buffer.putInt(Double.isNaN(column[r]) ? MISSING_INT : (int) column[r]);
+            } else {
+                for (int r = 0; r < rowsInBlock; r++)
+                    buffer.putDouble(column[r]);
+            }
+        }
+        buffer.flip();
+        try {
+            if (compress) {
+                deflater.reset();
+                deflater.setInput(buffer.array(), 8, length);
+                deflater.finish();
+                if (compressed == null || compressed.length < length + 64)
+                    compressed = new byte[length + 64];
+                int compressedLength = 0;
+                while (!deflater.finished()) {
+                    if (compressedLength == compressed.length)
+                        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                    compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+                }
+                buffer.putInt(4, compressedLength);
+                buffer.limit(8);
+                writeFully(buffer);
+                writeFully(ByteBuffer.wrap(compressed, 0, compressedLength));
+            } else {
+                writeFully(buffer);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem writing to file " + fileName + " : " + e.getMessage());
+        }
+        rowsWritten += rowsInBlock;
+        rowsInBlock = 0;
+    }
+
+    private void writeFully(ByteBuffer data) throws IOException {
+        while (data.hasRemaining())
+            channel.write(data);
+    }
+
+    /**
+     * @return the number of rows written to file so far (excluding any still buffered)
+     */
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * This writes any buffered rows, and closes the file
+     */
+    @Override
+    public void processDataAndFinish() {
+        writeBlock();
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem closing file " + fileName + " : " + e.getMessage());
+        }
+        channel = null;
+        if (deflater != null)
+            deflater.end();
+        deflater = null;
+    }
+
+    /**
+     * This does nothing: rows are written a block at a time as the block fills (so that each block is compressed as
+     * a whole), and the last partial block by processDataAndFinish()
+     */
+    @Override
+    public void processDataAndNotFinish() {
+    }
+
+    /**
+     * This always returns an empty Map
+     *
+     * @return A summary of the data
+     */
+    @Override
+    public Map<String, TAGStatSummary> summary() {
+        return new HashMap<>();
+    }
+
+    @Override
+    public BinaryStatsLogger emptyCopy(String id) {
+        String[] fileParts = fileName.split(Pattern.quote("."));
+        if (fileParts.length != 2)
+            throw new AssertionError("Filename does not conform to expected <stem>.<type>");
+        String newFileName = fileParts[0] + "_" + id + "." + fileParts[1];
+        return new BinaryStatsLogger(newFileName, compress, append);
+    }
+}
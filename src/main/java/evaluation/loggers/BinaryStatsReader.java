@@ -0,0 +1,168 @@
+package evaluation.loggers;
+
+import evaluation.loggers.BinaryStatsLogger.ColumnType;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a file written by BinaryStatsLogger. All the data is read when this is created, and held column by column.
+ * Missing values are NaN (including those in INT columns).
+ */
+public class BinaryStatsReader {
+
+    public final String fileName;
+    final String[] names;
+    final ColumnType[] types;
+    final boolean compressed;
+    private double[][] columns;
+    private int rows;
+
+    public BinaryStatsReader(String fileName) {
+        this(fileName, true);
+    }
+
+    private BinaryStatsReader(String fileName, boolean readData) {
+        this.fileName = fileName;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName), 1 << 16))) {
+            if (input.readInt() != BinaryStatsLogger.MAGIC)
+                throw new AssertionError(fileName + " is not a file written by BinaryStatsLogger");
+            int version = input.readInt();
+            if (version != BinaryStatsLogger.VERSION)
+                throw new AssertionError("Unsupported version " + version + " of " + fileName);
+            compressed = input.readBoolean();
+            int nColumns = input.readInt();
+            names = new String[nColumns];
+            types = new ColumnType[nColumns];
+            for (int c = 0; c < nColumns; c++) {
+                names[c] = input.readUTF();
+                types[c] = ColumnType.values()[input.readByte()];
+            }
+            columns = new double[nColumns][readData ? 1024 : 0];
+            if (readData)
+                readBlocks(input);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem reading file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the columns of the file (with no data)
+     */
+    static BinaryStatsReader readHeader(String fileName) {
+        return new BinaryStatsReader(fileName, false);
+    }
+
+    /**
+     * @return true if the file starts as one written by BinaryStatsLogger
+     */
+    public static boolean isBinaryStatsFile(String fileName) {
+        try (DataInputStream input = new DataInputStream(new FileInputStream(fileName))) {
+            return input.readInt() == BinaryStatsLogger.MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void readBlocks(DataInputStream input) throws IOException {
+        Inflater inflater = compressed ? new Inflater() : null;
+        byte[] raw = new byte[0];
+        byte[] data = new byte[0];
+        try {
+            while (true) {
+                int blockRows;
+                try {
+                    blockRows = input.readInt();
+                } catch (EOFException e) {
+                    break;  // no more blocks
+                }
+                int length = input.readInt();
+                if (raw.length < length)
+                    raw = new byte[length];
+                input.readFully(raw, 0, length);
+                int dataLength = 0;
+                for (ColumnType type : types)
+                    dataLength += type.bytes * blockRows;
+                if (compressed) {
+                    if (data.length < dataLength)
+                        data = new byte[dataLength];
+                    inflater.reset();
+                    inflater.setInput(raw, 0, length);
+                    if (inflater.inflate(data, 0, dataLength) != dataLength)
+                        throw new AssertionError("Corrupt block in " + fileName);
+                } else {
+                    if (length != dataLength)
+                        throw new AssertionError("Corrupt block in " + fileName);
+                    data = raw;
+                }
+                addBlock(ByteBuffer.wrap(data, 0, dataLength), blockRows);
+            }
+        } catch (DataFormatException e) {
+            throw new AssertionError("Corrupt compressed block in " + fileName + " : " + e.getMessage());
+        } finally {
+            if (inflater != null)
+                inflater.end();
+        }
+    }
+
+    private void addBlock(ByteBuffer data, int blockRows) {
+        if (columns.length > 0 && rows + blockRows > columns[0].length) {
+            int newLength = Math.max(rows + blockRows, columns[0].length * 2);
+            for (int c = 0; c < columns.length; c++)
+                columns[c] = Arrays.copyOf(columns[c], newLength);
+        }
+        for (int c = 0; c < columns.length; c++) {
+            double[] column = columns[c];
+            if (types[c] == ColumnType.INT) {
+                for (int r = rows; r < rows + blockRows; r++) {
+                    int value = data.getInt();
+                    column[r] = value == BinaryStatsLogger.MISSING_INT ? Double.NaN : value;
+                }
+            } else {
+                data.asDoubleBuffer().get(column, rows, blockRows);
+                data.position(data.position() + 8 * blockRows);
+            }
+        }
+        rows += blockRows;
+    }
+
+    public String[] getNames() {
+        return names.clone();
+    }
+
+    public ColumnType[] getTypes() {
+        return types.clone();
+    }
+
+    public int getRowCount() {
+        return rows;
+    }
+
+    public double[] getColumn(int column) {
+        return Arrays.copyOf(columns[column], rows);
+    }
+
+    public double[] getColumn(String name) {
+        int column = Arrays.asList(names).indexOf(name);
+        if (column == -1)
+            throw new IllegalArgumentException("No column " + name + " in " + fileName);
+        return getColumn(column);
+    }
+
+    /**
+     * @return the data as one array for each row, in the same form as a tab-delimited file written by FileStatsLogger
+     */
+    public double[][] getRows() {
+        double[][] retValue = new double[rows][names.length];
+        for (int c = 0; c < names.length; c++) {
+            double[] column = columns[c];
+            for (int r = 0; r < rows; r++)
+                retValue[r][c] = column[r];
+        }
+        return retValue;
+    }
+}
@@ -12,7 +12,7 @@ public abstract class AbstractMetric {
     protected IDataLogger dataLogger;
 
     // Set of event types this metric listens to, to record data when they occur
-    private final Set<IGameEvent> eventTypes;
+    private Set<IGameEvent> eventTypes;
 
     // Arguments for the metric, if any
     protected final String[] args;
@@ -267,6 +267,34 @@ public abstract class AbstractMetric {
         return gamesCompleted;
     }
 
+    /**
+     * Creates a new instance of this metric, with the same arguments and events, but no data logger or data.
+     * This is used to run the same metrics on games played in parallel (see MetricsGameListener.createRecorder()).
+     * The default implementation uses the String[] constructor if this metric was given arguments, and otherwise the
+     * no-argument (or Event.GameEvent...) constructor; metrics without one of these should override this.
+     *
+     * @return the new metric
+     * @throws UnsupportedOperationException if there is no suitable constructor
+     */
+    public AbstractMetric copy() {
+        AbstractMetric copy;
+        try {
+            if (args != null) {
+                copy = getClass().getConstructor(String[].class).newInstance((Object) args);
+            } else {
+                try {
+                    copy = getClass().getConstructor().newInstance();
+                } catch (NoSuchMethodException e) {
+                    copy = getClass().getConstructor(Event.GameEvent[].class).newInstance((Object) new Event.GameEvent[0]);
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Unable to copy metric " + getName() + ": " + e, e);
+        }
+        copy.eventTypes = eventTypes;
+        return copy;
+    }
+
     public void setDataLogger(IDataLogger logger) {
         this.dataLogger = logger;
     }
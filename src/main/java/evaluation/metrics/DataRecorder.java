@@ -0,0 +1,74 @@
+package evaluation.metrics;
+
+import core.Game;
+import utilities.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A data logger that just keeps the data it is given, in order, until it is taken with takeData().
+ * This is used to run metrics on games played on another thread (or process), after which the data is added to the
+ * data logger of the original metric, as if the game had been played there (see MetricsGameListener.createRecorder()).
+ */
+public class DataRecorder implements IDataLogger {
+
+    final AbstractMetric metric;
+    private List<Pair<String, Object>> data = new ArrayList<>();
+
+    public DataRecorder(AbstractMetric metric) {
+        this.metric = metric;
+    }
+
+    private DataRecorder(AbstractMetric metric, List<Pair<String, Object>> data) {
+        this.metric = metric;
+        this.data = data;
+    }
+
+    @Override
+    public void reset() {
+        data = new ArrayList<>();
+    }
+
+    @Override
+    public void init(Game game, int nPlayersPerGame, Set<String> playerNames) {
+        // the metric still needs to know its columns, so that it records a value (or null) for each of them
+        for (String colName : metric.getColumns(nPlayersPerGame, playerNames).keySet())
+            metric.addColumnName(colName);
+    }
+
+    @Override
+    public void addData(String columnName, Object data) {
+        this.data.add(new Pair<>(columnName, data));
+    }
+
+    /**
+     * @return the data recorded since the last call, as (column, value) pairs in the order they were added
+     */
+    public List<Pair<String, Object>> takeData() {
+        List<Pair<String, Object>> recorded = data;
+        data = new ArrayList<>();
+        return recorded;
+    }
+
+    @Override
+    public IDataProcessor getDefaultProcessor() {
+        throw new UnsupportedOperationException("A DataRecorder does not keep its data for reporting");
+    }
+
+    @Override
+    public IDataLogger copy() {
+        return new DataRecorder(metric, new ArrayList<>(data));
+    }
+
+    @Override
+    public IDataLogger emptyCopy() {
+        return new DataRecorder(metric);
+    }
+
+    @Override
+    public IDataLogger create() {
+        return new DataRecorder(metric);
+    }
+}
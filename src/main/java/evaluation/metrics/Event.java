@@ -3,10 +3,9 @@ import core.AbstractGameState;
 import core.actions.AbstractAction;
 import core.actions.LogEvent;
 import core.interfaces.IGameEvent;
+import evaluation.listeners.IGameListener;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 
 public class Event
 {
@@ -30,9 +29,11 @@ public class Event
             return oncePerGame;
         }
 
+        private static final Set<IGameEvent> ALL = Collections.unmodifiableSet(EnumSet.allOf(GameEvent.class));
+
         @Override
         public Set<IGameEvent> getValues() {
-            return new HashSet<>(Arrays.asList(GameEvent.values()));
+            return ALL;
         }
     }
 
@@ -75,4 +76,41 @@ public class Event
     {
         return Event.createEvent(type, state, null, playerID);
     }
+
+    /**
+     * Re-usable Events for sending to listeners, so that frequent events (such as ACTION_CHOSEN and ACTION_TAKEN) do
+     * not create a new Event for each listener. The listeners must therefore not keep the Event after onEvent() returns.
+     * An Event is only in use while it is being sent, so a Pool only ever holds as many Events as the depth to which
+     * listeners cause further events to be sent.
+     * A Pool is not thread-safe, and should only be used for one game.
+     */
+    public static class Pool {
+        private Event[] free = new Event[2];
+        private int nFree;
+
+        public void send(List<IGameListener> listeners, IGameEvent type, AbstractGameState state, AbstractAction action, int playerID) {
+            if (listeners.isEmpty()) return;
+            Event e = nFree > 0 ? free[--nFree] : new Event();
+            try {
+                for (int i = 0; i < listeners.size(); i++) {
+                    // set for each listener, in case an earlier one has changed it
+                    e.type = type;
+                    e.state = state;
+                    e.action = action;
+                    e.playerID = playerID;
+                    listeners.get(i).onEvent(e);
+                }
+            } finally {
+                e.state = null;
+                e.action = null;
+                if (nFree == free.length)
+                    free = Arrays.copyOf(free, nFree * 2);
+                free[nFree++] = e;
+            }
+        }
+
+        public void send(List<IGameListener> listeners, IGameEvent type, AbstractGameState state) {
+            send(listeners, type, state, null, -1);
+        }
+    }
 }
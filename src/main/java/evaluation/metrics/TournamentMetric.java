@@ -62,6 +62,15 @@ public class TournamentMetric extends AbstractMetric {
         return wrappedMetric.getColumns(nPlayersPerGame, playerNames);
     }
 
+    /**
+     * The copy is of the wrapped metric, as the data it records for a game is added to the logger of this metric
+     * for the current match-up (see MetricsGameListener.addGameData()).
+     */
+    @Override
+    public AbstractMetric copy() {
+        return wrappedMetric.copy();
+    }
+
     public void tournamentInit(Game game, int nPlayers, Set<String> playerNames, Set<AbstractPlayer> matchup) {
         // Create a data logger for this matchup
         // TODO this counts same matchup if same type of players are in, regardless of order
@@ -36,7 +36,7 @@ public class DataTableSaw implements IDataLogger {
      * <a href="https://www.javadoc.io/static/tech.tablesaw/tablesaw-core/0.43.1/tech/tablesaw/api/package-summary.html">javadoc for column types</a>
      * @return - A column of the given type
      */
-    private Column<?> buildColumn (String name, Class<?> c) {
+    static Column<?> buildColumn (String name, Class<?> c) {
         if(c == String.class)
             return StringColumn.create(name);
         else if(c == Integer.class)
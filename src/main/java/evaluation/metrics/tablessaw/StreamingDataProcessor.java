@@ -0,0 +1,204 @@
+package evaluation.metrics.tablessaw;
+
+import evaluation.metrics.AbstractMetric;
+import evaluation.metrics.IDataLogger;
+import evaluation.metrics.tablessaw.StreamingDataTableSaw.CategorySummary;
+import evaluation.metrics.tablessaw.StreamingDataTableSaw.ColumnSummary;
+import evaluation.metrics.tablessaw.StreamingDataTableSaw.NumericSummary;
+import tech.tablesaw.api.*;
+import tech.tablesaw.plotly.api.LinePlot;
+import tech.tablesaw.plotly.components.Figure;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Produces reports from the running summaries of a StreamingDataTableSaw. The Summary and Plot reports have the same
+ * tables and figures as TableSawDataProcessor would produce from a DataTableSaw with the same data, other than the
+ * order of categories, and that a plot of a numeric column with a point per game uses the first value in each game.
+ */
+public class StreamingDataProcessor extends TableSawDataProcessor {
+
+    @Override
+    public void processRawDataToFile(IDataLogger logger, String folderName) {
+        StreamingDataTableSaw sdts = (StreamingDataTableSaw) logger;
+        if (!sdts.writeRawData(new File(folderName + "/" + sdts.metric.getName() + ".csv"))) {
+            System.out.println("Raw data not kept for " + sdts.metric.getName());
+        }
+    }
+
+    @Override
+    public void processRawDataToConsole(IDataLogger logger) {
+        StreamingDataTableSaw sdts = (StreamingDataTableSaw) logger;
+        sdts.flush();
+        System.out.println();
+        if (sdts.rawDataFile != null) {
+            System.out.println(sdts.metric.getName() + ": " + sdts.rows + " rows, in " + sdts.rawDataFile);
+        } else {
+            System.out.println(sdts.metric.getName() + ": " + sdts.rows + " rows (raw data not kept)");
+        }
+    }
+
+    @Override
+    protected AbstractMetric getMetric(IDataLogger logger) {
+        return ((StreamingDataTableSaw) logger).metric;
+    }
+
+    /**
+     * @return - true if there is more than one row per game, in which case the reports are of the progression
+     * through each game (as in TableSawDataProcessor)
+     */
+    private boolean isProgression(StreamingDataTableSaw sdts) {
+        return sdts.metric.getGamesCompleted() < sdts.rows;
+    }
+
+    @Override
+    protected Map<String, List<Table>> getSummarisedData(IDataLogger logger) {
+        StreamingDataTableSaw sdts = (StreamingDataTableSaw) logger;
+        sdts.flush();
+        boolean progression = isProgression(sdts);
+        String name = sdts.metric.getName();
+
+        Map<String, List<Table>> allDataSummaries = new HashMap<>();
+        for (Map.Entry<String, ColumnSummary> entry : sdts.summaries.entrySet()) {
+            String columnName = entry.getKey();
+            ColumnSummary columnSummary = entry.getValue();
+            if (!sdts.metric.getColumnNames().contains(columnName)) continue;
+            if (progression && columnSummary.count() == 0) continue;
+
+            List<Table> summary = new ArrayList<>();
+            if (columnSummary instanceof CategorySummary) {
+                CategorySummary categories = (CategorySummary) columnSummary;
+                if (progression) {
+                    Table summaryTable = countsPerGameTable(columnName, categories);
+                    if (summaryTable.isEmpty()) continue;
+                    summary.addAll(summariseCountsPerGame(columnName, summaryTable));
+                } else {
+                    Table counts = countsTable(columnName, categories);
+                    counts.setName(name + "_" + columnName);
+                    summary.add(counts);
+                }
+            } else {
+                Table sum = numericSummaryTable(columnName, (NumericSummary) columnSummary);
+                sum.setName(name + "_" + columnName);
+                summary.add(sum);
+            }
+            allDataSummaries.put(columnName, summary);
+        }
+        return allDataSummaries;
+    }
+
+    @Override
+    protected Map<String, Figure> getFigures(IDataLogger logger) {
+        StreamingDataTableSaw sdts = (StreamingDataTableSaw) logger;
+        sdts.flush();
+        boolean progression = isProgression(sdts);
+        String name = sdts.metric.getName();
+        int maxTick = 0;
+        for (int rows : sdts.rowsPerGame.values())
+            maxTick = Math.max(maxTick, rows);
+
+        Map<String, Figure> figures = new HashMap<>();
+        for (Map.Entry<String, ColumnSummary> entry : sdts.summaries.entrySet()) {
+            String columnName = entry.getKey();
+            if (!sdts.metric.getColumnNames().contains(columnName)) continue;
+
+            if (entry.getValue() instanceof NumericSummary) {
+                NumericSummary summary = (NumericSummary) entry.getValue();
+                if (progression) {
+                    // Mean (and +/- standard error) of the values at each point in a game
+                    double[] x = new double[maxTick];
+                    double[] yMean = new double[maxTick];
+                    double[] yMeanSdMinus = new double[maxTick];
+                    double[] yMeanSdPlus = new double[maxTick];
+                    for (int j = 0; j < maxTick; j++) {
+                        x[j] = j;
+                        double err = summary.stdErrAt(j);
+                        yMean[j] = summary.meanAt(j);
+                        yMeanSdMinus[j] = yMean[j] - err;
+                        yMeanSdPlus[j] = yMean[j] + err;
+                    }
+                    figures.put(columnName, progressionFigure(sdts.metric, name, columnName, x, yMean, yMeanSdMinus, yMeanSdPlus));
+                } else {
+                    DoubleColumn values = DoubleColumn.create(columnName);
+                    StringColumn gameIDs = StringColumn.create("GameID");
+                    for (Map.Entry<String, Double> value : summary.firstPerGame.entrySet()) {
+                        gameIDs.append(value.getKey());
+                        values.append(value.getValue());
+                    }
+                    figures.put(columnName, LinePlot.create(name, Table.create(values, gameIDs), "GameID", columnName));
+                }
+            } else {
+                CategorySummary summary = (CategorySummary) entry.getValue();
+                if (progression) {
+                    // Box plots from the categorical counts across games
+                    Table countsPerGame = Table.create(name, StringColumn.create("Category"), IntColumn.create("Count"));
+                    for (Map<String, Integer> gameCounts : summary.countsPerGame.values()) {
+                        for (Map.Entry<String, Integer> count : gameCounts.entrySet()) {
+                            countsPerGame.stringColumn(0).append(count.getKey());
+                            countsPerGame.intColumn(1).append(count.getValue());
+                        }
+                    }
+                    figures.put(columnName, countsBoxFigure(name, columnName, countsPerGame));
+                } else {
+                    figures.put(columnName, countsBarFigure(name, columnName, countsTable(columnName, summary)));
+                }
+            }
+        }
+        return figures;
+    }
+
+    /**
+     * @return - the same table as Column.summary() for a numeric column with the values summarised
+     */
+    static Table numericSummaryTable(String columnName, NumericSummary summary) {
+        boolean empty = summary.n == 0;
+        StringColumn measure = StringColumn.create("Measure");
+        DoubleColumn value = DoubleColumn.create("Value");
+        measure.append("Count");
+        value.append(summary.n);
+        measure.append("sum");
+        value.append(summary.sum);
+        measure.append("Mean");
+        value.append(empty ? Double.NaN : summary.mean);
+        measure.append("Min");
+        value.append(empty ? Double.NaN : summary.min);
+        measure.append("Max");
+        value.append(empty ? Double.NaN : summary.max);
+        measure.append("Range");
+        value.append(empty ? Double.NaN : summary.max - summary.min);
+        measure.append("Variance");
+        value.append(summary.variance());
+        measure.append("Std. Dev");
+        value.append(Math.sqrt(summary.variance()));
+        return Table.create("Column: " + columnName, measure, value);
+    }
+
+    /**
+     * @return - the same table as StringColumn.countByCategory() for the values summarised
+     */
+    static Table countsTable(String columnName, CategorySummary summary) {
+        StringColumn category = StringColumn.create("Category");
+        IntColumn count = IntColumn.create("Count");
+        for (Map.Entry<String, Integer> entry : summary.counts.entrySet()) {
+            category.append(entry.getKey());
+            count.append(entry.getValue());
+        }
+        return Table.create("Column: " + columnName, category, count);
+    }
+
+    /**
+     * @return - the number of times each category occurred in each game, with one column per category, and one row
+     * per game with at least one value (as used by summariseCountsPerGame)
+     */
+    static Table countsPerGameTable(String columnName, CategorySummary summary) {
+        Table summaryTable = Table.create("Summary " + columnName);
+        for (String category : summary.counts.keySet())
+            summaryTable.addColumns(IntColumn.create(category));
+        for (Map<String, Integer> gameCounts : summary.countsPerGame.values()) {
+            for (String category : summary.counts.keySet())
+                summaryTable.intColumn(category).append(gameCounts.getOrDefault(category, 0));
+        }
+        return summaryTable;
+    }
+}
@@ -0,0 +1,408 @@
+package evaluation.metrics.tablessaw;
+
+import core.Game;
+import evaluation.metrics.AbstractMetric;
+import evaluation.metrics.IDataLogger;
+import evaluation.metrics.IDataProcessor;
+import tech.tablesaw.api.Table;
+import tech.tablesaw.columns.Column;
+import tech.tablesaw.io.csv.CsvWriteOptions;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * A data logger for when there is too much data to keep in memory in a DataTableSaw, for example for metrics that
+ * record every action over many thousands of games. Instead of keeping every row, this keeps a running summary of each
+ * column defined by the metric, updated as rows arrive:
+ *  - numeric columns: count, sum, mean and variance (using Welford's algorithm), min and max; the mean and variance at
+ *  each point in a game (for progression plots); and the first value in each game (for plots with a point per game)
+ *  - categorical (String) columns: the number of times each category occurs, overall and in each game
+ * StreamingDataProcessor produces the Summary and Plot reports from these, in the same form as TableSawDataProcessor
+ * does from the full table.
+ * <p>
+ * If keepRawData is true then the rows are also written to a temporary CSV file, chunkSize rows at a time, which is
+ * copied to the output folder for the RawData report. If not, then there is no RawData report.
+ * <p>
+ * The metric does not mark the end of a row, so a row is taken to be complete when a value is added to a column that
+ * already has a value in the current row, or when a report is made.
+ */
+public class StreamingDataTableSaw implements IDataLogger {
+
+    public static final int DEFAULT_CHUNK_SIZE = 10000;
+
+    final AbstractMetric metric;
+    final boolean keepRawData;
+    final int chunkSize;
+
+    // All columns (default and metric-defined), in order, with their types
+    private final Map<String, Integer> columnIndex = new LinkedHashMap<>();
+    private final List<Class<?>> columnTypes = new ArrayList<>();
+
+    // The row being recorded
+    private Object[] row = new Object[0];
+    private boolean[] inRow = new boolean[0];
+    private boolean rowStarted;
+
+    // Number of rows recorded (in total, and for each game, in the order the games were first seen)
+    int rows;
+    final Map<String, Integer> rowsPerGame = new LinkedHashMap<>();
+
+    // Running summaries of the metric-defined columns
+    final Map<String, ColumnSummary> summaries = new LinkedHashMap<>();
+
+    // Rows not yet written to the raw data file
+    private Table chunk;
+    File rawDataFile;
+
+    public StreamingDataTableSaw(AbstractMetric metric) {
+        this(metric, false, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param metric      - the metric recording data
+     * @param keepRawData - if true then all rows are written to a temporary file, for the RawData report
+     * @param chunkSize   - number of rows held in memory before they are written to the file
+     */
+    public StreamingDataTableSaw(AbstractMetric metric, boolean keepRawData, int chunkSize) {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("chunkSize must be positive");
+        this.metric = metric;
+        this.keepRawData = keepRawData;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void reset() {
+        columnIndex.clear();
+        columnTypes.clear();
+        row = new Object[0];
+        inRow = new boolean[0];
+        rowStarted = false;
+        rows = 0;
+        rowsPerGame.clear();
+        summaries.clear();
+        chunk = null;
+        if (rawDataFile != null && !rawDataFile.delete())
+            System.out.println("Could not delete " + rawDataFile);
+        rawDataFile = null;
+    }
+
+    @Override
+    public void init(Game game, int nPlayersPerGame, Set<String> playerNames) {
+        // Add default columns
+        Map<String, Class<?>> defaultColumns = metric.getDefaultColumns();
+        for (Map.Entry<String, Class<?>> entry : defaultColumns.entrySet())
+            addColumn(entry.getKey(), entry.getValue());
+
+        // Add metric-defined columns, which are the ones we summarise
+        Map<String, Class<?>> columns = metric.getColumns(nPlayersPerGame, playerNames);
+        for (Map.Entry<String, Class<?>> entry : columns.entrySet()) {
+            addColumn(entry.getKey(), entry.getValue());
+            Class<?> type = entry.getValue();
+            summaries.put(entry.getKey(), type == Integer.class || type == Double.class ?
+                    new NumericSummary() : new CategorySummary());
+        }
+
+        // Iterate through columns and find their name
+        for (String colName : columns.keySet())
+            metric.addColumnName(colName);
+
+        row = new Object[columnTypes.size()];
+        inRow = new boolean[columnTypes.size()];
+        if (keepRawData) {
+            chunk = Table.create(metric.getName());
+            for (Map.Entry<String, Integer> entry : columnIndex.entrySet())
+                chunk.addColumns(DataTableSaw.buildColumn(entry.getKey(), columnTypes.get(entry.getValue())));
+        }
+    }
+
+    private void addColumn(String name, Class<?> type) {
+        if (columnIndex.containsKey(name))
+            throw new IllegalArgumentException("Column " + name + " already exists for " + metric.getName());
+        columnIndex.put(name, columnTypes.size());
+        columnTypes.add(type);
+    }
+
+    /**
+     * Add a piece of data to a specific column of the current row.
+     * @param columnName - name of column to add data to
+     * @param data - data to add
+     */
+    @Override
+    public void addData(String columnName, Object data) {
+        Integer c = columnIndex.get(columnName);
+        if (c == null)
+            throw new IllegalArgumentException("Column " + columnName + " does not exist for " + metric.getName());
+        if (inRow[c])
+            endRow();
+        row[c] = data;
+        inRow[c] = true;
+        rowStarted = true;
+    }
+
+    /**
+     * Adds the current row to the summaries, and to the raw data if this is being kept
+     */
+    private void endRow() {
+        if (!rowStarted) return;
+        Integer g = columnIndex.get("GameID");
+        String gameID = g == null || row[g] == null ? "" : row[g].toString();
+        int rowInGame = rowsPerGame.getOrDefault(gameID, 0);
+        rowsPerGame.put(gameID, rowInGame + 1);
+        rows++;
+
+        for (Map.Entry<String, ColumnSummary> entry : summaries.entrySet()) {
+            Object value = row[columnIndex.get(entry.getKey())];
+            if (value != null)
+                entry.getValue().add(gameID, rowInGame, value);
+        }
+
+        if (keepRawData) {
+            for (int c = 0; c < row.length; c++) {
+                @SuppressWarnings("unchecked")
+                Column<Object> column = (Column<Object>) chunk.column(c);
+                if (row[c] == null) {
+                    column.appendMissing();
+                } else {
+                    column.append(row[c]);
+                }
+            }
+            if (chunk.rowCount() >= chunkSize)
+                writeChunk();
+        }
+
+        Arrays.fill(row, null);
+        Arrays.fill(inRow, false);
+        rowStarted = false;
+    }
+
+    /**
+     * Appends the rows held in memory to the raw data file
+     */
+    private void writeChunk() {
+        if (chunk.rowCount() == 0) return;
+        boolean header = rawDataFile == null;
+        try {
+            if (rawDataFile == null) {
+                rawDataFile = File.createTempFile("StreamingDataTableSaw", ".csv");
+                rawDataFile.deleteOnExit();
+            }
+            try (Writer writer = new BufferedWriter(new FileWriter(rawDataFile, true))) {
+                chunk.write().csv(CsvWriteOptions.builder(writer).header(header).build());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Problem writing raw data for " + metric.getName(), e);
+        }
+        chunk = chunk.emptyCopy();
+    }
+
+    /**
+     * Completes the current row, and writes any raw data held in memory. This is called before any report is made.
+     */
+    void flush() {
+        endRow();
+        if (keepRawData && chunk != null)
+            writeChunk();
+    }
+
+    /**
+     * Writes all the rows recorded to a CSV file, in the same form as DataTableSaw
+     * @return - false if the raw data has not been kept
+     */
+    boolean writeRawData(File file) {
+        if (!keepRawData) return false;
+        flush();
+        try {
+            if (rawDataFile != null) {
+                Files.copy(rawDataFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } else if (chunk != null) {
+                // No rows, so just the header
+                chunk.write().csv(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Problem writing raw data for " + metric.getName(), e);
+        }
+        return true;
+    }
+
+    @Override
+    public IDataProcessor getDefaultProcessor() {
+        return new StreamingDataProcessor();
+    }
+
+    @Override
+    public IDataLogger copy() {
+        StreamingDataTableSaw copy = (StreamingDataTableSaw) emptyCopy();
+        copy.row = row.clone();
+        copy.inRow = inRow.clone();
+        copy.rowStarted = rowStarted;
+        copy.rows = rows;
+        copy.rowsPerGame.putAll(rowsPerGame);
+        for (Map.Entry<String, ColumnSummary> entry : summaries.entrySet())
+            copy.summaries.put(entry.getKey(), entry.getValue().copy());
+        if (chunk != null)
+            copy.chunk = chunk.copy();
+        if (rawDataFile != null) {
+            try {
+                copy.rawDataFile = File.createTempFile("StreamingDataTableSaw", ".csv");
+                copy.rawDataFile.deleteOnExit();
+                Files.copy(rawDataFile.toPath(), copy.rawDataFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Problem copying raw data for " + metric.getName(), e);
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    public IDataLogger emptyCopy() {
+        StreamingDataTableSaw copy = new StreamingDataTableSaw(metric, keepRawData, chunkSize);
+        copy.columnIndex.putAll(columnIndex);
+        copy.columnTypes.addAll(columnTypes);
+        copy.row = new Object[row.length];
+        copy.inRow = new boolean[inRow.length];
+        for (Map.Entry<String, ColumnSummary> entry : summaries.entrySet())
+            copy.summaries.put(entry.getKey(), entry.getValue() instanceof NumericSummary ?
+                    new NumericSummary() : new CategorySummary());
+        if (chunk != null)
+            copy.chunk = chunk.emptyCopy();
+        return copy;
+    }
+
+    @Override
+    public IDataLogger create() {
+        return new StreamingDataTableSaw(metric, keepRawData, chunkSize);
+    }
+
+    /**
+     * A running summary of the (non-missing) values of one column
+     */
+    abstract static class ColumnSummary {
+        /**
+         * @param gameID    - the game the value was recorded in
+         * @param rowInGame - the number of rows recorded for this game before this one
+         * @param value     - the value, which is not null
+         */
+        abstract void add(String gameID, int rowInGame, Object value);
+
+        abstract int count();
+
+        abstract ColumnSummary copy();
+    }
+
+    static class NumericSummary extends ColumnSummary {
+        int n;
+        double sum, mean, m2;
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+
+        // Count, mean and sum of squared differences from the mean of the values in each row of a game
+        int[] nAt = new int[0];
+        double[] meanAt = new double[0], m2At = new double[0];
+
+        // The first value in each game
+        final Map<String, Double> firstPerGame = new LinkedHashMap<>();
+
+        @Override
+        void add(String gameID, int rowInGame, Object value) {
+            double x = ((Number) value).doubleValue();
+            n++;
+            sum += x;
+            double delta = x - mean;
+            mean += delta / n;
+            m2 += delta * (x - mean);
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+
+            if (rowInGame >= nAt.length) {
+                int length = Math.max(rowInGame + 1, nAt.length * 2);
+                nAt = Arrays.copyOf(nAt, length);
+                meanAt = Arrays.copyOf(meanAt, length);
+                m2At = Arrays.copyOf(m2At, length);
+            }
+            nAt[rowInGame]++;
+            delta = x - meanAt[rowInGame];
+            meanAt[rowInGame] += delta / nAt[rowInGame];
+            m2At[rowInGame] += delta * (x - meanAt[rowInGame]);
+
+            firstPerGame.putIfAbsent(gameID, x);
+        }
+
+        @Override
+        int count() {
+            return n;
+        }
+
+        /**
+         * @return - the sample variance, as Tablesaw calculates it
+         */
+        double variance() {
+            if (n == 0) return Double.NaN;
+            return n == 1 ? 0 : m2 / (n - 1);
+        }
+
+        /**
+         * @return - the mean of the values in the given row of each game (NaN if there are none)
+         */
+        double meanAt(int rowInGame) {
+            return rowInGame < nAt.length && nAt[rowInGame] > 0 ? meanAt[rowInGame] : Double.NaN;
+        }
+
+        /**
+         * @return - the standard error of the mean of the values in the given row of each game (0 if there are fewer
+         * than two of these)
+         */
+        double stdErrAt(int rowInGame) {
+            if (rowInGame >= nAt.length || nAt[rowInGame] < 2) return 0;
+            return Math.sqrt(m2At[rowInGame] / (nAt[rowInGame] - 1)) / Math.sqrt(nAt[rowInGame]);
+        }
+
+        @Override
+        NumericSummary copy() {
+            NumericSummary copy = new NumericSummary();
+            copy.n = n;
+            copy.sum = sum;
+            copy.mean = mean;
+            copy.m2 = m2;
+            copy.min = min;
+            copy.max = max;
+            copy.nAt = nAt.clone();
+            copy.meanAt = meanAt.clone();
+            copy.m2At = m2At.clone();
+            copy.firstPerGame.putAll(firstPerGame);
+            return copy;
+        }
+    }
+
+    static class CategorySummary extends ColumnSummary {
+        int n;
+        final Map<String, Integer> counts = new LinkedHashMap<>();
+        // Only includes the games with at least one value
+        final Map<String, Map<String, Integer>> countsPerGame = new LinkedHashMap<>();
+
+        @Override
+        void add(String gameID, int rowInGame, Object value) {
+            String category = value.toString();
+            n++;
+            counts.merge(category, 1, Integer::sum);
+            countsPerGame.computeIfAbsent(gameID, id -> new LinkedHashMap<>()).merge(category, 1, Integer::sum);
+        }
+
+        @Override
+        int count() {
+            return n;
+        }
+
+        @Override
+        CategorySummary copy() {
+            CategorySummary copy = new CategorySummary();
+            copy.n = n;
+            copy.counts.putAll(counts);
+            for (Map.Entry<String, Map<String, Integer>> entry : countsPerGame.entrySet())
+                copy.countsPerGame.put(entry.getKey(), new LinkedHashMap<>(entry.getValue()));
+            return copy;
+        }
+    }
+}
@@ -36,8 +36,19 @@ public class TableSawDataProcessor implements IDataProcessor {
         System.out.println(dts.data);
     }
 
-    private Map<String, List<Table>> getSummarisedData(DataTableSaw dts)
+    /**
+     * @return - the metric whose data the logger holds
+     */
+    protected AbstractMetric getMetric(IDataLogger logger) {
+        return ((DataTableSaw) logger).metric;
+    }
+
+    /**
+     * @return - the summaries of each column of data in the logger, as for the Summary report
+     */
+    protected Map<String, List<Table>> getSummarisedData(IDataLogger logger)
     {
+        DataTableSaw dts = (DataTableSaw) logger;
         Map<String, List<Table>> summarisedData;
         if (dts.metric.getGamesCompleted() < dts.data.column(0).size()) {
             summarisedData = summariseDataProgression(dts.metric, dts.data);
@@ -50,8 +61,7 @@ public class TableSawDataProcessor implements IDataProcessor {
 
     @Override
     public void processSummaryToConsole(IDataLogger logger) {
-        DataTableSaw dts = (DataTableSaw) logger;
-        Map<String, List<Table>> summarisedData = getSummarisedData(dts);
+        Map<String, List<Table>> summarisedData = getSummarisedData(logger);
 
         for (Map.Entry<String, List<Table>> e: summarisedData.entrySet()) {
             System.out.println();
@@ -63,15 +73,15 @@ public class TableSawDataProcessor implements IDataProcessor {
 
     @Override
     public void processSummaryToFile(IDataLogger logger, String folderName) {
-        DataTableSaw dts = (DataTableSaw) logger;
-        Map<String, List<Table>> summarisedData = getSummarisedData(dts);
+        AbstractMetric metric = getMetric(logger);
+        Map<String, List<Table>> summarisedData = getSummarisedData(logger);
 
         File summaryFolder = new File(folderName + "/summaries");
         boolean success = true;
         if (!summaryFolder.exists()) {
             success = summaryFolder.mkdir();
         }
-        File summaryFolderMetric = new File(folderName + "/summaries/" + dts.metric.getName());
+        File summaryFolderMetric = new File(folderName + "/summaries/" + metric.getName());
         if (!summaryFolderMetric.exists()) {
             success = summaryFolderMetric.mkdir();
         }
@@ -88,29 +98,35 @@ public class TableSawDataProcessor implements IDataProcessor {
 
     @Override
     public void processPlotToFile(IDataLogger logger, String folderName) {
-        DataTableSaw dts = (DataTableSaw) logger;
+        AbstractMetric metric = getMetric(logger);
         File plotFolder = new File(folderName + "/plots");
         boolean success = true;
         if (!plotFolder.exists()) {
             success = plotFolder.mkdir();
         }
-        File plotFolderMetric = new File(folderName + "/plots/" + dts.metric.getName());
+        File plotFolderMetric = new File(folderName + "/plots/" + metric.getName());
         if (!plotFolderMetric.exists()) {
             success = plotFolderMetric.mkdir();
         }
         if (success) {
-            Map<String, Figure> figures;
-            if (dts.metric.getGamesCompleted() < dts.data.column(0).size()) {
-                figures = plotDataProgression(dts.metric, dts.data);
-            } else {
-                figures = plotData(dts.metric, dts.data);
-            }
+            Map<String, Figure> figures = getFigures(logger);
             for (Map.Entry<String, Figure> figure : figures.entrySet()) {
                 TAGPlot.save(figure.getValue(), new File(plotFolderMetric + "/" + figure.getKey() + ".html"));
             }
         }
     }
 
+    /**
+     * @return - the figures plotting each column of data in the logger, as for the Plot report
+     */
+    protected Map<String, Figure> getFigures(IDataLogger logger) {
+        DataTableSaw dts = (DataTableSaw) logger;
+        if (dts.metric.getGamesCompleted() < dts.data.column(0).size()) {
+            return plotDataProgression(dts.metric, dts.data);
+        }
+        return plotData(dts.metric, dts.data);
+    }
+
     @Override
     public void processPlotToConsole(IDataLogger logger) {
         System.out.println("Plot report to console not implemented yet");
@@ -207,27 +223,7 @@ public class TableSawDataProcessor implements IDataProcessor {
                         continue;
                     }
 
-                    // Make a print table with detail counts per game, transposed for more compact printing
-                    Table printTable = summaryTable.transpose(true,false);
-                    printTable.column(0).setName(column.name() + " \\ Game #");
-                    // Add table to the summary to print
-                    summary.add(printTable);
-
-                    // Make a print table with summary stats over all game
-                    // Taking the summary of the first category as start table. All have 2 columns, measure and value.
-                    Table statsTable = summaryTable.intColumn(0).summary();
-                    // Change the name of the second column ('value') to the actual name of the category
-                    statsTable.column(1).setName(summaryTable.column(0).name());
-                    // Name the table appropriately
-                    statsTable.setName("Stats " + column.name());
-                    // Add the other categories as columns, taking only the second column (value) for each and naming them appropriately, according to the category name
-                    for (i = 1; i < summaryTable.columnCount(); i++) {
-                        DoubleColumn dc = summaryTable.intColumn(i).summary().doubleColumn(1);
-                        dc.setName(summaryTable.column(i).name());
-                        statsTable.addColumns(dc);
-                    }
-                    // Add table to the summary to print
-                    summary.add(statsTable.transpose(true, true).sortDescendingOn("Mean"));
+                    summary.addAll(summariseCountsPerGame(column.name(), summaryTable));
                 } else {
                     // This is the same as summariseData for numerical data
                     Table sum = column.summary();
@@ -241,6 +237,38 @@ public class TableSawDataProcessor implements IDataProcessor {
         return allDataSummaries;
     }
 
+    /**
+     * @param columnName   - the name of a categorical column
+     * @param summaryTable - the number of times each category occurred in each game: one (Integer) column per
+     *                     category, and one row per game
+     * @return - a table of the counts per game, and a table of statistics over all games for each category
+     */
+    protected List<Table> summariseCountsPerGame(String columnName, Table summaryTable) {
+        List<Table> summary = new ArrayList<>();
+        // Make a print table with detail counts per game, transposed for more compact printing
+        Table printTable = summaryTable.transpose(true,false);
+        printTable.column(0).setName(columnName + " \\ Game #");
+        // Add table to the summary to print
+        summary.add(printTable);
+
+        // Make a print table with summary stats over all game
+        // Taking the summary of the first category as start table. All have 2 columns, measure and value.
+        Table statsTable = summaryTable.intColumn(0).summary();
+        // Change the name of the second column ('value') to the actual name of the category
+        statsTable.column(1).setName(summaryTable.column(0).name());
+        // Name the table appropriately
+        statsTable.setName("Stats " + columnName);
+        // Add the other categories as columns, taking only the second column (value) for each and naming them appropriately, according to the category name
+        for (int i = 1; i < summaryTable.columnCount(); i++) {
+            DoubleColumn dc = summaryTable.intColumn(i).summary().doubleColumn(1);
+            dc.setName(summaryTable.column(i).name());
+            statsTable.addColumns(dc);
+        }
+        // Add table to the summary to print
+        summary.add(statsTable.transpose(true, true).sortDescendingOn("Mean"));
+        return summary;
+    }
+
     /**
      * Plot the data recorded by this metric. Progression over the course of a game, averaged across the different
      * games recorded.
@@ -292,28 +320,8 @@ public class TableSawDataProcessor implements IDataProcessor {
                         yMeanSdPlus[j] = yMean[j] + err;
                     }
 
-                    Trace yMeanSdPlusTrace = ScatterTrace.builder(x, yMeanSdPlus).name("Mean + SD")
-                            .opacity(0.3)
-                            .line(Line.builder().simplify(true).dash(Line.Dash.DASH_DOT).color("rgb(0, 0, 255)").build())
-                            .mode(ScatterTrace.Mode.LINE).build();
-                    Trace yMeanTrace = ScatterTrace.builder(x, yMean).name("Mean")
-                            .mode(ScatterTrace.Mode.LINE)
-                            .line(Line.builder().width(2).color("rgb(0, 0, 255)").build())
-                            .build();
-                    Trace yMeanSdMinusTrace = ScatterTrace.builder(x, yMeanSdMinus).name("Mean - SD")
-                            .opacity(0.3)
-                            .line(Line.builder().simplify(true).dash(Line.Dash.DASH_DOT).color("rgb(0, 0, 255)").build())
-                            .mode(ScatterTrace.Mode.LINE).build();
-
-                    Layout layout = Layout.builder().title(data.name())
-                            .height(600).width(800)
-                            .yAxis(Axis.builder().title(column.name()).build())
-                            .xAxis(Axis.builder().title(getLabel(metric)).build())
-                            .build();
-
-                    Figure figure = new Figure(layout, yMeanSdPlusTrace, yMeanTrace, yMeanSdMinusTrace);
-
-//                figures.put(column.name(), LinePlot.create(data.name(), "Data point", x, column.name(), y));
+                    Figure figure = progressionFigure(metric, data.name(), column.name(), x, yMean, yMeanSdMinus, yMeanSdPlus);
+
                     figures.put(column.name(), figure);
                 } else {
                     // Make box plots from the categorical counts across games
@@ -332,22 +340,73 @@ public class TableSawDataProcessor implements IDataProcessor {
                         countsPerGame = countsPerGame.append(tablesCountsPerGame[idx]);
                     }
 
-                    // Create box plots from the counts
-                    Layout layout = Layout.builder().title(data.name())
-                            .height(600).width(800)
-                            .yAxis(Axis.builder().title("Count").range(0, 30).build())  //  TODO hard-coded range
-                            .xAxis(Axis.builder().title(column.name()).categoryOrder(Axis.CategoryOrder.CATEGORY_ASCENDING).build())
-                            .build();
-                    BoxTrace trace = BoxTrace.builder(countsPerGame.categoricalColumn("Category"), countsPerGame.nCol("Count"))
-                            .build();
-
-                    figures.put(column.name(), new Figure(layout, trace));
+                    figures.put(column.name(), countsBoxFigure(data.name(), column.name(), countsPerGame));
                 }
             }
         }
         return figures;
     }
 
+    /**
+     * A line plot of the mean of a numeric column at each point of a game, with lines for +/- the standard error
+     */
+    protected Figure progressionFigure(AbstractMetric metric, String tableName, String columnName, double[] x,
+                                       double[] yMean, double[] yMeanSdMinus, double[] yMeanSdPlus) {
+        Trace yMeanSdPlusTrace = ScatterTrace.builder(x, yMeanSdPlus).name("Mean + SD")
+                .opacity(0.3)
+                .line(Line.builder().simplify(true).dash(Line.Dash.DASH_DOT).color("rgb(0, 0, 255)").build())
+                .mode(ScatterTrace.Mode.LINE).build();
+        Trace yMeanTrace = ScatterTrace.builder(x, yMean).name("Mean")
+                .mode(ScatterTrace.Mode.LINE)
+                .line(Line.builder().width(2).color("rgb(0, 0, 255)").build())
+                .build();
+        Trace yMeanSdMinusTrace = ScatterTrace.builder(x, yMeanSdMinus).name("Mean - SD")
+                .opacity(0.3)
+                .line(Line.builder().simplify(true).dash(Line.Dash.DASH_DOT).color("rgb(0, 0, 255)").build())
+                .mode(ScatterTrace.Mode.LINE).build();
+
+        Layout layout = Layout.builder().title(tableName)
+                .height(600).width(800)
+                .yAxis(Axis.builder().title(columnName).build())
+                .xAxis(Axis.builder().title(getLabel(metric)).build())
+                .build();
+
+        Figure figure = new Figure(layout, yMeanSdPlusTrace, yMeanTrace, yMeanSdMinusTrace);
+
+        return figure;
+    }
+
+    /**
+     * Box plots of the number of times each category occurred in each game
+     * @param countsPerGame - a table with a Category and a Count column, with one row per game for each category
+     */
+    protected Figure countsBoxFigure(String tableName, String columnName, Table countsPerGame) {
+        // Create box plots from the counts
+        Layout layout = Layout.builder().title(tableName)
+                .height(600).width(800)
+                .yAxis(Axis.builder().title("Count").range(0, 30).build())  //  TODO hard-coded range
+                .xAxis(Axis.builder().title(columnName).categoryOrder(Axis.CategoryOrder.CATEGORY_ASCENDING).build())
+                .build();
+        BoxTrace trace = BoxTrace.builder(countsPerGame.categoricalColumn("Category"), countsPerGame.nCol("Count"))
+                .build();
+        return new Figure(layout, trace);
+    }
+
+    /**
+     * A bar plot of the number of times each category occurred
+     * @param counts - a table of categories, and their counts, as from StringColumn.countByCategory()
+     */
+    protected Figure countsBarFigure(String tableName, String columnName, Table counts) {
+        Layout layout = Layout.builder()
+                .title(tableName)
+                .yAxis(Axis.builder().title(columnName).build())
+                .xAxis(Axis.builder().categoryOrder(Axis.CategoryOrder.TRACE).build())
+                .build();
+        BarTrace trace = BarTrace.builder(counts.categoricalColumn(0), counts.numberColumn(1))
+                .build();
+        return new Figure(layout, trace);
+    }
+
     /**
      * Defines x-axis label for a progression plot, based on the events the metric listens to.
      * Chooses the lowest level of granularity that the metric listens to.
@@ -382,14 +441,7 @@ public class TableSawDataProcessor implements IDataProcessor {
                     // Make a bar plot from the categorical count
                     Table t2 = ((StringColumn)column).countByCategory();
 //                    t2 = t2.sortDescendingOn(t2.column(1).name()); //todo this sorts the table, but not the plot when we build it.
-                    Layout layout = Layout.builder()
-                            .title(filteredData.name())
-                            .yAxis(Axis.builder().title(column.name()).build())
-                            .xAxis(Axis.builder().categoryOrder(Axis.CategoryOrder.TRACE).build())
-                            .build();
-                    BarTrace trace = BarTrace.builder(t2.categoricalColumn(0), t2.numberColumn(1))
-                            .build();
-                    figures.put(column.name(), new Figure(layout, trace));
+                    figures.put(column.name(), countsBarFigure(filteredData.name(), column.name(), t2));
                 }
             }
         }
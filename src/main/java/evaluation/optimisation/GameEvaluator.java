@@ -12,6 +12,7 @@ import evodef.SolutionEvaluator;
 import games.GameType;
 
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toList;
@@ -94,6 +95,24 @@ public class GameEvaluator implements SolutionEvaluator {
      */
     @Override
     public double evaluate(int[] settings) {
+        try {
+            return evaluationTask(settings).call();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Sets up a single evaluation of the settings, but does not run it.
+     * This does everything that needs the state of the GameEvaluator (the players, the random seed, the
+     * position of the tuned player); the returned Callable then just plays the game and scores it, and so can
+     * safely be run on a different thread to the one that called this method.
+     * Calling this, and then call() on the result, is exactly equivalent to evaluate(settings).
+     *
+     * @param settings as for evaluate(int[] settings)
+     * @return a Callable that will run the game, and return the game score for the agent being optimised
+     */
+    public Callable<Double> evaluationTask(int[] settings) {
         if (debug)
             System.out.printf("Starting evaluation %d of %s at %tT%n", nEvals,
                     Arrays.toString(settings), System.currentTimeMillis());
@@ -110,7 +129,7 @@ public class GameEvaluator implements SolutionEvaluator {
         // create a random permutation of opponents - this is used if we want to avoid opponent duplicates
         // if we allow duplicates, then we randomise them all independently
         List<Integer> opponentOrdering = IntStream.range(0, opponents.size()).boxed().collect(toList());
-        Collections.shuffle(opponentOrdering);
+        Collections.shuffle(opponentOrdering, rnd);
         int count = 0;
         for (int i = 0; i < nPlayers; i++) {
             if (!fullyCoop && i != playerIndex) {
@@ -125,15 +144,21 @@ public class GameEvaluator implements SolutionEvaluator {
 
         Game newGame = tuningGame ? (Game) configuredThing : game.createGameInstance(nPlayers, gameParams);
         // always reset the random seed for each new game
-        newGame.reset(allPlayers, rnd.nextLong());
+        long seed = rnd.nextLong();
+        // and the players' seeds, so that the result depends only on the settings and this seed
+        for (int i = 0; i < allPlayers.size(); i++)
+            allPlayers.get(i).setSeed(seed + i);
+        nEvals++;
 
-        newGame.run();
-        double retValue = tuningGame ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerIndex);
+        return () -> {
+            newGame.reset(allPlayers, seed);
 
-    //    System.out.println("GameEvaluator: " + retValue);
+            newGame.run();
+            double retValue = tuningGame ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerIndex);
 
-        nEvals++;
-        return retValue;
+            //    System.out.println("GameEvaluator: " + retValue);
+            return retValue;
+        };
     }
 
     public void addListener(IGameListener listener) {
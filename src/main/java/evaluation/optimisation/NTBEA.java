@@ -24,6 +24,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.IntToDoubleFunction;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -55,7 +56,10 @@ public class NTBEA {
         landscapeModel.setUse3Tuple(params.useThreeTuples);
         landscapeModel.addTuples();
 
-        searchFramework = new NTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize);
+        // Tuning a game instantiates Games that share the search space's parameters, so these cannot be run in parallel
+        searchFramework = params.nThreads > 1 && !params.tuningGame ?
+                new ParallelNTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize, params.nThreads, params.seed) :
+                new NTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize);
         this.game = game;
         this.nPlayers = nPlayers;
         // Set up opponents
@@ -158,6 +162,7 @@ public class NTBEA {
 
             RoundRobinTournament tournament = new RoundRobinTournament(players, game, nPlayers, gamesPerMatchup, NO_SELF_PLAY, params.gameParams);
             tournament.verbose = false;
+            tournament.setNumberOfThreads(params.nThreads);
             createListeners().forEach(tournament::addListener);
             tournament.run();
             // create a new list of results in descending order of score
@@ -246,8 +251,9 @@ public class NTBEA {
 
     protected Pair<Double, Double> evaluateWinner(int[] winnerSettings) {
 
-        double[] results = IntStream.range(0, params.evalGames)
-                .mapToDouble(answer -> evaluator.evaluate(winnerSettings)).toArray();
+        double[] results = params.nThreads > 1 && !params.tuningGame ?
+                evaluateInParallel(winnerSettings, params.evalGames) :
+                IntStream.range(0, params.evalGames).mapToDouble(answer -> evaluator.evaluate(winnerSettings)).toArray();
 
         double avg = Arrays.stream(results).average().orElse(0.0);
         double stdErr = Math.sqrt(Arrays.stream(results)
@@ -256,6 +262,32 @@ public class NTBEA {
         return new Pair<>(avg, stdErr);
     }
 
+    /**
+     * Runs nGames evaluations of the settings on params.nThreads threads.
+     * The games are all set up (players, seeds) in order on this thread, so the results are the same as
+     * running them one after the other.
+     */
+    private double[] evaluateInParallel(int[] settings, int nGames) {
+        List<Callable<Double>> tasks = IntStream.range(0, nGames)
+                .mapToObj(i -> evaluator.evaluationTask(settings))
+                .collect(Collectors.toList());
+        ExecutorService executor = Executors.newFixedThreadPool(params.nThreads);
+        try {
+            double[] results = new double[nGames];
+            List<Future<Double>> futures = executor.invokeAll(tasks);
+            for (int i = 0; i < nGames; i++)
+                results[i] = futures.get(i).get();
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Evaluation failed in worker thread", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
 
     private void logResults() {
 
@@ -32,6 +32,7 @@ public class NTBEAParameters {
     public double kExplore;
     public int tournamentGames;
     public int neighbourhoodSize;
+    public int nThreads;
     public String opponentDescriptor;
     public long seed;
     public String evalMethod;
@@ -57,6 +58,7 @@ public class NTBEAParameters {
         kExplore = (double) args.get(RunArg.kExplore);
         tournamentGames = (int) args.get(RunArg.matchups);
         neighbourhoodSize = (int) args.get(RunArg.neighbourhood);
+        nThreads = (int) args.get(RunArg.nThreads);
         opponentDescriptor = (String) args.get(RunArg.opponent);
         evalMethod = (String) args.get(RunArg.evalMethod);
         useThreeTuples = (boolean) args.get(RunArg.useThreeTuples);
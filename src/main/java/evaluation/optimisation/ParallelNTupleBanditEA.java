@@ -0,0 +1,120 @@
+package evaluation.optimisation;
+
+import evodef.BanditLandscapeModel;
+import evodef.DefaultMutator;
+import evodef.SearchSpace;
+import evodef.SearchSpaceUtil;
+import evodef.SolutionEvaluator;
+import ntbea.NTupleBanditEA;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A version of NTupleBanditEA that evaluates several candidate settings at the same time on different threads.
+ * <p>
+ * The sequential algorithm evaluates one point, adds the result to the landscape model, and then picks the
+ * best neighbour of that point (by the model's upper confidence bound) as the next point to evaluate.
+ * Here we keep nThreads evaluations in progress at once. Each time a result arrives it is added to the landscape
+ * model, and a new point is picked from the neighbourhood of the most recently submitted point, using the updated
+ * model. Points that are still being evaluated are not picked again (unless there is no other choice), so that a
+ * batch contains distinct settings.
+ * <p>
+ * Results are therefore not identical to a sequential run, as each choice is made with slightly less information
+ * (up to nThreads - 1 results may be outstanding); nor are they exactly repeatable, as they depend on the order
+ * in which the games finish.
+ * <p>
+ * Only a GameEvaluator can be run in parallel (as it can set up each game on the main thread, and then run it
+ * elsewhere). Any other SolutionEvaluator is run sequentially as in NTupleBanditEA.
+ */
+public class ParallelNTupleBanditEA extends NTupleBanditEA {
+
+    // Tie-breaking noise, as in NTupleBanditEA
+    private static final double tieBreakNoise = 1e-6;
+
+    private final int nThreads;
+    private final int nNeighbours;
+    private final Random rnd;
+
+    /**
+     * @param seed - seed for the tie-breaking noise
+     */
+    public ParallelNTupleBanditEA(BanditLandscapeModel model, double kExplore, int nNeighbours, int nThreads, long seed) {
+        super(model, kExplore, nNeighbours);
+        if (nThreads < 1)
+            throw new IllegalArgumentException("Number of threads must be at least 1 : " + nThreads);
+        this.nThreads = nThreads;
+        this.nNeighbours = nNeighbours;
+        this.rnd = new Random(seed);
+    }
+
+    @Override
+    public double[] runTrial(SolutionEvaluator evaluator, int nEvals) {
+        if (nThreads == 1 || !(evaluator instanceof GameEvaluator))
+            return super.runTrial(evaluator, nEvals);
+
+        GameEvaluator gameEvaluator = (GameEvaluator) evaluator;
+        SearchSpace searchSpace = evaluator.searchSpace();
+        DefaultMutator mutator = new DefaultMutator(searchSpace);
+        // as in NTupleBanditEA, we do not look at more than a quarter of the search space, nor fewer than 5 points
+        int neighbourhood = Math.max(5, (int) Math.min(nNeighbours, SearchSpaceUtil.size(searchSpace) / 4.0));
+
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        CompletionService<Double> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<Double>, int[]> inProgress = new HashMap<>();
+        int[] lastPoint = null;
+        int submitted = 0;
+        try {
+            while (submitted < nEvals || !inProgress.isEmpty()) {
+                // keep all the threads busy
+                while (submitted < nEvals && inProgress.size() < nThreads) {
+                    int[] nextPoint;
+                    if (lastPoint == null)
+                        nextPoint = seed == null ? SearchSpaceUtil.randomPoint(searchSpace) : seed;
+                    else
+                        nextPoint = pickNeighbour(lastPoint, mutator, neighbourhood, inProgress.values());
+                    inProgress.put(completionService.submit(gameEvaluator.evaluationTask(nextPoint)), nextPoint);
+                    lastPoint = nextPoint;
+                    submitted++;
+                }
+                // then wait for the next result, and update the model with it
+                Future<Double> result = completionService.take();
+                int[] point = inProgress.remove(result);
+                banditLandscapeModel.addPoint(point, result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Evaluation failed in worker thread", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return banditLandscapeModel.getBestOfSampled();
+    }
+
+    /**
+     * Picks the neighbour of point with the highest upper confidence bound on the current landscape model.
+     * Neighbours that are currently being evaluated are only picked if every neighbour is.
+     */
+    private int[] pickNeighbour(int[] point, DefaultMutator mutator, int neighbourhood, Collection<int[]> inProgress) {
+        int[] best = null, bestInProgress = null;
+        double bestScore = Double.NEGATIVE_INFINITY, bestInProgressScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < neighbourhood; i++) {
+            int[] neighbour = mutator.randMut(point);
+            double score = banditLandscapeModel.getMeanEstimate(neighbour)
+                    + kExplore * banditLandscapeModel.getExplorationEstimate(neighbour)
+                    + rnd.nextDouble() * tieBreakNoise;
+            boolean busy = inProgress.stream().anyMatch(p -> Arrays.equals(p, neighbour));
+            if (!busy && score > bestScore) {
+                best = neighbour;
+                bestScore = score;
+            }
+            if (busy && score > bestInProgressScore) {
+                bestInProgress = neighbour;
+                bestInProgressScore = score;
+            }
+        }
+        return best != null ? best : bestInProgress;
+    }
+}
@@ -2,13 +2,17 @@ package evaluation.tournaments;
 
 import core.AbstractParameters;
 import core.AbstractPlayer;
+import core.Game;
+import evaluation.listeners.AsyncGameListener;
 import evaluation.listeners.IGameListener;
+import evaluation.listeners.MetricsGameListener;
 import evaluation.listeners.TournamentMetricsGameListener;
 import games.GameType;
 import utilities.Pair;
 
 import java.io.FileWriter;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -38,6 +42,15 @@ public class RoundRobinTournament extends AbstractTournament {
     protected long randomSeed = System.currentTimeMillis();
     private int[] gameSeeds;
 
+    // Parallel execution (only used if nThreads > 1)
+    protected int nThreads = 1;
+    private ExecutorService executor;
+    private BlockingQueue<Game> idleGames;  // one Game instance per thread
+    private Map<Game, List<MetricsGameListener>> recorders;  // for each Game instance, a recorder for each listener
+    private final Deque<PendingGame> pendingGames = new ArrayDeque<>();  // in the order the games were submitted
+    // Distributed execution (if set, then games are run in worker processes instead of threads)
+    private TournamentWorkers workers;
+
     /**
      * Create a round robin tournament, which plays all agents against all others.
      *
@@ -94,9 +107,17 @@ public class RoundRobinTournament extends AbstractTournament {
             gameTracker.init(game, nPlayers, agentNames);
             game.addListener(gameTracker);
         }
-        LinkedList<Integer> matchUp = new LinkedList<>();
-        createAndRunMatchUp(matchUp);
-        reportResults();
+        if (workers != null)
+            workers.start(game.getGameType(), nPlayers, agents, workerRecorders());
+        else if (nThreads > 1)
+            startWorkers(agentNames);
+        try {
+            LinkedList<Integer> matchUp = new LinkedList<>();
+            createAndRunMatchUp(matchUp);
+            reportResults();
+        } finally {
+            stopWorkers();
+        }
 
         for (IGameListener listener : listeners)
             listener.report();
@@ -184,6 +205,9 @@ public class RoundRobinTournament extends AbstractTournament {
 
     /**
      * Evaluates one combination of players.
+     * If we are running in parallel, then the games are submitted to the worker threads (or processes), and the
+     * results are recorded later (see collectPendingGames()), in exactly the same order as if they had been run
+     * sequentially.
      *
      * @param agentIDs - IDs of agents participating in this run.
      */
@@ -195,20 +219,17 @@ public class RoundRobinTournament extends AbstractTournament {
         for (int agentID : agentIDs)
             matchUpPlayers.add(this.agents.get(agentID));
 
-        if (verbose) {
-            StringBuffer sb = new StringBuffer();
-            sb.append("[");
-            for (int agentID : agentIDs)
-                sb.append(this.agents.get(agentID).toString()).append(",");
-            sb.setCharAt(sb.length() - 1, ']');
-            System.out.println(sb);
-        }
-
         // TODO : Not sure this is the ideal place for this...ask Raluca
         Set<String> agentNames = agents.stream().map(AbstractPlayer::toString).collect(Collectors.toSet());
         for (IGameListener listener : listeners) {
-            if (listener instanceof TournamentMetricsGameListener) {
-                ((TournamentMetricsGameListener) listener).tournamentInit(game, nPlayers, agentNames, new HashSet<>(matchUpPlayers));
+            AsyncGameListener asyncListener = listener instanceof AsyncGameListener ? (AsyncGameListener) listener : null;
+            IGameListener innerListener = asyncListener == null ? listener : asyncListener.getListener();
+            if (innerListener instanceof TournamentMetricsGameListener) {
+                // the previous match-up must be finished before the listener moves on to the next one
+                collectPendingGames();
+                if (asyncListener != null)
+                    asyncListener.flush();
+                ((TournamentMetricsGameListener) innerListener).tournamentInit(game, nPlayers, agentNames, new HashSet<>(matchUpPlayers));
             }
         }
 
@@ -216,66 +237,256 @@ public class RoundRobinTournament extends AbstractTournament {
         for (int i = 0; i < nGames; i++) {
             // Use the same seeds for all games in each matchup (if gameSeeds specified)
             long currentSeed = gameSeeds == null ? game.getGameState().getGameParameters().getRandomSeed() + i + 1 : gameSeeds[i];
-            game.reset(matchUpPlayers, currentSeed);
-
-            // Randomize parameters
-            if (randomGameParams) {
-                game.getGameState().getGameParameters().randomize();
-                System.out.println("Game parameters: " + game.getGameState().getGameParameters());
+            List<Integer> gameAgentIDs = new ArrayList<>(agentIDs);
+            boolean firstGame = i == 0;
+            // each player is reseeded before each game, so that the game is the same however it is run
+            long[] playerSeeds = new long[matchUpPlayers.size()];
+            for (int p = 0; p < playerSeeds.length; p++)
+                playerSeeds[p] = playerSeed(i, p);
+            if (executor == null && workers == null) {
+                for (int p = 0; p < playerSeeds.length; p++)
+                    matchUpPlayers.get(p).setSeed(playerSeeds[p]);
+                GameOutcome outcome = playGame(game, matchUpPlayers, currentSeed, randomGameParams, Collections.emptyList());
+                recordOutcome(gameAgentIDs, firstGame, outcome);
+            } else if (workers != null) {
+                // the worker process makes its own copies of the players
+                pendingGames.add(new PendingGame(gameAgentIDs, firstGame, workers.submit(gameAgentIDs, playerSeeds, currentSeed)));
+                game.getGameState().getGameParameters().setRandomSeed(currentSeed);
+                while (!pendingGames.isEmpty() && (pendingGames.peek().outcome.isDone() || pendingGames.size() > 4 * workers.getNumberOfWorkers()))
+                    collectNextGame();
+            } else {
+                // Each game gets its own copy of the players, made here (in order) rather than on the worker threads
+                // (and copies keep the name of the original, which listeners use to identify them)
+                List<AbstractPlayer> playerCopies = new ArrayList<>(matchUpPlayers.size());
+                for (int p = 0; p < matchUpPlayers.size(); p++) {
+                    AbstractPlayer player = matchUpPlayers.get(p);
+                    AbstractPlayer copy = player.copy();
+                    copy.setName(player.toString());
+                    copy.setSeed(playerSeeds[p]);
+                    playerCopies.add(copy);
+                }
+                Future<GameOutcome> future = executor.submit(() -> {
+                    Game workerGame = idleGames.take();
+                    try {
+                        return playGame(workerGame, playerCopies, currentSeed, randomGameParams, recorders.get(workerGame));
+                    } finally {
+                        idleGames.add(workerGame);
+                    }
+                });
+                pendingGames.add(new PendingGame(gameAgentIDs, firstGame, future));
+                // the next seed (if not pre-specified) follows on from this one, as it would in a sequential run
+                game.getGameState().getGameParameters().setRandomSeed(currentSeed);
+                // record whatever has finished, and do not let too many games queue up
+                while (!pendingGames.isEmpty() && (pendingGames.peek().outcome.isDone() || pendingGames.size() > 4 * nThreads))
+                    collectNextGame();
             }
+        }
+        matchUpsRun++;
+        totalGamesRun += nGames;
+    }
 
-            game.run();  // Always running tournaments without visuals
-            GameResult[] results = game.getGameState().getPlayerResults();
+    /**
+     * The seed given to the player in each position of a game before it is played. This depends only on the
+     * tournament seed, the match-up and the game within it, and not on the games played before.
+     *
+     * @param gameIndex - the game within the current match-up
+     * @param position  - the position of the player in the game
+     */
+    private long playerSeed(int gameIndex, int position) {
+        return ((randomSeed * 31 + matchUpsRun) * 31 + gameIndex) * 31 + position;
+    }
 
-            int numDraws = 0;
-            for (int j = 0; j < matchUpPlayers.size(); j++) {
-                nGamesPlayed[agentIDs.get(j)] += 1;
-                for (int k = 0; k < matchUpPlayers.size(); k++) {
-                    if (k != j) {
-                        nGamesPlayedPerOpponent[agentIDs.get(j)][agentIDs.get(k)] += 1;
-                    }
+    /**
+     * Plays one game to completion, and extracts the data we need from it.
+     * This can be called from the worker threads (or a TournamentWorker), so must not update any of the tournament
+     * statistics.
+     *
+     * @param recorders - recorders (see MetricsGameListener.createRecorder()) listening to the game, whose data is
+     *                  returned in the outcome
+     */
+    static GameOutcome playGame(Game game, List<AbstractPlayer> players, long seed, boolean randomGameParams,
+                                List<MetricsGameListener> recorders) {
+        // discard anything left over from a game that failed
+        for (MetricsGameListener recorder : recorders)
+            recorder.takeGameData();
+        game.reset(players, seed);
+
+        // Randomize parameters
+        String gameParams = null;
+        if (randomGameParams) {
+            game.getGameState().getGameParameters().randomize();
+            gameParams = game.getGameState().getGameParameters().toString();
+        }
+
+        game.run();  // Always running tournaments without visuals
+        GameResult[] results = game.getGameState().getPlayerResults().clone();
+        int[] ordinalPositions = new int[players.size()];
+        for (int j = 0; j < players.size(); j++)
+            ordinalPositions[j] = game.getGameState().getOrdinalPosition(j);
+        List<MetricsGameListener.GameData> listenerData = new ArrayList<>(recorders.size());
+        for (MetricsGameListener recorder : recorders)
+            listenerData.add(recorder.takeGameData());
+        return new GameOutcome(results, ordinalPositions, gameParams, listenerData);
+    }
+
+    /**
+     * Updates the tournament statistics with the result of one game.
+     *
+     * @param agentIDs  - IDs of agents that played in the game, in player order.
+     * @param firstGame - true if this is the first game of a match-up (which triggers reporting of the match-up).
+     * @param outcome   - the result of the game
+     */
+    private void recordOutcome(List<Integer> agentIDs, boolean firstGame, GameOutcome outcome) {
+        if (verbose && firstGame) {
+            StringBuffer sb = new StringBuffer();
+            sb.append("[");
+            for (int agentID : agentIDs)
+                sb.append(this.agents.get(agentID).toString()).append(",");
+            sb.setCharAt(sb.length() - 1, ']');
+            System.out.println(sb);
+        }
+        if (outcome.gameParams != null)
+            System.out.println("Game parameters: " + outcome.gameParams);
+
+        GameResult[] results = outcome.results;
+        int numDraws = 0;
+        for (int j = 0; j < agentIDs.size(); j++) {
+            nGamesPlayed[agentIDs.get(j)] += 1;
+            for (int k = 0; k < agentIDs.size(); k++) {
+                if (k != j) {
+                    nGamesPlayedPerOpponent[agentIDs.get(j)][agentIDs.get(k)] += 1;
                 }
+            }
 
-                int ordinalPos = game.getGameState().getOrdinalPosition(j);
-                rankPerPlayer[agentIDs.get(j)] += ordinalPos;
-                rankPerPlayerSquared[agentIDs.get(j)] += ordinalPos * ordinalPos;
-                if (results[j] == GameResult.WIN_GAME) {
-                    pointsPerPlayer[agentIDs.get(j)] += 1;
-                    winsPerPlayer[agentIDs.get(j)] += 1;
-                    pointsPerPlayerSquared[agentIDs.get(j)] += 1;
-                    for (int k = 0; k < matchUpPlayers.size(); k++) {
-                        if (k != j) {
-                            winsPerPlayerPerOpponent[agentIDs.get(j)][agentIDs.get(k)] += 1;
-                        }
+            int ordinalPos = outcome.ordinalPositions[j];
+            rankPerPlayer[agentIDs.get(j)] += ordinalPos;
+            rankPerPlayerSquared[agentIDs.get(j)] += ordinalPos * ordinalPos;
+            if (results[j] == GameResult.WIN_GAME) {
+                pointsPerPlayer[agentIDs.get(j)] += 1;
+                winsPerPlayer[agentIDs.get(j)] += 1;
+                pointsPerPlayerSquared[agentIDs.get(j)] += 1;
+                for (int k = 0; k < agentIDs.size(); k++) {
+                    if (k != j) {
+                        winsPerPlayerPerOpponent[agentIDs.get(j)][agentIDs.get(k)] += 1;
                     }
                 }
-                if (results[j] == GameResult.DRAW_GAME)
-                    numDraws++;
             }
+            if (results[j] == GameResult.DRAW_GAME)
+                numDraws++;
+        }
 
-            if (numDraws > 0) {
-                double pointsPerDraw = 1.0 / numDraws;
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDs.get(j)] += pointsPerDraw;
-                    if (results[j] == GameResult.DRAW_GAME)
-                        pointsPerPlayerSquared[agentIDs.get(j)] += pointsPerDraw * pointsPerDraw;
-                }
+        if (numDraws > 0) {
+            double pointsPerDraw = 1.0 / numDraws;
+            for (int j = 0; j < agentIDs.size(); j++) {
+                if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDs.get(j)] += pointsPerDraw;
+                if (results[j] == GameResult.DRAW_GAME)
+                    pointsPerPlayerSquared[agentIDs.get(j)] += pointsPerDraw * pointsPerDraw;
             }
+        }
 
-            if (verbose) {
-                StringBuffer sb = new StringBuffer();
-                sb.append("[");
-                for (int j = 0; j < matchUpPlayers.size(); j++)
-                    sb.append(results[j]).append(",");
-                sb.setCharAt(sb.length() - 1, ']');
-                System.out.println(sb);
+        if (verbose) {
+            StringBuffer sb = new StringBuffer();
+            sb.append("[");
+            for (int j = 0; j < agentIDs.size(); j++)
+                sb.append(results[j]).append(",");
+            sb.setCharAt(sb.length() - 1, ']');
+            System.out.println(sb);
+        }
+
+        // the listeners get the data recorded for a game played elsewhere
+        for (int i = 0; i < outcome.listenerData.size(); i++)
+            metricsListener(listeners.get(i)).addGameData(outcome.listenerData.get(i));
+    }
+
+    /**
+     * @return the listener as a MetricsGameListener (unwrapping an AsyncGameListener), or null if it is not one
+     */
+    static MetricsGameListener metricsListener(IGameListener listener) {
+        if (listener instanceof AsyncGameListener)
+            listener = ((AsyncGameListener) listener).getListener();
+        return listener instanceof MetricsGameListener ? (MetricsGameListener) listener : null;
+    }
+
+    /**
+     * @return a recorder for each listener (as run by the workers, which send back the data for each game)
+     * @throws IllegalArgumentException if any of the listeners cannot be recorded
+     */
+    private List<MetricsGameListener> workerRecorders() {
+        List<MetricsGameListener> workerRecorders = new ArrayList<>();
+        for (IGameListener listener : listeners) {
+            MetricsGameListener metricsListener = metricsListener(listener);
+            MetricsGameListener recorder = metricsListener == null ? null : metricsListener.createRecorder();
+            if (recorder == null)
+                throw new IllegalArgumentException("Listener " + listener.getClass().getSimpleName() + " cannot be used with " +
+                        "worker processes, as only a MetricsGameListener (whose metrics can be copied) can have the data " +
+                        "for each game sent back from a worker");
+            workerRecorders.add(recorder);
+        }
+        return workerRecorders;
+    }
+
+    /**
+     * Creates the worker threads, each with its own Game, and a recorder for each listener (so that the listeners
+     * only ever see one game at a time, in order; see recordOutcome()).
+     * If any listener cannot be recorded, then no threads are created and the games are played sequentially.
+     */
+    private void startWorkers(Set<String> agentNames) {
+        Map<Game, List<MetricsGameListener>> gameRecorders = new HashMap<>();
+        for (int t = 0; t < nThreads; t++) {
+            Game workerGame = game.getGameType().createGameInstance(nPlayers, game.getGameState().getGameParameters().copy());
+            List<MetricsGameListener> recordersForGame = new ArrayList<>();
+            for (IGameListener listener : listeners) {
+                MetricsGameListener metricsListener = metricsListener(listener);
+                MetricsGameListener recorder = metricsListener == null ? null : metricsListener.createRecorder();
+                if (recorder == null) {
+                    System.out.println("Listener " + listener.getClass().getSimpleName() + " cannot be run on more than one thread, so games will be played sequentially");
+                    return;
+                }
+                recorder.init(workerGame, nPlayers, agentNames);
+                workerGame.addListener(recorder);
+                recordersForGame.add(recorder);
             }
+            gameRecorders.put(workerGame, recordersForGame);
+        }
+        recorders = gameRecorders;
+        executor = Executors.newFixedThreadPool(nThreads);
+        idleGames = new ArrayBlockingQueue<>(nThreads, false, gameRecorders.keySet());
+    }
 
+    private void stopWorkers() {
+        if (workers != null) {
+            pendingGames.clear();
+            workers.stop();
+            return;
         }
-        matchUpsRun++;
-        totalGamesRun += nGames;
+        if (executor == null)
+            return;
+        executor.shutdownNow();
+        executor = null;
+        idleGames = null;
+        recorders = null;
+        pendingGames.clear();
+    }
+
+    /**
+     * Waits for all games submitted to the worker threads to finish, and records their results (in submission order)
+     */
+    protected void collectPendingGames() {
+        while (!pendingGames.isEmpty())
+            collectNextGame();
     }
 
+    private void collectNextGame() {
+        PendingGame next = pendingGames.poll();
+        try {
+            recordOutcome(next.agentIDs, next.firstGame, next.outcome.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(workers == null ? "Game failed in worker thread" : "Game failed in worker process", e.getCause());
+        }
+    }
 
     protected void calculateFinalResults() {
         finalWinRanking = new LinkedHashMap<>();
@@ -301,6 +512,7 @@ public class RoundRobinTournament extends AbstractTournament {
     }
 
     protected void reportResults() {
+        collectPendingGames();
         calculateFinalResults();
         boolean toFile = resultsFile != null && !resultsFile.equals("");
         ArrayList<String> dataDump = new ArrayList<>();
@@ -395,6 +607,42 @@ public class RoundRobinTournament extends AbstractTournament {
     public void setVerbose(boolean verbose) {
         this.verbose = verbose;
     }
+
+    /**
+     * Sets the number of games to run in parallel. The default of 1 runs all games sequentially on the
+     * main thread (and with the original player instances).
+     * <p>
+     * With more than one thread, each game is played on one of nThreads Game instances with a fresh copy of the
+     * players, and results are recorded in exactly the order the games would have been played sequentially.
+     * The game seeds are the same as for a sequential run, and before each game the players (or their copies) are
+     * reseeded with a seed that depends only on the match-up and the game within it (see AbstractPlayer.setSeed()).
+     * The final statistics are then identical to a sequential run, whatever the number of threads, provided that
+     * setSeed() covers all of a player's randomness and the players carry no other state from one game to the next.
+     * Each thread has its own copy of each listener's metrics, and the data they record for a game is added to the
+     * listener when the result of the game is recorded, so the listeners' data is also the same as for a sequential
+     * run. This is only possible for a MetricsGameListener (which may be wrapped in an AsyncGameListener) whose
+     * metrics can be copied (see MetricsGameListener.createRecorder()); with any other listener, such as a
+     * FeatureListener, the games are played sequentially.
+     */
+    public void setNumberOfThreads(int nThreads) {
+        if (nThreads < 1)
+            throw new IllegalArgumentException("Number of threads must be at least 1 : " + nThreads);
+        this.nThreads = nThreads;
+    }
+
+    /**
+     * Runs games in worker processes rather than in this one (in which case the number of threads is ignored).
+     * The workers are started at the beginning of run(), and stopped at the end. As with more than one thread, each
+     * game is played with fresh copies of the players (made by the worker), and results are recorded in the order
+     * the games would have been played sequentially.
+     * The workers run recorders for the listeners (which must be created from the same arguments), and the data
+     * recorded for each game is added to the listeners here when its result is recorded, so that the listeners
+     * report on all of the games. Only a MetricsGameListener can be used in this way (see setNumberOfThreads()).
+     */
+    public void setWorkers(TournamentWorkers workers) {
+        this.workers = workers;
+    }
+
     public void setRandomSeed(Number randomSeed) {
         this.randomSeed = randomSeed.longValue();
     }
@@ -410,4 +658,30 @@ public class RoundRobinTournament extends AbstractTournament {
     public int getNumberOfAgents() {
         return agents.size();
     }
+
+    static class GameOutcome {
+        final GameResult[] results;
+        final int[] ordinalPositions;
+        final String gameParams;  // only set if game parameters were randomised
+        final List<MetricsGameListener.GameData> listenerData;  // from the recorders for the tournament's listeners, if any
+
+        GameOutcome(GameResult[] results, int[] ordinalPositions, String gameParams, List<MetricsGameListener.GameData> listenerData) {
+            this.results = results;
+            this.ordinalPositions = ordinalPositions;
+            this.gameParams = gameParams;
+            this.listenerData = listenerData;
+        }
+    }
+
+    private static class PendingGame {
+        final List<Integer> agentIDs;
+        final boolean firstGame;
+        final Future<GameOutcome> outcome;
+
+        PendingGame(List<Integer> agentIDs, boolean firstGame, Future<GameOutcome> outcome) {
+            this.agentIDs = agentIDs;
+            this.firstGame = firstGame;
+            this.outcome = outcome;
+        }
+    }
 }
@@ -61,6 +61,7 @@ public class SkillGrid {
                 tournament.setVerbose((boolean) config.get(verbose));
                 tournament.setResultsFile((String) config.get(output));
                 tournament.setRandomGameParams((boolean) config.get(randomGameParams));
+                tournament.setNumberOfThreads((int) config.get(nThreads));
                 tournament.run();
             }
         }
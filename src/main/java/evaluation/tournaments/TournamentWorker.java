@@ -0,0 +1,143 @@
+package evaluation.tournaments;
+
+import core.AbstractParameters;
+import core.AbstractPlayer;
+import core.Game;
+import evaluation.RunArg;
+import evaluation.RunGames;
+import evaluation.listeners.IGameListener;
+import evaluation.listeners.MetricsGameListener;
+import evaluation.tournaments.RoundRobinTournament.GameOutcome;
+import games.GameType;
+
+import java.io.*;
+import java.net.Socket;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static evaluation.RunArg.*;
+import static evaluation.tournaments.TournamentWorkers.*;
+import static utilities.Utils.getArg;
+
+/**
+ * A worker process for TournamentWorkers. This connects to the coordinator, and then plays the games it is sent
+ * (for as many tournaments as the coordinator runs), replying with the result of each.
+ * <p>
+ * Usage: java -cp <classpath> evaluation.tournaments.TournamentWorker host=<coordinator> port=<port>
+ * <p>
+ * For each tournament the game, agents and listeners are created from the arguments sent by the coordinator, in the
+ * same way as RunGames. Each game is played with fresh copies of the agents, and with a recorder for each listener
+ * (see MetricsGameListener.createRecorder()), whose data is sent back with the result of the game.
+ */
+public class TournamentWorker {
+
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    TournamentWorker(DataInputStream in, DataOutputStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = getArg(args, "host", "localhost");
+        int port = getArg(args, "port", 0);
+        if (port == 0)
+            throw new IllegalArgumentException("The port of the coordinator must be specified");
+        try (Socket socket = new Socket(host, port)) {
+            TournamentWorker worker = new TournamentWorker(new DataInputStream(new BufferedInputStream(socket.getInputStream())),
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+            worker.run();
+        }
+    }
+
+    void run() throws IOException {
+        while (true) {
+            byte type = in.readByte();
+            if (type == EXIT)
+                return;
+            if (type != SETUP)
+                throw new IllegalStateException("Unexpected message " + type + " from coordinator (expected " + SETUP + ")");
+            String[] args = new String[in.readInt()];
+            for (int i = 0; i < args.length; i++)
+                args[i] = in.readUTF();
+            runTournament(RunArg.parseConfig(args, Usage.RunGames, false));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTournament(Map<RunArg, Object> config) throws IOException {
+        List<AbstractPlayer> agents = RunGames.createAgents(config);
+        GameType gameType = GameType.valueOf((String) config.get(game));
+        int playerCount = (int) config.get(nPlayers);
+        AbstractParameters params = config.get(gameParams).equals("") ? null : AbstractParameters.createFromFile(gameType, (String) config.get(gameParams));
+        Game workerGame = gameType.createGameInstance(playerCount, params);
+        boolean randomParams = (boolean) config.get(randomGameParams);
+
+        // Listeners are created as in RunGames, but only their recorders are used
+        Set<String> agentNames = agents.stream().map(AbstractPlayer::toString).collect(Collectors.toSet());
+        List<MetricsGameListener> recorders = new ArrayList<>();
+        for (String listenerClass : ((List<String>) config.get(listener))) {
+            if (listenerClass.isEmpty())
+                continue;
+            IGameListener gameTracker = IGameListener.createListener(listenerClass, (String) config.get(metrics));
+            MetricsGameListener recorder = gameTracker instanceof MetricsGameListener ? ((MetricsGameListener) gameTracker).createRecorder() : null;
+            if (recorder == null)
+                throw new IllegalArgumentException("Listener " + listenerClass + " cannot be run on a worker");
+            recorder.init(workerGame, playerCount, agentNames);
+            workerGame.addListener(recorder);
+            recorders.add(recorder);
+        }
+
+        out.writeByte(READY);
+        out.writeInt(agents.size());
+        for (AbstractPlayer agent : agents)
+            out.writeUTF(agent.toString());
+        out.writeInt(recorders.size());
+        for (MetricsGameListener recorder : recorders) {
+            List<String> metricNames = recorder.getMetricNames();
+            out.writeInt(metricNames.size());
+            for (String name : metricNames)
+                out.writeUTF(name);
+        }
+        out.flush();
+
+        byte type;
+        while ((type = in.readByte()) == GAME) {
+            int gameID = in.readInt();
+            long seed = in.readLong();
+            // as with parallel threads, each game has copies of the players (with the name of the original)
+            List<AbstractPlayer> players = new ArrayList<>();
+            int nPlayersInGame = in.readInt();
+            for (int p = 0; p < nPlayersInGame; p++) {
+                AbstractPlayer player = agents.get(in.readInt());
+                AbstractPlayer copy = player.copy();
+                copy.setName(player.toString());
+                copy.setSeed(in.readLong());
+                players.add(copy);
+            }
+            // the result is written in full before any of it is sent, so that an exception cannot leave half a RESULT
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            try {
+                GameOutcome outcome = RoundRobinTournament.playGame(workerGame, players, seed, randomParams, recorders);
+                writeOutcome(new DataOutputStream(result), outcome);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                out.writeByte(ERROR);
+                out.writeInt(gameID);
+                out.writeUTF(e.toString());
+                out.flush();
+                continue;
+            }
+            out.writeByte(RESULT);
+            out.writeInt(gameID);
+            result.writeTo(out);
+            out.flush();
+        }
+        if (type != STOP)
+            throw new IllegalStateException("Unexpected message " + type + " from coordinator (expected " + STOP + ")");
+
+        out.writeByte(STOPPED);
+        out.flush();
+    }
+}
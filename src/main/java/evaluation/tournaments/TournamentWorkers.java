@@ -0,0 +1,485 @@
+package evaluation.tournaments;
+
+import core.AbstractPlayer;
+import evaluation.listeners.MetricsGameListener;
+import evaluation.tournaments.RoundRobinTournament.GameOutcome;
+import games.GameType;
+import utilities.Pair;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static core.CoreConstants.GameResult;
+
+/**
+ * Runs the games of a RoundRobinTournament in separate worker processes (see TournamentWorker), on this machine
+ * or on others.
+ * <p>
+ * This coordinator listens on a port, and either launches nWorkers local java processes (with the same classpath)
+ * that connect to it, or (if a port is specified) waits for nWorkers to be started elsewhere. It only listens on the
+ * loopback address unless another address is given, so by default workers must run on this machine. The workers stay
+ * connected until close() is called, and can be used for any number of tournaments.
+ * At the start of each tournament every worker is sent the arguments (in the same key=value format as RunGames)
+ * from which it creates the game, agents and listeners; it then plays one game at a time, as sent by the
+ * coordinator, and replies with the results. Games are given to whichever worker is free.
+ * The listeners must all be MetricsGameListeners: the workers run a recorder for each one (see
+ * MetricsGameListener.createRecorder()), and send back the data recorded for each game, which the tournament adds to
+ * its own listeners (in the same order as a sequential run), so that these produce the reports.
+ * <p>
+ * The protocol is a simple one over a socket, with each message written by a DataOutputStream:
+ * - SETUP: the number of arguments, and then each argument
+ * - READY (reply): the number of agents, and then the name of each one (which must match the coordinator's); then
+ * the number of listeners, and for each one the number of metrics and the name of each one (which must also match)
+ * - GAME: game id, seed, the number of players, and then the index of the agent and the seed for each player
+ * - RESULT (reply): game id, the GameResult and ordinal position of each player, the game parameters (if randomised),
+ * and then for each metric of each listener the number of values it recorded, and each column name and value
+ * - ERROR (reply): game id, and a description of the exception thrown by the game
+ * - STOP: the end of the tournament, to which the worker replies STOPPED
+ * - EXIT: the worker closes the connection and exits
+ */
+public class TournamentWorkers implements AutoCloseable {
+
+    static final byte SETUP = 1, READY = 2, GAME = 3, RESULT = 4, ERROR = 5, STOP = 6, STOPPED = 7, EXIT = 8;
+
+    private final int nWorkers;
+    private final int port;
+    private final InetAddress bindAddress;
+    private String[] workerArgs = new String[0];
+
+    private ServerSocket serverSocket;
+    private final List<Process> processes = new ArrayList<>();
+    private final List<Connection> connections = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();  // one per connection, for the current tournament
+    private final BlockingQueue<Job> jobs = new LinkedBlockingQueue<>();
+    private int liveWorkers;  // guarded by this
+    private int nextGameID;
+    private int nListeners;  // in the current tournament
+
+    private static class Connection {
+        final int workerID;
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+        volatile boolean alive = true;
+
+        Connection(int workerID, Socket socket) throws IOException {
+            this.workerID = workerID;
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+    }
+
+    private static class Job {
+        final int gameID;
+        final long seed;
+        final List<Integer> agentIDs;
+        final long[] playerSeeds;
+        final CompletableFuture<GameOutcome> outcome = new CompletableFuture<>();
+
+        Job(int gameID, long seed, List<Integer> agentIDs, long[] playerSeeds) {
+            this.gameID = gameID;
+            this.seed = seed;
+            this.agentIDs = agentIDs;
+            this.playerSeeds = playerSeeds;
+        }
+    }
+
+    private static final Job STOP_JOB = new Job(-1, 0, Collections.emptyList(), new long[0]);
+
+    /**
+     * @param nWorkers - the number of worker processes
+     * @param port     - the port on which to wait for workers to connect. If this is 0, then nWorkers processes are
+     *                 launched on this machine instead.
+     */
+    public TournamentWorkers(int nWorkers, int port) {
+        this(nWorkers, port, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * @param bindAddress - the address on which to wait for workers to connect to port (for example the wildcard
+     *                    address 0.0.0.0 to accept workers on other machines). Local workers always use loopback.
+     */
+    public TournamentWorkers(int nWorkers, int port, InetAddress bindAddress) {
+        if (nWorkers < 1)
+            throw new IllegalArgumentException("Number of workers must be at least 1 : " + nWorkers);
+        this.nWorkers = nWorkers;
+        this.port = port;
+        this.bindAddress = bindAddress;
+    }
+
+    /**
+     * Sets the arguments sent to each worker at the start of a tournament, in the format used by RunGames.
+     * These specify the agents (playerDirectory and focusPlayer), and optionally gameParams, randomGameParams and
+     * the listeners (listener and metrics), which must be the same as those of the tournament. The game and nPlayers
+     * are taken from the tournament. Any files must be available to the workers at the same (relative) location.
+     */
+    public void setWorkerArgs(String... workerArgs) {
+        this.workerArgs = workerArgs.clone();
+    }
+
+    public int getNumberOfWorkers() {
+        return nWorkers;
+    }
+
+    /**
+     * Connects to the workers (if not already connected), and sets them up for a tournament.
+     *
+     * @param agents    - the agents of the tournament, which the workers must also have (in the same order)
+     * @param recorders - recorders for the listeners of the tournament, which the workers must also have (with the
+     *                  same metrics)
+     */
+    void start(GameType gameType, int nPlayers, List<? extends AbstractPlayer> agents, List<MetricsGameListener> recorders) {
+        List<String> args = Arrays.stream(workerArgs)
+                .filter(arg -> !arg.startsWith("game=") && !arg.startsWith("nPlayers="))
+                .collect(Collectors.toList());
+        args.add("game=" + gameType.name());
+        args.add("nPlayers=" + nPlayers);
+        List<String> agentNames = agents.stream().map(AbstractPlayer::toString).collect(Collectors.toList());
+        List<List<String>> listenerMetrics = recorders.stream().map(MetricsGameListener::getMetricNames).collect(Collectors.toList());
+        nListeners = recorders.size();
+        try {
+            if (serverSocket == null)
+                connect();
+            for (Connection connection : connections) {
+                if (!connection.alive)
+                    continue;
+                connection.out.writeByte(SETUP);
+                connection.out.writeInt(args.size());
+                for (String arg : args)
+                    connection.out.writeUTF(arg);
+                connection.out.flush();
+                expect(connection, READY);
+                List<String> workerAgents = new ArrayList<>();
+                int nAgents = connection.in.readInt();
+                for (int i = 0; i < nAgents; i++)
+                    workerAgents.add(connection.in.readUTF());
+                if (!workerAgents.equals(agentNames))
+                    throw new IllegalStateException("Worker " + connection.workerID + " has agents " + workerAgents + " rather than " + agentNames);
+                List<List<String>> workerMetrics = new ArrayList<>();
+                int nWorkerListeners = connection.in.readInt();
+                for (int i = 0; i < nWorkerListeners; i++) {
+                    List<String> names = new ArrayList<>();
+                    int nMetrics = connection.in.readInt();
+                    for (int m = 0; m < nMetrics; m++)
+                        names.add(connection.in.readUTF());
+                    workerMetrics.add(names);
+                }
+                if (!workerMetrics.equals(listenerMetrics))
+                    throw new IllegalStateException("Worker " + connection.workerID + " has listeners with metrics " + workerMetrics + " rather than " + listenerMetrics);
+            }
+        } catch (IOException | RuntimeException e) {
+            kill();
+            throw new RuntimeException("Could not start tournament workers", e);
+        }
+        synchronized (this) {
+            liveWorkers = 0;
+            for (Connection connection : connections) {
+                if (!connection.alive)
+                    continue;
+                liveWorkers++;
+                Thread thread = new Thread(() -> serve(connection), "TournamentWorker-" + connection.workerID);
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+        }
+        if (liveWorkers == 0)
+            throw new IllegalStateException("No tournament workers are running");
+    }
+
+    private void connect() throws IOException {
+        if (port == 0) {
+            serverSocket = new ServerSocket(0, nWorkers, InetAddress.getLoopbackAddress());
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            for (int w = 0; w < nWorkers; w++) {
+                ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        TournamentWorker.class.getName(),
+                        "host=" + InetAddress.getLoopbackAddress().getHostAddress(),
+                        "port=" + serverSocket.getLocalPort());
+                builder.inheritIO();
+                processes.add(builder.start());
+            }
+        } else {
+            serverSocket = new ServerSocket(port, nWorkers, bindAddress);
+            System.out.printf("Waiting for %d tournament workers on %s port %d%n", nWorkers, bindAddress.getHostAddress(), port);
+        }
+        serverSocket.setSoTimeout(1000);
+        for (int w = 0; w < nWorkers; w++)
+            connections.add(new Connection(w, accept()));
+    }
+
+    private Socket accept() throws IOException {
+        while (true) {
+            try {
+                return serverSocket.accept();
+            } catch (SocketTimeoutException e) {
+                // local workers should connect straight away, so we give up if any of them have failed
+                for (Process process : processes) {
+                    if (!process.isAlive())
+                        throw new IllegalStateException("Worker process exited with code " + process.exitValue() + " before connecting");
+                }
+            }
+        }
+    }
+
+    private static void expect(Connection connection, byte type) throws IOException {
+        byte received = connection.in.readByte();
+        if (received != type)
+            throw new IllegalStateException("Unexpected message " + received + " from worker " + connection.workerID + " (expected " + type + ")");
+    }
+
+    /**
+     * Sends a game to the next free worker.
+     *
+     * @param playerSeeds - the seed for the copy of the agent in each position (see AbstractPlayer.setSeed())
+     * @return the outcome of the game, once it has been played
+     */
+    synchronized CompletableFuture<GameOutcome> submit(List<Integer> agentIDs, long[] playerSeeds, long seed) {
+        if (liveWorkers == 0)
+            throw new IllegalStateException("No tournament workers are running");
+        Job job = new Job(nextGameID++, seed, new ArrayList<>(agentIDs), playerSeeds.clone());
+        jobs.add(job);
+        return job.outcome;
+    }
+
+    /**
+     * Runs on a thread for each worker, sending it games until the end of the tournament
+     */
+    private void serve(Connection connection) {
+        Job job = null;
+        try {
+            while (true) {
+                job = jobs.take();
+                if (job == STOP_JOB) {
+                    connection.out.writeByte(STOP);
+                    connection.out.flush();
+                    expect(connection, STOPPED);
+                    return;
+                }
+                connection.out.writeByte(GAME);
+                connection.out.writeInt(job.gameID);
+                connection.out.writeLong(job.seed);
+                connection.out.writeInt(job.agentIDs.size());
+                for (int p = 0; p < job.agentIDs.size(); p++) {
+                    connection.out.writeInt(job.agentIDs.get(p));
+                    connection.out.writeLong(job.playerSeeds[p]);
+                }
+                connection.out.flush();
+
+                byte type = connection.in.readByte();
+                int gameID = connection.in.readInt();
+                if (gameID != job.gameID)
+                    throw new IllegalStateException("Result for game " + gameID + " from worker " + connection.workerID + " (expected " + job.gameID + ")");
+                if (type == RESULT)
+                    job.outcome.complete(readOutcome(connection.in, job.agentIDs.size(), nListeners));
+                else if (type == ERROR)
+                    job.outcome.completeExceptionally(new RuntimeException("Worker " + connection.workerID + " : " + connection.in.readUTF()));
+                else
+                    throw new IllegalStateException("Unexpected message " + type + " from worker " + connection.workerID);
+                job = null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            if (job != null && job != STOP_JOB)
+                job.outcome.completeExceptionally(e);
+            workerFailed(connection, e);
+        }
+    }
+
+    /**
+     * Stops using a worker after an error. If it was the last one, then all outstanding games fail.
+     */
+    private synchronized void workerFailed(Connection connection, Exception e) {
+        System.out.println("Tournament worker " + connection.workerID + " failed : " + e);
+        connection.alive = false;
+        closeQuietly(connection.socket);
+        liveWorkers--;
+        if (liveWorkers == 0) {
+            List<Job> outstanding = new ArrayList<>();
+            jobs.drainTo(outstanding);
+            for (Job job : outstanding)
+                job.outcome.completeExceptionally(new IllegalStateException("No tournament workers are running", e));
+        }
+    }
+
+    /**
+     * Ends the current tournament, once each worker has finished its current game.
+     * Any games that have not yet been sent to a worker are cancelled.
+     */
+    void stop() {
+        List<Job> unsent = new ArrayList<>();
+        jobs.drainTo(unsent);
+        for (Job job : unsent)
+            job.outcome.cancel(false);
+        for (int i = 0; i < threads.size(); i++)
+            jobs.add(STOP_JOB);
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        threads.clear();
+        jobs.clear();
+    }
+
+    /**
+     * Tells the workers to exit, and waits for any local worker processes to do so
+     */
+    @Override
+    public void close() {
+        stop();
+        for (Connection connection : connections) {
+            if (connection.alive) {
+                try {
+                    connection.out.writeByte(EXIT);
+                    connection.out.flush();
+                } catch (IOException e) {
+                    // the worker will exit anyway when the connection is closed
+                }
+            }
+            closeQuietly(connection.socket);
+        }
+        connections.clear();
+        closeQuietly(serverSocket);
+        serverSocket = null;
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(10, TimeUnit.SECONDS))
+                    process.destroyForcibly();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+        processes.clear();
+    }
+
+    private void kill() {
+        for (Connection connection : connections)
+            closeQuietly(connection.socket);
+        connections.clear();
+        closeQuietly(serverSocket);
+        serverSocket = null;
+        for (Process process : processes)
+            process.destroyForcibly();
+        processes.clear();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null)
+            return;
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // nothing more we can do
+        }
+    }
+
+    static void writeOutcome(DataOutputStream out, GameOutcome outcome) throws IOException {
+        for (int j = 0; j < outcome.results.length; j++) {
+            out.writeUTF(outcome.results[j].name());
+            out.writeInt(outcome.ordinalPositions[j]);
+        }
+        out.writeBoolean(outcome.gameParams != null);
+        if (outcome.gameParams != null)
+            out.writeUTF(outcome.gameParams);
+        for (MetricsGameListener.GameData data : outcome.listenerData) {
+            out.writeInt(data.metricData.size());
+            for (List<Pair<String, Object>> metricData : data.metricData) {
+                out.writeInt(metricData.size());
+                for (Pair<String, Object> entry : metricData) {
+                    out.writeUTF(entry.a);
+                    writeValue(out, entry.b);
+                }
+            }
+        }
+    }
+
+    static GameOutcome readOutcome(DataInputStream in, int nPlayers, int nListeners) throws IOException {
+        GameResult[] results = new GameResult[nPlayers];
+        int[] ordinalPositions = new int[nPlayers];
+        for (int j = 0; j < nPlayers; j++) {
+            results[j] = GameResult.valueOf(in.readUTF());
+            ordinalPositions[j] = in.readInt();
+        }
+        String gameParams = in.readBoolean() ? in.readUTF() : null;
+        List<MetricsGameListener.GameData> listenerData = new ArrayList<>(nListeners);
+        for (int i = 0; i < nListeners; i++) {
+            int nMetrics = in.readInt();
+            List<List<Pair<String, Object>>> metricData = new ArrayList<>(nMetrics);
+            for (int m = 0; m < nMetrics; m++) {
+                int nValues = in.readInt();
+                List<Pair<String, Object>> values = new ArrayList<>(nValues);
+                for (int v = 0; v < nValues; v++)
+                    values.add(new Pair<>(in.readUTF(), readValue(in)));
+                metricData.add(values);
+            }
+            listenerData.add(new MetricsGameListener.GameData(metricData));
+        }
+        return new GameOutcome(results, ordinalPositions, gameParams, listenerData);
+    }
+
+    // The types of value recorded by metrics that are sent as they are; anything else is sent as a String
+    private static final byte NULL = 0, STRING = 1, INTEGER = 2, DOUBLE = 3, BOOLEAN = 4, LONG = 5;
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else {
+            // not writeUTF(), which is limited to 64k bytes
+            byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+            out.writeByte(STRING);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case INTEGER:
+                return in.readInt();
+            case DOUBLE:
+                return in.readDouble();
+            case BOOLEAN:
+                return in.readBoolean();
+            case LONG:
+                return in.readLong();
+            case STRING:
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            default:
+                throw new IllegalStateException("Unknown type of value " + type);
+        }
+    }
+}
@@ -222,7 +222,6 @@ public class BattleloreGameState extends AbstractGameState {
     public boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof BattleloreGameState)) return false;
-        if (!super.equals(o)) return false;
         BattleloreGameState that = (BattleloreGameState) o;
         return Arrays.equals(playerScores, that.playerScores) && Objects.equals(gameBoard, that.gameBoard) && Objects.equals(unitTypes, that.unitTypes);
     }
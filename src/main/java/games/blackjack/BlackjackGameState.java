@@ -159,7 +159,6 @@ public class BlackjackGameState extends AbstractGameState implements IPrintable
     public boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof BlackjackGameState)) return false;
-        if (!super.equals(o)) return false;
         BlackjackGameState that = (BlackjackGameState) o;
         return dealerPlayer == that.dealerPlayer && Objects.equals(playerDecks, that.playerDecks) && Objects.equals(drawDeck, that.drawDeck);
     }
@@ -41,7 +41,6 @@ public class Connect4GameParameters extends TunableParameters {
     public boolean _equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
         Connect4GameParameters that = (Connect4GameParameters) o;
         return gridSize == that.gridSize && winCount == that.winCount;
     }
@@ -75,7 +75,6 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
     protected boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Connect4GameState)) return false;
-        if (!super.equals(o)) return false;
         Connect4GameState that = (Connect4GameState) o;
         return Objects.equals(gridBoard, that.gridBoard);
     }
@@ -104,6 +103,11 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
         return Objects.hash(super.hashCode(), gridBoard);
     }
 
+    @Override
+    protected long _getZobristHash() {
+        return gridBoard.getZobristHash();
+    }
+
     @Override
     public GridBoard<Token> getGridBoard() {
         return gridBoard;
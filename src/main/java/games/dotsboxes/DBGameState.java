@@ -9,6 +9,7 @@ import core.turnorders.AlternatingTurnOrder;
 import core.turnorders.StandardTurnOrder;
 import core.turnorders.TurnOrder;
 import games.GameType;
+import utilities.Zobrist;
 
 import java.util.*;
 
@@ -30,6 +31,8 @@ public class DBGameState extends AbstractGameState {
     HashMap<DBCell, Integer> cellToOwnerMap;  // Mapping from each cell to its owner, if complete
     HashMap<DBEdge, Integer> edgeToOwnerMap;  // Mapping from each edge to its owner, if placed
     boolean lastActionScored;
+    // Zobrist hash of cellToOwnerMap and edgeToOwnerMap, updated by setCellOwner() and setEdgeOwner()
+    long zobristHash;
 
     /**
      * Constructor. Initialises some generic game state variables.
@@ -59,6 +62,7 @@ public class DBGameState extends AbstractGameState {
         dbgs.edgeToCellMap = edgeToCellMap;
         dbgs.cellToEdgesMap = cellToEdgesMap;
         dbgs.lastActionScored = lastActionScored;
+        dbgs.zobristHash = zobristHash;
 
         dbgs.nCellsPerPlayer = nCellsPerPlayer.clone();
         dbgs.cellToOwnerMap = (HashMap<DBCell, Integer>) cellToOwnerMap.clone();
@@ -92,7 +96,6 @@ public class DBGameState extends AbstractGameState {
     public boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof DBGameState)) return false;
-        if (!super.equals(o)) return false;
         DBGameState that = (DBGameState) o;
         return lastActionScored == that.lastActionScored && Objects.equals(heuristic, that.heuristic) && Objects.equals(edges, that.edges) && Objects.equals(cells, that.cells) && Objects.equals(edgeToCellMap, that.edgeToCellMap) && Objects.equals(cellToEdgesMap, that.cellToEdgesMap) && Arrays.equals(nCellsPerPlayer, that.nCellsPerPlayer) && Objects.equals(cellToOwnerMap, that.cellToOwnerMap) && Objects.equals(edgeToOwnerMap, that.edgeToOwnerMap);
     }
@@ -104,6 +107,30 @@ public class DBGameState extends AbstractGameState {
         return result;
     }
 
+    /**
+     * The only parts of the state that change are the owners of edges and cells (nCellsPerPlayer follows from
+     * cellToOwnerMap), and lastActionScored
+     */
+    @Override
+    protected long _getZobristHash() {
+        return Zobrist.combine(zobristHash, lastActionScored ? 1 : 0);
+    }
+
+    void setEdgeOwner(DBEdge edge, int player) {
+        Integer previous = edgeToOwnerMap.put(edge, player);
+        if (previous != null)
+            zobristHash ^= Zobrist.key(edge.hashCode(), previous);
+        zobristHash ^= Zobrist.key(edge.hashCode(), player);
+    }
+
+    void setCellOwner(DBCell cell, int player) {
+        // cells use negative values, to keep them distinct from edges
+        Integer previous = cellToOwnerMap.put(cell, player);
+        if (previous != null)
+            zobristHash ^= Zobrist.key(cell.hashCode(), -1 - previous);
+        zobristHash ^= Zobrist.key(cell.hashCode(), -1 - player);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
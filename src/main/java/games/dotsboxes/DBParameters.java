@@ -37,7 +37,6 @@ public class DBParameters extends TunableParameters {
     protected boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof DBParameters)) return false;
-        if (!super.equals(o)) return false;
         DBParameters that = (DBParameters) o;
         return gridWidth == that.gridWidth &&
                 gridHeight == that.gridHeight;
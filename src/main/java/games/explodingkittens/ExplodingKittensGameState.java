@@ -159,7 +159,6 @@ public class ExplodingKittensGameState extends AbstractGameStateWithTurnOrder im
     protected boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof ExplodingKittensGameState)) return false;
-        if (!super.equals(o)) return false;
         ExplodingKittensGameState gameState = (ExplodingKittensGameState) o;
         return playerGettingAFavor == gameState.playerGettingAFavor &&
                 Objects.equals(playerHandCards, gameState.playerHandCards) &&
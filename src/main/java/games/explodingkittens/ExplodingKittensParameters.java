@@ -74,7 +74,6 @@ public class ExplodingKittensParameters extends TunableParameters {
     protected boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof ExplodingKittensParameters)) return false;
-        if (!super.equals(o)) return false;
         ExplodingKittensParameters that = (ExplodingKittensParameters) o;
         return nCardsPerPlayer == that.nCardsPerPlayer &&
                 nDefuseCards == that.nDefuseCards &&
@@ -10,6 +10,7 @@ import core.interfaces.IPrintable;
 import evaluation.metrics.Event;
 import games.GameType;
 import games.loveletter.cards.LoveLetterCard;
+import utilities.Zobrist;
 
 import java.util.*;
 
@@ -124,7 +125,6 @@ public class LoveLetterGameState extends AbstractGameState implements IPrintable
     protected boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof LoveLetterGameState)) return false;
-        if (!super.equals(o)) return false;
         LoveLetterGameState that = (LoveLetterGameState) o;
         return Objects.equals(playerHandCards, that.playerHandCards) &&
                 Objects.equals(playerDiscardCards, that.playerDiscardCards) &&
@@ -143,6 +143,18 @@ public class LoveLetterGameState extends AbstractGameState implements IPrintable
         return result;
     }
 
+    @Override
+    protected long _getZobristHash() {
+        long retValue = Zobrist.combine(drawPile.getZobristHash(), reserveCards.getZobristHash());
+        for (int i = 0; i < playerHandCards.size(); i++) {
+            retValue = Zobrist.combine(retValue, playerHandCards.get(i).getZobristHash());
+            retValue = Zobrist.combine(retValue, playerDiscardCards.get(i).getZobristHash());
+        }
+        retValue = Zobrist.combine(retValue, Objects.hashCode(removedCard));
+        retValue = Zobrist.combine(retValue, Arrays.hashCode(effectProtection));
+        return Zobrist.combine(retValue, Arrays.hashCode(affectionTokens));
+    }
+
     /**
      * Updates components after round setup.
      */
@@ -81,7 +81,6 @@ public class LoveLetterParameters extends TunableParameters {
     public boolean _equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
         LoveLetterParameters that = (LoveLetterParameters) o;
         return nCardsPerPlayer == that.nCardsPerPlayer && nCardsVisibleReserve == that.nCardsVisibleReserve && nTokensWin2 == that.nTokensWin2 && nTokensWin3 == that.nTokensWin3 && nTokensWin4 == that.nTokensWin4 && Objects.equals(dataPath, that.dataPath) && Objects.equals(cardCounts, that.cardCounts);
     }
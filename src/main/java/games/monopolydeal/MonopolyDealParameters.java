@@ -135,7 +135,6 @@ public class MonopolyDealParameters extends TunableParameters {
     public boolean _equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
         MonopolyDealParameters that = (MonopolyDealParameters) o;
         return HAND_SIZE == that.HAND_SIZE && DRAWS_WHEN_EMPTY == that.DRAWS_WHEN_EMPTY && INITIAL_DEAL == that.INITIAL_DEAL && BOARD_MODIFICATIONS_PER_TURN == that.BOARD_MODIFICATIONS_PER_TURN && ACTIONS_PER_TURN == that.ACTIONS_PER_TURN && DRAWS_PER_TURN == that.DRAWS_PER_TURN && SETS_TO_WIN == that.SETS_TO_WIN && Objects.equals(cardsIncludedInGame, that.cardsIncludedInGame);
     }
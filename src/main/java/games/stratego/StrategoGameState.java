@@ -96,6 +96,11 @@ public class StrategoGameState extends AbstractGameState{
         return gridBoard.hashCode();
     }
 
+    @Override
+    protected long _getZobristHash() {
+        return gridBoard.getZobristHash();
+    }
+
     public GridBoard<Piece> getGridBoard() {
         return gridBoard;
     }
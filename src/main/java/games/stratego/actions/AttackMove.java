@@ -51,6 +51,9 @@ public class AttackMove extends Move {
         int attackedPieceRank = attackedPiece.getPieceRank();
         movedPiece.setPieceKnown(true);
         attackedPiece.setPieceKnown(true);
+        // both pieces have changed in place, so set them again for the board's hash to see this
+        board.setElement(movedPiece.getPiecePosition(), movedPiece);
+        board.setElement(attackedPiece.getPiecePosition(), attackedPiece);
 
         if (attackedPiece.getPieceType() == Piece.PieceType.FLAG){
             gs.logEvent(StrategoMetrics.StrategoEvent.EndCondition, StrategoForwardModel.EndCondition.FLAG_CAPTURE.name() + ":" + gs.getCurrentPlayer());
@@ -68,9 +71,9 @@ public class AttackMove extends Move {
                 // Bomb is lost and miner moves into bomb's location
                 movedTileEmptied = board.setElement(movedPiece.getPiecePosition().getX(),
                         movedPiece.getPiecePosition().getY(), null);
+                movedPiece.setPiecePosition(attackedPiece.getPiecePosition());
                 destinationTileSet = board.setElement(attackedPiece.getPiecePosition().getX(),
                         attackedPiece.getPiecePosition().getY(), movedPiece);
-                movedPiece.setPiecePosition(attackedPiece.getPiecePosition());
             } else {
                 gs.logEvent(StrategoMetrics.StrategoEvent.BattleOutcome,
                         movedPiece.getOwnerId() + " vs " + attackedPiece.getOwnerId() +
@@ -91,9 +94,9 @@ public class AttackMove extends Move {
             // Spy removes Marshal, but only if spy is the one attacking
             movedTileEmptied = board.setElement(movedPiece.getPiecePosition().getX(),
                     movedPiece.getPiecePosition().getY(), null);
+            movedPiece.setPiecePosition(attackedPiece.getPiecePosition());
             destinationTileSet = board.setElement(attackedPiece.getPiecePosition().getX(),
                     attackedPiece.getPiecePosition().getY(), movedPiece);
-            movedPiece.setPiecePosition(attackedPiece.getPiecePosition());
 
         } else if (movedPieceRank > attackedPieceRank){
 
@@ -105,9 +108,9 @@ public class AttackMove extends Move {
             // Higher rank wins
             movedTileEmptied = board.setElement(movedPiece.getPiecePosition().getX(),
                     movedPiece.getPiecePosition().getY(), null);
+            movedPiece.setPiecePosition(attackedPiece.getPiecePosition());
             destinationTileSet = board.setElement(attackedPiece.getPiecePosition().getX(),
                     attackedPiece.getPiecePosition().getY(), movedPiece);
-            movedPiece.setPiecePosition(attackedPiece.getPiecePosition());
 
         } else if (movedPieceRank == attackedPieceRank){
 
@@ -48,8 +48,6 @@ public class NormalMove extends Move{
             destinationCoordinate = position.add(displacement);
         }
 
-        board.setElement(destinationCoordinate.getX(), destinationCoordinate.getY(), movedPiece);
-
         if (movedPiece.getPieceType() == Piece.PieceType.SCOUT &&
                 Distance.manhattan_distance(destinationCoordinate, movedPiece.getPiecePosition()) >
                         ((StrategoParams)gs.getGameParameters()).moveSpeed) {
@@ -57,6 +55,8 @@ public class NormalMove extends Move{
             movedPiece.setPieceKnown(true);
         }
         movedPiece.setPiecePosition(destinationCoordinate);
+        // the piece is placed after it has been changed, so that the board's hash sees the changes
+        board.setElement(destinationCoordinate.getX(), destinationCoordinate.getY(), movedPiece);
 
         return true;
     }
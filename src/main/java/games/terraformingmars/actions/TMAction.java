@@ -138,7 +138,7 @@ public class TMAction extends AbstractAction {
     @Override
     public final boolean execute(AbstractGameState gameState) {
         TMGameState gs = (TMGameState) gameState;
-        gs.getAllComponents();  // Force recalculate components
+        gs.invalidateComponentIndex();  // Force recalculate components on next use
         if (player == -1) player = gameState.getCurrentPlayer();
         if (!canBePlayed(gs)) {
             throw new AssertionError("Card cannot be played " + this);
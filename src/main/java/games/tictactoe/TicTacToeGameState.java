@@ -73,6 +73,11 @@ public class TicTacToeGameState extends AbstractGameState implements IPrintable,
     public int hashCode() {
         return Objects.hash(super.hashCode(), gridBoard);
     }
+
+    @Override
+    protected long _getZobristHash() {
+        return gridBoard.getZobristHash();
+    }
     @Override
     public String toString() {
         return Objects.hash(gameParameters) + "|" +
@@ -8,6 +8,7 @@ import core.AbstractGameState;
 import core.interfaces.IPrintable;
 import games.GameType;
 import games.uno.cards.*;
+import utilities.Zobrist;
 
 import java.util.*;
 
@@ -260,7 +261,6 @@ public class UnoGameState extends AbstractGameState implements IPrintable {
     public boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof UnoGameState)) return false;
-        if (!super.equals(o)) return false;
         UnoGameState that = (UnoGameState) o;
         return skipTurn == that.skipTurn && direction == that.direction && Objects.equals(playerDecks, that.playerDecks) && Objects.equals(drawDeck, that.drawDeck) && Objects.equals(discardDeck, that.discardDeck) && Objects.equals(currentCard, that.currentCard) && Objects.equals(currentColor, that.currentColor) && Arrays.equals(playerScore, that.playerScore) && Arrays.equals(expulsionRound, that.expulsionRound);
     }
@@ -273,6 +273,18 @@ public class UnoGameState extends AbstractGameState implements IPrintable {
         return result;
     }
 
+    @Override
+    protected long _getZobristHash() {
+        long retValue = Zobrist.combine(drawDeck.getZobristHash(), discardDeck.getZobristHash());
+        for (Deck<UnoCard> deck : playerDecks)
+            retValue = Zobrist.combine(retValue, deck.getZobristHash());
+        retValue = Zobrist.combine(retValue, Objects.hashCode(currentCard));
+        retValue = Zobrist.combine(retValue, Objects.hashCode(currentColor));
+        retValue = Zobrist.combine(retValue, Zobrist.key(direction, skipTurn ? 1 : 0));
+        retValue = Zobrist.combine(retValue, Arrays.hashCode(playerScore));
+        return Zobrist.combine(retValue, Arrays.hashCode(expulsionRound));
+    }
+
     @Override
     public void printToConsole() {
 
@@ -1,6 +1,7 @@
 package players.learners;
 
 import core.interfaces.ILearner;
+import evaluation.loggers.BinaryStatsReader;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
@@ -60,6 +61,14 @@ public abstract class AbstractLearner implements ILearner {
     protected void loadData(String... files) {
         List<double[]> data = new ArrayList<>();
         for (String file : files) {
+            if (BinaryStatsReader.isBinaryStatsFile(file)) {
+                BinaryStatsReader reader = new BinaryStatsReader(file);
+                header = reader.getNames();
+                descriptions = new String[header.length - 11];
+                System.arraycopy(header, 5, descriptions, 0, descriptions.length);
+                data.addAll(Arrays.asList(reader.getRows()));
+                continue;
+            }
             try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
                 header = reader.readLine().split("\\t");
                 descriptions = new String[header.length - 11];
@@ -159,7 +159,7 @@ class BasicTreeNode {
 
         // copy the current state and advance it using the chosen action
         // we first copy the action so that the one stored in the node will not have any state changes
-        AbstractGameState nextState = state.copy();
+        AbstractGameState nextState = state.copyForSearch();
         advance(nextState, chosen.copy());
 
         // then instantiate a new node
@@ -232,7 +232,7 @@ class BasicTreeNode {
         int rolloutDepth = 0; // counting from end of tree
 
         // If rollouts are enabled, select actions for the rollout in line with the rollout policy
-        AbstractGameState rolloutState = state.copy();
+        AbstractGameState rolloutState = state.copyForSearch();
         if (player.params.rolloutLength > 0) {
             while (!finishRollout(rolloutState, rolloutDepth)) {
                 AbstractAction next = randomPlayer.getAction(rolloutState, randomPlayer.getForwardModel().computeAvailableActions(rolloutState, randomPlayer.parameters.actionSpace));
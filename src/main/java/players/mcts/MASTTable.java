@@ -0,0 +1,171 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+import core.interfaces.IActionKey;
+
+import java.util.Arrays;
+
+/**
+ * MAST statistics (the number of visits and total value of each action, for each player).
+ * <p>
+ * These are held in an open-addressing hash table with primitive columns, so that updating or reading a value
+ * does not allocate anything, and decay is applied in place.
+ * <p>
+ * If an IActionKey is provided then actions are keyed on its key() String, and any actions with the same key share
+ * their statistics. (This builds the key String on each update or read.) Otherwise actions are keyed on the action
+ * itself (a copy of which is stored the first time it is seen), using hashCode() and equals().
+ */
+public class MASTTable {
+
+    private static final int EMPTY = -1;
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final IActionKey actionKey;
+    private int[] players;  // EMPTY for unused slots
+    private int[] hashes;
+    private Object[] keys;  // the key String, or a copy of the action if there is no actionKey
+    private int[] visits;
+    private double[] totValues;
+    private int size;
+
+    public MASTTable(IActionKey actionKey) {
+        this(actionKey, DEFAULT_CAPACITY);
+    }
+
+    private MASTTable(IActionKey actionKey, int capacity) {
+        this.actionKey = actionKey;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        players = new int[capacity];
+        Arrays.fill(players, EMPTY);
+        hashes = new int[capacity];
+        keys = new Object[capacity];
+        visits = new int[capacity];
+        totValues = new double[capacity];
+        size = 0;
+    }
+
+    /**
+     * Adds one visit with the specified value to the statistics of the action for the player
+     */
+    public void update(int player, AbstractAction action, double value) {
+        Object key = key(action);
+        int hash = key.hashCode();
+        int slot = find(player, hash, key);
+        if (slot < 0) {
+            if ((size + 1) * 2 > players.length) {
+                resize(players.length * 2);
+                slot = find(player, hash, key);
+            }
+            slot = -slot - 1;
+            players[slot] = player;
+            hashes[slot] = hash;
+            keys[slot] = actionKey == null ? action.copy() : key;
+            size++;
+        }
+        visits[slot]++;
+        totValues[slot] += value;
+    }
+
+    public int getVisits(int player, AbstractAction action) {
+        int slot = find(player, action);
+        return slot < 0 ? 0 : visits[slot];
+    }
+
+    public double getTotValue(int player, AbstractAction action) {
+        int slot = find(player, action);
+        return slot < 0 ? 0.0 : totValues[slot];
+    }
+
+    /**
+     * @return the mean value of the action for the player, or defaultValue if it has no visits
+     */
+    public double getMeanValue(int player, AbstractAction action, double defaultValue) {
+        int slot = find(player, action);
+        if (slot < 0 || visits[slot] == 0)
+            return defaultValue;
+        return totValues[slot] / visits[slot];
+    }
+
+    /**
+     * Decays all statistics by gamma, as Utils.decay() does: the visit count is multiplied by gamma (and rounded
+     * down), and the total value is scaled so that the mean value is unchanged.
+     * A gamma outside [0, 1) leaves the statistics unchanged.
+     */
+    public void decay(double gamma) {
+        if (gamma < 0.0 || gamma >= 1.0)
+            return;
+        for (int i = 0; i < players.length; i++) {
+            if (players[i] == EMPTY || visits[i] == 0)
+                continue;
+            double oldCount = visits[i];
+            visits[i] = (int) (oldCount * gamma);
+            totValues[i] = totValues[i] * visits[i] / oldCount;
+        }
+    }
+
+    /**
+     * @return the number of distinct (player, action) entries in the table
+     */
+    public int size() {
+        return size;
+    }
+
+    public MASTTable copy() {
+        MASTTable retValue = new MASTTable(actionKey, players.length);
+        System.arraycopy(players, 0, retValue.players, 0, players.length);
+        System.arraycopy(hashes, 0, retValue.hashes, 0, hashes.length);
+        // the stored keys are Strings or copies of actions, and never changed, so can be shared
+        System.arraycopy(keys, 0, retValue.keys, 0, keys.length);
+        System.arraycopy(visits, 0, retValue.visits, 0, visits.length);
+        System.arraycopy(totValues, 0, retValue.totValues, 0, totValues.length);
+        retValue.size = size;
+        return retValue;
+    }
+
+    private Object key(AbstractAction action) {
+        return actionKey == null ? action : actionKey.key(action);
+    }
+
+    private int find(int player, AbstractAction action) {
+        Object key = key(action);
+        return find(player, key.hashCode(), key);
+    }
+
+    /**
+     * Linear probing from the home slot of (player, hash).
+     *
+     * @return the slot holding the key if it is present, or (-slot - 1) for the empty slot where it would go
+     */
+    private int find(int player, int hash, Object key) {
+        int mask = players.length - 1;
+        int h = (hash * 31 + player) * 0x9E3779B9;
+        int slot = (h ^ (h >>> 16)) & mask;
+        while (players[slot] != EMPTY) {
+            if (players[slot] == player && hashes[slot] == hash && keys[slot].equals(key))
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    private void resize(int capacity) {
+        int[] oldPlayers = players, oldHashes = hashes, oldVisits = visits;
+        Object[] oldKeys = keys;
+        double[] oldValues = totValues;
+        allocate(capacity);
+        for (int i = 0; i < oldPlayers.length; i++) {
+            if (oldPlayers[i] == EMPTY)
+                continue;
+            int slot = -find(oldPlayers[i], oldHashes[i], oldKeys[i]) - 1;
+            players[slot] = oldPlayers[i];
+            hashes[slot] = oldHashes[i];
+            keys[slot] = oldKeys[i];
+            visits[slot] = oldVisits[i];
+            totValues[slot] = oldValues[i];
+            size++;
+        }
+    }
+}
@@ -30,22 +30,30 @@ public class MCTSMetrics implements IMetricsCollection {
                 TreeStatistics treeStats = new TreeStatistics(root);
                 int visits = root.getVisits();
                 if (visits == 0) visits = 1;
+                // with tree reuse, some of the visits to the root are from the search for an earlier decision
+                int iterations = Math.max(root.getVisits() - mctsPlayer.reusedVisits, 1);
                 records.put("PlayerType", mctsPlayer.toString());
                 records.put("PlayerID", e.state.getCurrentPlayer());
-                records.put("Iterations", root.getVisits());
+                records.put("Iterations", root.getVisits() - mctsPlayer.reusedVisits);
+                records.put("ReusedVisits", mctsPlayer.reusedVisits);
                 records.put("MaxDepth", treeStats.depthReached);
                 records.put("MeanLeafDepth", treeStats.meanLeafDepth);
                 records.put("Nodes", treeStats.totalNodes);
                 records.put("OneActionNodes", treeStats.oneActionNodes);
                 records.put("MeanActionsAtNode", treeStats.meanActionsAtNode);
-                records.put("RolloutLength", mctsPlayer.root.rolloutActionsTaken / (double) visits);
+                records.put("PrunedNodes", treeStats.prunedNodes);
+                records.put("PruneEvents", treeStats.pruneEvents);
+                records.put("RolloutLength", mctsPlayer.root.rolloutActionsTaken / (double) iterations);
                 OptionalInt maxVisits = Arrays.stream(root.actionVisits()).max();
                 records.put("maxVisitProportion", (maxVisits.isPresent() ? maxVisits.getAsInt() : 0) / (double) visits);
                 records.put("Action", e.action.getString(e.state));
-                records.put("ActionsAtRoot", root.children.size());
-                records.put("fmCalls", mctsPlayer.root.fmCallsCount / visits);
-                records.put("copyCalls", mctsPlayer.root.copyCount / visits);
+                records.put("ActionsAtRoot", root.actionCount());
+                records.put("fmCalls", mctsPlayer.root.fmCallsCount / iterations);
+                records.put("copyCalls", mctsPlayer.root.copyCount / iterations);
                 records.put("time", mctsPlayer.root.timeTaken);
+                // pondering is done while other players decide, so is only included above in ReusedVisits
+                records.put("PonderIterations", mctsPlayer.ponderIterations);
+                records.put("PonderTime", (int) mctsPlayer.ponderTime);
                 return true;
             }
             return false;
@@ -62,11 +70,14 @@ public class MCTSMetrics implements IMetricsCollection {
             cols.put("PlayerType", String.class);
             cols.put("PlayerID", Integer.class);
             cols.put("Iterations", Integer.class);
+            cols.put("ReusedVisits", Integer.class);
             cols.put("MaxDepth", Integer.class);
             cols.put("MeanLeafDepth", Double.class);
             cols.put("Nodes", Integer.class);
             cols.put("OneActionNodes", Integer.class);
             cols.put("MeanActionsAtNode", Double.class);
+            cols.put("PrunedNodes", Integer.class);
+            cols.put("PruneEvents", Integer.class);
             cols.put("RolloutLength", Double.class);
             cols.put("maxVisitProportion", Double.class);
             cols.put("Action", String.class);
@@ -74,6 +85,8 @@ public class MCTSMetrics implements IMetricsCollection {
             cols.put("fmCalls", Integer.class);
             cols.put("copyCalls", Integer.class);
             cols.put("time", Double.class);
+            cols.put("PonderIterations", Integer.class);
+            cols.put("PonderTime", Integer.class);
             return cols;
         }
     }
@@ -104,7 +117,7 @@ public class MCTSMetrics implements IMetricsCollection {
                 records.put("Nodes", treeStats.stream().mapToInt(ts -> ts.totalNodes).average().orElse(0.0));
                 records.put("OneActionNodes", treeStats.stream().mapToInt(ts -> ts.oneActionNodes).average().orElse(0.0));
                 records.put("MeanActionsAtNode", treeStats.stream().mapToDouble(ts -> ts.meanActionsAtNode).average().orElse(0.0));
-                records.put("ActionsAtRoot", otherRoots.stream().mapToInt(node -> node.children.size()).average().orElse(0.0));
+                records.put("ActionsAtRoot", otherRoots.stream().mapToInt(node -> node.actionCount()).average().orElse(0.0));
                 return true;
             }
             return false;
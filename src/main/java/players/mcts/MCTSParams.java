@@ -61,6 +61,38 @@ public class MCTSParams extends PlayerParameters {
     public IStateHeuristic heuristic = AbstractGameState::getHeuristicScore;
     public IActionKey MASTActionKey;
     public double MASTDefaultValue = 0.0;
+    // number of independent trees searched in parallel, and merged at the root (root parallelisation)
+    // this is not supported with MultiTree, which always searches on a single thread
+    public int nThreads = 1;
+    // if true, then the sub-tree reached by the actions played since the last decision is kept and searched further
+    // this is only supported for OneTree with Closed_Loop or Open_Loop (otherwise a new tree is always started)
+    public boolean reuseTree = false;
+    // recycle the nodes of the previous tree at each decision, rather than leaving them for the garbage collector
+    // (not used with MultiTree, or by the helper trees of a root-parallel search)
+    public boolean poolNodes = false;
+    // if > 0 (with Closed_Loop and OneTree) then all paths that reach the same state share one node, using a
+    // transposition table that holds up to this many states (tree reuse is not then supported)
+    public int transpositionTableSize = 0;
+    // number of rollouts run from the node reached on each iteration, with the mean of their results backed up (leaf
+    // parallelisation). All but one of these run on worker threads, each with its own copy of the state, forward
+    // model and rollout policies. This is not used with MultiTree
+    public int leafRollouts = 1;
+    // CPU time (in ms) to spend pondering: searching on a background thread, from the state expected after our action,
+    // while other players decide. The pondered tree is used at our next decision if that state was reached.
+    // 0 switches this off; it is only used with OneTree, and not with Information_Set or a transposition table
+    public int ponderBudget = 0;
+    // limit on the size of the tree, as the number of nodes (0 means no limit). This also bounds the memory used by the
+    // tree, which for a given game is roughly proportional to the number of nodes. When the tree is full it is either
+    // pruned (pruneTree) or, otherwise, no more nodes are added and iterations roll out from where they stop.
+    // Pruning is not used with a transposition table
+    public int maxNodes = 0;
+    public boolean pruneTree = false;
+    // in Open_Loop and Information_Set, each node keeps the actions last computed for it with the Zobrist hash of that
+    // state, and reuses them (without calling computeAvailableActions) if it is next reached in a state with the same
+    // hash. This is faster for games that keep their hash up to date incrementally, and relies on the hash telling
+    // apart any two states with different actions, so it is only used for games that override _getZobristHash().
+    // Nothing checks the cached actions unless assertions are enabled (-ea), and a hash collision could make the search try illegal actions.
+    public boolean cacheActions = false;
 
     public MCTSParams() {
         this(System.currentTimeMillis());
@@ -107,6 +139,15 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("paranoid", false);
         addTunableParameter("MASTActionKey", IActionKey.class);
         addTunableParameter("MASTDefaultValue", 0.0);
+        addTunableParameter("nThreads", 1);
+        addTunableParameter("reuseTree", false);
+        addTunableParameter("poolNodes", false);
+        addTunableParameter("transpositionTableSize", 0);
+        addTunableParameter("leafRollouts", 1);
+        addTunableParameter("ponderBudget", 0);
+        addTunableParameter("maxNodes", 0);
+        addTunableParameter("pruneTree", false);
+        addTunableParameter("cacheActions", false);
     }
 
     @Override
@@ -157,6 +198,15 @@ public class MCTSParams extends PlayerParameters {
         }
         MASTActionKey = (IActionKey) getParameterValue("MASTActionKey");
         MASTDefaultValue = (double) getParameterValue("MASTDefaultValue");
+        nThreads = (int) getParameterValue("nThreads");
+        reuseTree = (boolean) getParameterValue("reuseTree");
+        poolNodes = (boolean) getParameterValue("poolNodes");
+        transpositionTableSize = (int) getParameterValue("transpositionTableSize");
+        leafRollouts = (int) getParameterValue("leafRollouts");
+        ponderBudget = (int) getParameterValue("ponderBudget");
+        maxNodes = (int) getParameterValue("maxNodes");
+        pruneTree = (boolean) getParameterValue("pruneTree");
+        cacheActions = (boolean) getParameterValue("cacheActions");
 
         advantageFunction = (IActionHeuristic) getParameterValue("advantageFunction");
         heuristic = (IStateHeuristic) getParameterValue("heuristic");
@@ -196,7 +246,7 @@ public class MCTSParams extends PlayerParameters {
             case RANDOM:
                 return new RandomPlayer(new Random(getRandomSeed()));
             case MAST:
-                return new MASTPlayer(MASTActionKey, MASTBoltzmann, 0.0, System.currentTimeMillis(), MASTDefaultValue);
+                return new MASTPlayer(MASTBoltzmann, 0.0, System.currentTimeMillis(), MASTDefaultValue);
             case CLASS:
                 // we have a bespoke Class to instantiate
                 return JSONUtils.loadClassFromString(details);
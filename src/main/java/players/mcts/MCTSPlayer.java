@@ -10,15 +10,16 @@ import core.interfaces.IStateHeuristic;
 import evaluation.metrics.Event;
 import players.IAnyTimePlayer;
 import players.heuristics.CoarseTunableHeuristic;
-import utilities.Pair;
-import utilities.Utils;
+import utilities.ElapsedCpuTimer;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import static players.mcts.MCTSEnums.OpponentTreePolicy.*;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.MultiTree;
+import static players.PlayerConstants.BUDGET_TIME;
+import static players.mcts.MCTSEnums.Information.Information_Set;
 
 public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
 
@@ -31,9 +32,32 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
     protected AbstractPlayer rolloutStrategy;
     protected boolean debug = false;
     protected SingleTreeNode root;
-    List<Map<Object, Pair<Integer, Double>>> MASTStats;
+    MASTTable MASTStats;
     private AbstractPlayer opponentModel;
     private IActionHeuristic advantageFunction;
+    // Used for root-parallel search (params.nThreads > 1); each helper searches its own tree on a separate thread
+    private List<MCTSPlayer> helpers;
+    private ExecutorService executor;
+    // Used for tree reuse (params.reuseTree): the length of the game history when the current tree was searched,
+    // and the number of visits that the root had already been given when the last search started
+    private int historyAtLastDecision;
+    int reusedVisits;
+    // Used to recycle the nodes of the last tree (params.poolNodes)
+    NodePool nodePool;
+    // Used for leaf-parallel rollouts (params.leafRollouts > 1)
+    private ExecutorService rolloutExecutor;
+    private int rolloutThreads;
+    // Used for pondering (params.ponderBudget > 0): the tree searched in the background from the state after
+    // ponderAction, and how much of that search there was before the current decision (CPU time in ms).
+    // The ponderer is a helper (as for root-parallel search) with the models and random numbers used by that tree.
+    private MCTSPlayer ponderer;
+    private ExecutorService ponderExecutor;
+    private Future<Long> ponderTask;
+    private volatile boolean stopPondering;
+    private SingleTreeNode ponderRoot;
+    private AbstractAction ponderAction;
+    int ponderIterations;
+    long ponderTime;
 
     public MCTSPlayer() {
         this(System.currentTimeMillis());
@@ -58,13 +82,41 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         setName(name);
     }
 
+    /**
+     * A helper for root-parallel search. This shares parameters and heuristics with the main player, but has its
+     * own random number generator and rollout/opponent models, so that the trees searched are independent.
+     */
+    private MCTSPlayer(MCTSPlayer main) {
+        this.params = main.params;
+        this.parameters = main.params;
+        rnd = new Random(main.rnd.nextLong());
+        rolloutStrategy = main.rolloutStrategy.copy();
+        opponentModel = main.opponentModel.copy();
+        heuristic = main.heuristic;
+        advantageFunction = main.advantageFunction;
+        setName(main.toString());
+        if (main.getForwardModel() != null)
+            setForwardModel(main.getForwardModel().copy());
+    }
+
     @Override
     public void initializePlayer(AbstractGameState state) {
         rolloutStrategy.initializePlayer(state);
         opponentModel.initializePlayer(state);
         if (advantageFunction instanceof AbstractPlayer)
             ((AbstractPlayer) advantageFunction).initializePlayer(state);
+        finishPondering();
+        ponderer = null;
         MASTStats = null;
+        root = null;
+        nodePool = null;
+        if (helpers != null)
+            helpers.forEach(h -> h.initializeSearchModels(state));
+    }
+
+    private void initializeSearchModels(AbstractGameState state) {
+        rolloutStrategy.initializePlayer(state);
+        opponentModel.initializePlayer(state);
     }
 
     /**
@@ -84,15 +136,34 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
     @Override
     public AbstractAction _getAction(AbstractGameState gameState, List<AbstractAction> actions) {
         // Search for best action from the root
-        if (params.opponentTreePolicy == MultiTree)
+        SingleTreeNode pondered = finishPondering();
+        SingleTreeNode reusedRoot = pondered == null ? null : ponderedSubtree(pondered, gameState);
+        if (reusedRoot != null)  // the pondered tree started with a copy of our statistics, and has added to them
+            MASTStats = reusedRoot.MASTStatistics;
+        if (reusedRoot == null && params.reuseTree)
+            reusedRoot = reusableSubtree(gameState);
+        reusedVisits = reusedRoot == null ? 0 : reusedRoot.getVisits();
+        if (params.poolNodes) {
+            if (nodePool == null)
+                nodePool = new NodePool();
+            else if (root != null && !(root instanceof MultiTreeNode))
+                nodePool.release(root, reusedRoot);
+            if (pondered != null && nodePool != null)
+                nodePool.release(pondered, reusedRoot);
+        }
+        if (reusedRoot != null)
+            root = reusedRoot;
+        else if (params.opponentTreePolicy == MultiTree)
             root = new MultiTreeNode(this, gameState, rnd);
         else
-            root = SingleTreeNode.createRootNode(this, gameState, rnd, getFactory());
+            root = SingleTreeNode.createRootNode(this, gameState, rnd, nodePool == null ? getFactory() : nodePool.supplier(getFactory()));
+        if (params.reuseTree || params.ponderBudget > 0)
+            historyAtLastDecision = gameState.getHistory().size();
 
-        if (MASTStats != null)
-            root.MASTStatistics = MASTStats.stream()
-                    .map(m -> Utils.decay(m, params.MASTGamma))
-                    .collect(Collectors.toList());
+        if (MASTStats != null) {
+            MASTStats.decay(params.MASTGamma);
+            root.MASTStatistics = MASTStats;
+        }
 
         if (rolloutStrategy instanceof IMASTUser) {
             ((IMASTUser) rolloutStrategy).setStats(root.MASTStatistics);
@@ -100,7 +171,10 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         if (opponentModel instanceof IMASTUser) {
             ((IMASTUser) opponentModel).setStats(root.MASTStatistics);
         }
-        root.mctsSearch();
+        if (params.nThreads > 1 && params.opponentTreePolicy != MultiTree)
+            parallelSearch(gameState);
+        else
+            root.mctsSearch();
 
         if (advantageFunction instanceof ITreeProcessor)
             ((ITreeProcessor) advantageFunction).process(root);
@@ -116,11 +190,192 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
 
         MASTStats = root.MASTStatistics;
 
-        if (root.children.size() > 2 * actions.size() && !params.actionSpace.equals(gameState.getCoreGameParameters().actionSpace))
-            throw new AssertionError(String.format("Unexpectedly large number of children: %d with action size of %d", root.children.size(), actions.size()) );
-        return root.bestAction();
+        if (root.actionCount() > 2 * actions.size() && !params.actionSpace.equals(gameState.getCoreGameParameters().actionSpace))
+            throw new AssertionError(String.format("Unexpectedly large number of children: %d with action size of %d", root.actionCount(), actions.size()) );
+        AbstractAction bestAction = root.bestAction();
+        if (params.ponderBudget > 0)
+            startPondering(gameState, bestAction);
+        return bestAction;
+    }
+
+    /**
+     * Starts searching, on a background thread, from the state that we expect after bestAction. This is a new tree
+     * (rather than the subtree of the current one) so that the tree from this decision is not changed while listeners
+     * look at it. It searches until its CPU-time budget is used, or until we are next asked for an action.
+     */
+    private void startPondering(AbstractGameState gameState, AbstractAction bestAction) {
+        if (params.opponentTreePolicy != OneTree || params.information == Information_Set || root.transpositions != null)
+            return;
+        AbstractGameState predicted = gameState.copy();
+        getForwardModel().next(predicted, bestAction.copy());
+        // there is nothing to gain if we are to move again straight away
+        if (!predicted.isNotTerminal() || predicted.getCurrentPlayer() == getPlayerID())
+            return;
+        ponderAction = bestAction;
+        if (ponderer == null) {
+            ponderer = new MCTSPlayer(this);
+            ponderer.initializeSearchModels(predicted);
+        }
+        // reseeded from our own random numbers, so that how long we ponder does not change any later search
+        long seed = rnd.nextLong();
+        ponderer.rnd = new Random(seed);
+        ponderer.rolloutStrategy.setSeed(seed);
+        ponderer.opponentModel.setSeed(seed);
+        ponderRoot = SingleTreeNode.createRootNode(ponderer, predicted, ponderer.rnd, nodePool == null ? getFactory() : nodePool.supplier(getFactory()));
+        // the root is an opponent's decision, but the rollout and opponent models are as in our own tree
+        for (int p = 0; p < ponderRoot.opponentModels.length; p++)
+            ponderRoot.opponentModels[p] = p == getPlayerID() ? ponderer.rolloutStrategy : ponderer.getOpponentModel(p);
+        ponderRoot.paranoidPlayer = getPlayerID();
+        ponderRoot.MASTStatistics = root.MASTStatistics.copy();
+        if (ponderer.rolloutStrategy instanceof IMASTUser)
+            ((IMASTUser) ponderer.rolloutStrategy).setStats(ponderRoot.MASTStatistics);
+        if (ponderer.opponentModel instanceof IMASTUser)
+            ((IMASTUser) ponderer.opponentModel).setStats(ponderRoot.MASTStatistics);
+        if (ponderExecutor == null)
+            ponderExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "MCTS-ponder-" + this);
+                thread.setDaemon(true);
+                return thread;
+            });
+        SingleTreeNode searchRoot = ponderRoot;
+        stopPondering = false;
+        ponderTask = ponderExecutor.submit(() -> {
+            // this measures the CPU time of the pondering thread
+            ElapsedCpuTimer timer = new ElapsedCpuTimer();
+            timer.setMaxTimeMillis(params.ponderBudget);
+            searchRoot.searchUntil(() -> stopPondering || timer.exceededMaxTime());
+            return timer.elapsedMillis();
+        });
+    }
+
+    /**
+     * Stops any pondering, and records how much there was.
+     *
+     * @return the root of the tree that was pondered, or null if there was none
+     */
+    private SingleTreeNode finishPondering() {
+        ponderIterations = 0;
+        ponderTime = 0;
+        if (ponderTask == null)
+            return null;
+        stopPondering = true;
+        try {
+            ponderTime = ponderTask.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("MCTS pondering failed in worker thread", e.getCause());
+        } finally {
+            ponderTask = null;
+        }
+        SingleTreeNode retValue = ponderRoot;
+        ponderRoot = null;
+        ponderIterations = retValue.getVisits();
+        return retValue;
+    }
+
+    /**
+     * Finds the node in the pondered tree reached by the actions of the other players since our last decision, so
+     * that the search can continue from it. As with tree reuse, this relies on the game history.
+     */
+    private SingleTreeNode ponderedSubtree(SingleTreeNode pondered, AbstractGameState gameState) {
+        List<AbstractAction> history = gameState.getHistory();
+        if (history.size() <= historyAtLastDecision + 1 || !history.get(historyAtLastDecision).equals(ponderAction))
+            return null;
+        // the search continues on this thread, with our own models (which the subtree takes from its old root)
+        pondered.forwardModel = getForwardModel();
+        pondered.rnd = rnd;
+        pondered.opponentModels = new AbstractPlayer[pondered.opponentModels.length];
+        for (int p = 0; p < pondered.opponentModels.length; p++)
+            pondered.opponentModels[p] = p == getPlayerID() ? rolloutStrategy : getOpponentModel(p);
+        return pondered.subtreeAfter(history.subList(historyAtLastDecision + 1, history.size()), gameState);
+    }
+
+    /**
+     * Finds the node in the previous tree that is reached by the actions played since then (our own decision,
+     * and then those of any other players), so that the search can continue from it.
+     * This relies on the game history, so is not possible in competition mode (in which history is not visible).
+     */
+    private SingleTreeNode reusableSubtree(AbstractGameState gameState) {
+        if (root == null || root instanceof MultiTreeNode || params.opponentTreePolicy != OneTree
+                || params.information == Information_Set || root.transpositions != null)
+            return null;
+        List<AbstractAction> history = gameState.getHistory();
+        if (history.size() <= historyAtLastDecision)
+            return null;
+        return root.subtreeAfter(history.subList(historyAtLastDecision, history.size()), gameState);
+    }
+
+    /**
+     * Root parallelisation. Each of params.nThreads trees is searched independently from the current state, one on
+     * this thread and the others on helper threads, and the root statistics are then merged into the main tree.
+     * With BUDGET_TIME each tree uses the full time budget; any other budget is split between the trees.
+     */
+    private void parallelSearch(AbstractGameState gameState) {
+        if (helpers == null || helpers.size() != params.nThreads - 1)
+            createHelpers(gameState);
+        int share = params.budgetType == BUDGET_TIME ? params.budget : params.budget / params.nThreads;
+        List<Future<SingleTreeNode>> results = new ArrayList<>();
+        for (MCTSPlayer helper : helpers) {
+            // all set up is done on this thread, so that the helper does not touch anything shared with the main tree
+            SingleTreeNode helperRoot = SingleTreeNode.createRootNode(helper, gameState.copy(), helper.rnd, getFactory());
+            if (MASTStats != null)
+                helperRoot.MASTStatistics = MASTStats.copy();
+            if (helper.rolloutStrategy instanceof IMASTUser)
+                ((IMASTUser) helper.rolloutStrategy).setStats(helperRoot.MASTStatistics);
+            if (helper.opponentModel instanceof IMASTUser)
+                ((IMASTUser) helper.opponentModel).setStats(helperRoot.MASTStatistics);
+            results.add(executor.submit(() -> {
+                helperRoot.mctsSearch(share);
+                return helperRoot;
+            }));
+        }
+        root.mctsSearch(params.budgetType == BUDGET_TIME ? params.budget : params.budget - share * helpers.size());
+        try {
+            for (Future<SingleTreeNode> result : results)
+                root.mergeRootStatistics(result.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("MCTS search failed in worker thread", e.getCause());
+        }
     }
 
+    private void createHelpers(AbstractGameState state) {
+        if (executor != null)
+            executor.shutdownNow();
+        helpers = new ArrayList<>();
+        for (int i = 1; i < params.nThreads; i++) {
+            MCTSPlayer helper = new MCTSPlayer(this);
+            helper.initializeSearchModels(state);
+            helpers.add(helper);
+        }
+        // daemon threads, so that a player that is never finalised does not stop the JVM from exiting
+        executor = Executors.newFixedThreadPool(params.nThreads - 1, r -> {
+            Thread thread = new Thread(r, "MCTS-" + this);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The threads on which the extra rollouts of leaf-parallel search are run (params.leafRollouts - 1 of them)
+     */
+    ExecutorService getRolloutExecutor() {
+        if (rolloutExecutor == null || rolloutThreads != params.leafRollouts - 1) {
+            if (rolloutExecutor != null)
+                rolloutExecutor.shutdownNow();
+            rolloutThreads = params.leafRollouts - 1;
+            rolloutExecutor = Executors.newFixedThreadPool(rolloutThreads, r -> {
+                Thread thread = new Thread(r, "MCTS-rollout-" + this);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return rolloutExecutor;
+    }
 
     public AbstractPlayer getOpponentModel(int playerID) {
         return opponentModel;
@@ -128,13 +383,35 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
 
     @Override
     public void finalizePlayer(AbstractGameState state) {
+        finishPondering();
         rolloutStrategy.onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
         opponentModel.onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
         if (heuristic instanceof IGameListener)
             ((IGameListener) heuristic).onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
         if (advantageFunction instanceof IGameListener)
             ((IGameListener) advantageFunction).onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
+        List<MCTSPlayer> searchHelpers = helpers == null ? new ArrayList<>() : new ArrayList<>(helpers);
+        if (ponderer != null)
+            searchHelpers.add(ponderer);
+        for (MCTSPlayer helper : searchHelpers) {
+            helper.rolloutStrategy.onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
+            helper.opponentModel.onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
+        }
+    }
 
+    /**
+     * Reseeds the player, and its rollout and opponent models, as if it had been created with this seed.
+     * Any helpers for root-parallel search or pondering are re-created (from the new seed) when next needed.
+     */
+    @Override
+    public void setSeed(long seed) {
+        finishPondering();
+        params.setRandomSeed(seed);
+        rnd = new Random(seed);
+        rolloutStrategy.setSeed(seed);
+        opponentModel.setSeed(seed);
+        helpers = null;
+        ponderer = null;
     }
 
     @Override
@@ -149,6 +426,10 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
             rolloutStrategy.setForwardModel(model);
         if (opponentModel != null)
             opponentModel.setForwardModel(model);
+        if (helpers != null)
+            helpers.forEach(h -> h.setForwardModel(model.copy()));
+        if (ponderer != null)
+            ponderer.setForwardModel(model.copy());
     }
 
     public void setStateHeuristic(IStateHeuristic heuristic) {
@@ -160,10 +441,12 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         Map<AbstractAction, Map<String, Object>> retValue = new LinkedHashMap<>();
 
         if (root != null && root.getVisits() > 1) {
-            for (AbstractAction action : root.children.keySet()) {
-                int visits = Arrays.stream(root.children.get(action)).filter(Objects::nonNull).mapToInt(SingleTreeNode::getVisits).sum();
+            for (AbstractAction action : root.getChildren().keySet()) {
+                if (root.childrenFor(action) == null)
+                    continue;
+                int visits = root.actionVisits(action);
                 double visitProportion = visits / (double) root.getVisits();
-                double meanValue =  Arrays.stream(root.children.get(action)).filter(Objects::nonNull).mapToDouble(n -> n.getTotValue()[root.decisionPlayer]).sum()/ visits;
+                double meanValue = root.actionTotValue(action, root.decisionPlayer) / visits;
                 double heuristicValue = heuristic != null ? heuristic.evaluateState(root.state, root.decisionPlayer) : 0.0;
                 double advantageValue = advantageFunction != null ? advantageFunction.evaluateAction(action, root.state) : 0.0;
 
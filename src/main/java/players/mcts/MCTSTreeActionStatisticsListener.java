@@ -76,7 +76,7 @@ public class MCTSTreeActionStatisticsListener extends ActionFeatureListener {
             AbstractAction bestAction = null;
             double bestValue = Double.NEGATIVE_INFINITY;
             for (AbstractAction action : actionsFromState) {
-                if (node.children.get(action) == null) {
+                if (node.childrenFor(action) == null) {
                     actionTargets.put(action, 0.0);  // we have no data for this action
                     continue;
                 }
@@ -105,10 +105,7 @@ public class MCTSTreeActionStatisticsListener extends ActionFeatureListener {
             processStateWithTargets(node.state, bestAction, actionTargets);
 
             // add children of current node to queue if they meet the criteria
-            for (SingleTreeNode child : node.children.values().stream()
-                    .filter(Objects::nonNull)
-                    .flatMap(Arrays::stream)
-                    .filter(Objects::nonNull)
+            for (SingleTreeNode child : node.expandedChildren().stream()
                     .filter(n -> n.depth <= maxDepth)
                     .filter(n -> n.getVisits() >= visitThreshold)
                     .collect(toList())) {
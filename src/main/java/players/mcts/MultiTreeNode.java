@@ -52,17 +52,8 @@ public class MultiTreeNode extends SingleTreeNode {
                 opponentModels[p] = player.getOpponentModel(p);
         }
         // only root node maintains MAST statistics
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            MASTStatistics.add(new HashMap<>());
-        MASTFunction = (a, s) -> {
-            Map<Object, Pair<Integer, Double>> MAST = MASTStatistics.get(decisionPlayer);
-            if (MAST.containsKey(a)) {
-                Pair<Integer, Double> stats = MAST.get(a);
-                return stats.b / (stats.a + params.epsilon);
-            }
-            return 0.0;
-        };
+        MASTStatistics = new MASTTable(params.MASTActionKey);
+        MASTFunction = (a, s) -> MASTStatistics.getTotValue(decisionPlayer, a) / (MASTStatistics.getVisits(decisionPlayer, a) + params.epsilon);
         instantiate(null, null, state);
 
         roots = new SingleTreeNode[state.getNPlayers()];
@@ -243,7 +234,7 @@ public class MultiTreeNode extends SingleTreeNode {
             stats.merge("leafNodes" + suffix, treeStats.totalLeaves * multiplier, addFn);
             stats.merge("terminalNodes" + suffix, treeStats.totalTerminalNodes * multiplier, addFn);
             stats.merge("maxDepth" + suffix, treeStats.depthReached * multiplier, addFn);
-            stats.merge("nActionsRoot" + suffix, node.children.size() * multiplier, addFn);
+            stats.merge("nActionsRoot" + suffix, node.actionCount() * multiplier, addFn);
             stats.merge("nActionsTree" + suffix, treeStats.meanActionsAtNode * multiplier, addFn);
             stats.merge("maxActionsAtNode" + suffix, treeStats.maxActionsAtNode * multiplier, addFn);
 
@@ -0,0 +1,53 @@
+package players.mcts;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the nodes of MCTS trees that are no longer needed, so that they (and the arrays holding their statistics)
+ * can be used again in the next search instead of all becoming garbage at the same time.
+ * <p>
+ * Each MCTSPlayer has its own pool (if MCTSParams.poolNodes is set), and it is only used from the thread that
+ * searches that player's tree. Nodes are released at the start of the next decision, so the tree from the last
+ * decision remains valid until then (for listeners, ITreeProcessors and so on).
+ */
+class NodePool {
+
+    private final List<SingleTreeNode> free = new ArrayList<>();
+    private final Deque<SingleTreeNode> toRelease = new ArrayDeque<>();
+
+    /**
+     * @param factory used to create new nodes when the pool is empty. All nodes released to the pool must
+     *                have come from the same factory, as they are handed out in its place.
+     */
+    Supplier<SingleTreeNode> supplier(Supplier<? extends SingleTreeNode> factory) {
+        return () -> {
+            if (free.isEmpty())
+                return factory.get();
+            return free.remove(free.size() - 1);
+        };
+    }
+
+    /**
+     * Recycles root and all the nodes below it, except for keep (and the nodes below that), which is typically
+     * the root of a sub-tree that is being reused.
+     */
+    void release(SingleTreeNode root, SingleTreeNode keep) {
+        toRelease.push(root);
+        while (!toRelease.isEmpty()) {
+            SingleTreeNode node = toRelease.pop();
+            if (node == keep || node.root == null)
+                continue;  // a node reached by more than one path (with transpositions) is only released once
+            node.pushChildren(toRelease);
+            node.recycle();
+            free.add(node);
+        }
+    }
+
+    int size() {
+        return free.size();
+    }
+}
@@ -100,6 +100,13 @@ public class OMATreeNode extends SingleTreeNode {
         stats.OMATotValue += result[decisionPlayer];
     }
 
+    @Override
+    protected void recycle() {
+        super.recycle();
+        OMAParent = Optional.empty();
+        OMAChildren.clear();
+    }
+
     @Override
     protected void instantiate(SingleTreeNode parent, AbstractAction actionToReach, AbstractGameState state) {
         super.instantiate(parent, actionToReach, state);
@@ -7,7 +7,9 @@ import players.PlayerConstants;
 import utilities.*;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.*;
+import java.util.logging.Logger;
 import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.*;
@@ -21,7 +23,11 @@ import static utilities.Utils.*;
 
 public class SingleTreeNode {
 
-    private final Map<AbstractAction, Integer> nValidVisits = new HashMap<>();
+    private static final AbstractAction[] NO_ACTIONS = new AbstractAction[0];
+    private static final SingleTreeNode[][] NO_NODES = new SingleTreeNode[0][];
+    private static final int[] NO_INTS = new int[0];
+    private static final double[] NO_DOUBLES = new double[0];
+
     // State in this node (closed loop)
     protected AbstractGameState state;
     // State in this node (open loop - this is updated by onward trajectory....be very careful about using)
@@ -46,8 +52,9 @@ public class SingleTreeNode {
     // having them on the node reduces verbiage in passing to advance() to check rollout termination in some edge cases
     // (specifically when using SelfOnly trees, with START/END_TURN/ROUND rollout termination conditions
     protected int rolloutDepth, roundAtStartOfRollout, turnAtStartOfRollout, lastActorInRollout;
-    List<AbstractAction> actionsFromOpenLoopState = new ArrayList<>();
-    Map<AbstractAction, Double> advantagesOfActionsFromOLS = new HashMap<>();
+    List<AbstractAction> actionsFromOpenLoopState = Collections.emptyList();
+    // only populated if we have an advantage function, or use MAST for expansion
+    Map<AbstractAction, Double> advantagesOfActionsFromOLS = Collections.emptyMap();
     // Depth of this node
     int depth;
     // the id of the player who makes the decision at this node
@@ -61,21 +68,70 @@ public class SingleTreeNode {
     SingleTreeNode root;
     // Parent of this node
     SingleTreeNode parent;
-    // Children of this node. The value is an Array because we have to cater for the possibility that the next decision
+    // Children of this node, and their statistics. Each action seen at this node is given an index when it is first
+    // seen (actionIndex maps from an action to this), and everything about that action is then held in index-aligned
+    // arrays, so that selection is a simple loop with no hash lookups or boxing.
+    // The children of an action are an Array because we have to cater for the possibility that the next decision
     // could be by any player - each of which would transition to a different Node OpenLoop search. (Closed Loop will
     // only ever have one position in the array populated: and similarly if we are using a SelfOnly tree).
-    Map<AbstractAction, SingleTreeNode[]> children = new HashMap<>();
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
-    ToDoubleBiFunction<AbstractAction, AbstractGameState> advantageFunction = (a, s) -> advantagesOfActionsFromOLS.getOrDefault(a, 0.0);
+    // A null array indicates an action that has not yet been expanded.
+    private final Map<AbstractAction, Integer> actionIndex = new HashMap<>();
+    private int nActions;
+    private AbstractAction[] childActions = NO_ACTIONS;
+    private SingleTreeNode[][] childNodes = NO_NODES;
+    // the total visits to, and value of, the children of each action. Values have one element per player, so the
+    // value for player p of the action with index i is at [i * nPlayers + p]
+    private int[] childVisits = NO_INTS;
+    private double[] childTotValue = NO_DOUBLES;
+    private double[] childTotSquares = NO_DOUBLES;
+    // the number of visits to this node in which each action was available (not used in Closed Loop)
+    private int[] childValidVisits = NO_INTS;
+    // the indices of actionsFromOpenLoopState
+    private int[] actionIndicesFromOLS = NO_INTS;
+    // the Zobrist hash of the state from which actionsFromOpenLoopState were computed (params.cacheActions)
+    private long actionsFingerprint;
+    private boolean actionsCached;
+    // the index of actionToReach in the parent's arrays
+    private int indexInParent = -1;
+    MASTTable MASTStatistics; // (player, action) -> (visits, totValue)
     ToDoubleBiFunction<AbstractAction, AbstractGameState> MASTFunction;
     // The total value of all trajectories through this node (one element per player)
     private double[] totValue;
     private double[] totSquares;
     private Supplier<? extends SingleTreeNode> factory;
+    // Closed_Loop transposition table (params.transpositionTableSize), only held on the root.
+    // With this a node can be the child of more than one node, so the root also records the path taken on each
+    // iteration for backUp(): the nodes moved from, and the index of the action taken from each
+    TranspositionTable transpositions;
+    private SingleTreeNode[] pathNodes;
+    private int[] pathIndices;
+    private int pathLength;
+    // Leaf parallelisation (params.leafRollouts > 1), only held on the root: the threads that run the extra rollouts,
+    // and a detached node for each of them with its own forward model and rollout models (it is its own root, so that
+    // the actions and FM calls of its rollouts are recorded on it)
+    ExecutorService rolloutExecutor;
+    private SingleTreeNode[] rolloutWorkers;
+    // Used to bound the size of the tree (params.maxNodes), only on the root: the number of nodes
+    // in the tree and the limit on this, and the nodes removed by pruning (params.pruneTree) in the current search
+    int nodeCount;
+    private int nodeLimit;
+    int prunedNodes;
+    int pruneEvents;
+    // Working space for ucbKernel(), only on the root (it is shared by all the nodes of the tree): the statistics of
+    // the actions being compared, gathered into contiguous arrays, and their scores
+    private double[] kernelValues = NO_DOUBLES;
+    private double[] kernelSquares = NO_DOUBLES;
+    private double[] kernelVisits = NO_DOUBLES;
+    private double[] kernelTotals = NO_DOUBLES;
+    private double[] kernelScores = NO_DOUBLES;
     // Total value of this node
     List<Pair<Integer, AbstractAction>> actionsInTree;
     List<Pair<Integer, AbstractAction>> actionsInRollout;
 
+    // the games for which we have said that params.cacheActions cannot be used
+    private static final Set<Class<?>> gamesWithoutActionCache = ConcurrentHashMap.newKeySet();
+    private static final Logger logger = Logger.getLogger(SingleTreeNode.class.getName());
+
     protected SingleTreeNode() {
 
     }
@@ -98,11 +154,21 @@ public class SingleTreeNode {
             retValue.opponentModels[p].getParameters().actionSpace = player.params.actionSpace;  // TODO makes sense?
         }
         // only root node maintains MAST statistics
-        retValue.MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            retValue.MASTStatistics.add(new HashMap<>());
-        MASTActionHeuristic MASTHeuristic = new MASTActionHeuristic(retValue.MASTStatistics, retValue.params.MASTActionKey, retValue.params.MASTDefaultValue);
-        retValue.MASTFunction = MASTHeuristic::evaluateAction;
+        retValue.MASTStatistics = new MASTTable(retValue.params.MASTActionKey);
+        // this reads the current table, as MCTSPlayer replaces it with the (decayed) statistics from earlier decisions
+        retValue.MASTFunction = (a, s) -> retValue.MASTStatistics.getMeanValue(s.getCurrentPlayer(), a, retValue.params.MASTDefaultValue);
+        if (retValue.params.transpositionTableSize > 0 && retValue.params.information == Closed_Loop
+                && retValue.params.opponentTreePolicy == OneTree) {
+            retValue.transpositions = new TranspositionTable(retValue.params.transpositionTableSize);
+            retValue.pathNodes = new SingleTreeNode[16];
+            retValue.pathIndices = new int[16];
+        }
+        if (retValue.params.leafRollouts > 1)
+            retValue.rolloutExecutor = player.getRolloutExecutor();
+        retValue.nodeCount = 1;
+        retValue.nodeLimit = retValue.params.maxNodes > 0 ? retValue.params.maxNodes : Integer.MAX_VALUE;
+        if (retValue.params.cacheActions && !state.hasZobristHash() && gamesWithoutActionCache.add(state.getClass()))
+            logger.warning("cacheActions is not used for " + state.getClass().getSimpleName() + ", as it does not override _getZobristHash()");
         retValue.instantiate(null, null, state);
         return retValue;
     }
@@ -111,6 +177,7 @@ public class SingleTreeNode {
                                                  Supplier<? extends SingleTreeNode> factory) {
         SingleTreeNode retValue = factory.get();
         retValue.instantiate(parent, actionToReach, state);
+        parent.root.nodeCount++;
         return retValue;
     }
 
@@ -138,8 +205,11 @@ public class SingleTreeNode {
             depth = 0;
         }
 
-        totValue = new double[state.getNPlayers()];
-        totSquares = new double[state.getNPlayers()];
+        if (totValue == null || totValue.length != state.getNPlayers()) {
+            // a recycled node keeps its (zeroed) arrays
+            totValue = new double[state.getNPlayers()];
+            totSquares = new double[state.getNPlayers()];
+        }
         if (params.information != Closed_Loop && (params.maintainMasterState || depth == 0)) {
             // if we're using open loop, then we need to make sure the reference state is never changed
             // however this is only used at the root - and we can switch the copy off for other nodes for performance
@@ -155,10 +225,122 @@ public class SingleTreeNode {
 
     }
 
+    /**
+     * Clears this node so that a NodePool can hand it out again, to be instantiated as if newly constructed.
+     * The arrays that hold statistics are kept (and zeroed), so that they do not need to be allocated again.
+     * Subclasses with state of their own need to clear it here as well.
+     */
+    protected void recycle() {
+        state = null;
+        openLoopState = null;
+        params = null;
+        forwardModel = null;
+        opponentModels = null;
+        rnd = null;
+        heuristic = null;
+        fmCallsCount = 0;
+        copyCount = 0;
+        paranoidPlayer = -1;
+        actionToReach = null;
+        nVisits = 0;
+        rolloutActionsTaken = 0;
+        rolloutDepth = roundAtStartOfRollout = turnAtStartOfRollout = lastActorInRollout = 0;
+        actionsFromOpenLoopState = Collections.emptyList();
+        advantagesOfActionsFromOLS = Collections.emptyMap();
+        actionsCached = false;
+        depth = decisionPlayer = round = turn = turnOwner = 0;
+        terminalNode = false;
+        timeTaken = 0.0;
+        highReward = Double.NEGATIVE_INFINITY;
+        lowReward = Double.POSITIVE_INFINITY;
+        root = null;
+        parent = null;
+        rolloutExecutor = null;
+        rolloutWorkers = null;
+        nodeCount = nodeLimit = prunedNodes = pruneEvents = 0;
+        kernelValues = kernelSquares = kernelVisits = kernelTotals = kernelScores = NO_DOUBLES;
+        actionIndex.clear();
+        nActions = 0;
+        Arrays.fill(childActions, null);
+        Arrays.fill(childNodes, null);
+        Arrays.fill(childVisits, 0);
+        Arrays.fill(childValidVisits, 0);
+        Arrays.fill(childTotValue, 0.0);
+        Arrays.fill(childTotSquares, 0.0);
+        indexInParent = -1;
+        MASTStatistics = null;
+        MASTFunction = null;
+        if (totValue != null) {
+            Arrays.fill(totValue, 0.0);
+            Arrays.fill(totSquares, 0.0);
+        }
+        factory = null;
+        transpositions = null;
+        pathNodes = null;
+        pathIndices = null;
+        pathLength = 0;
+        actionsInTree = null;
+        actionsInRollout = null;
+    }
+
+    /**
+     * Adds the expanded children of this node to the stack (used by NodePool to walk the tree without recursion)
+     */
+    void pushChildren(Deque<SingleTreeNode> stack) {
+        for (int i = 0; i < nActions; i++) {
+            SingleTreeNode[] nodes = childNodes[i];
+            if (nodes == null)
+                continue;
+            for (SingleTreeNode node : nodes)
+                if (node != null)
+                    stack.push(node);
+        }
+    }
+
     public AbstractGameState getState() {
         return state;
     }
 
+    private int indexOf(AbstractAction action) {
+        Integer index = actionIndex.get(action);
+        return index == null ? -1 : index;
+    }
+
+    private int addAction(AbstractAction action) {
+        if (nActions == childActions.length) {
+            int capacity = Math.max(nActions * 2, Math.max(4, actionsFromOpenLoopState.size()));
+            int nPlayers = totValue.length;
+            childActions = Arrays.copyOf(childActions, capacity);
+            childNodes = Arrays.copyOf(childNodes, capacity);
+            childVisits = Arrays.copyOf(childVisits, capacity);
+            childValidVisits = Arrays.copyOf(childValidVisits, capacity);
+            childTotValue = Arrays.copyOf(childTotValue, capacity * nPlayers);
+            childTotSquares = Arrays.copyOf(childTotSquares, capacity * nPlayers);
+        }
+        childActions[nActions] = action;
+        actionIndex.put(action, nActions);
+        return nActions++;
+    }
+
+    private void setChild(int index, int slot, SingleTreeNode child) {
+        SingleTreeNode previous = childNodes[index][slot];
+        if (previous != null) {
+            // the statistics of the node we replace no longer count towards the action
+            childVisits[index] -= previous.nVisits;
+            addChildValues(index, previous.totValue, previous.totSquares, -1.0);
+        }
+        childNodes[index][slot] = child;
+        child.indexInParent = index;
+    }
+
+    private void addChildValues(int index, double[] values, double[] squares, double multiplier) {
+        int offset = index * totValue.length;
+        for (int p = 0; p < totValue.length; p++) {
+            childTotValue[offset + p] += multiplier * values[p];
+            childTotSquares[offset + p] += multiplier * squares[p];
+        }
+    }
+
     private boolean terminalStateInSelfOnlyTree(AbstractGameState state) {
         // we then have some exceptions
         if (params.opponentTreePolicy.selfOnlyTree && parent != null)
@@ -172,6 +354,20 @@ public class SingleTreeNode {
         // so check the MCTSParams as well
         openLoopState = actionState;
         if (actionState.getCurrentPlayer() == this.decisionPlayer) {
+            if (params.cacheActions && params.information != Closed_Loop && actionState.hasZobristHash()) {
+                long fingerprint = actionState.getZobristHash();
+                if (actionsCached && fingerprint == actionsFingerprint) {
+                    // the actions (and their indices) are unchanged; only the MAST values change as we search
+                    assert actionsFromOpenLoopState.equals(forwardModel.computeAvailableActions(actionState, params.actionSpace)) :
+                            "cacheActions: two states with hash " + fingerprint + " have different actions";
+                    if (params.expansionPolicy == MAST)
+                        advantagesOfActionsFromOLS = actionsFromOpenLoopState.stream()
+                                .collect(toMap(a -> a, a -> root.MASTFunction.applyAsDouble(a, actionState)));
+                    return;
+                }
+                actionsFingerprint = fingerprint;
+                actionsCached = true;
+            }
             actionsFromOpenLoopState = forwardModel.computeAvailableActions(actionState, params.actionSpace);
             //      System.out.printf("Setting OLS actions for P%d (%d)%n%s%n", decisionPlayer, actionState.getCurrentPlayer(),
 //                actionsFromOpenLoopState.stream().map(a -> "\t" + a.toString() + "\n").collect(joining()));
@@ -192,13 +388,18 @@ public class SingleTreeNode {
                     }
                 }
             }
-            for (AbstractAction action : actionsFromOpenLoopState) {
-                if (!children.containsKey(action)) {
-                    children.put(action.copy(), null); // mark a new node to be expanded
+            if (actionIndicesFromOLS.length != actionsFromOpenLoopState.size())
+                actionIndicesFromOLS = new int[actionsFromOpenLoopState.size()];
+            for (int i = 0; i < actionsFromOpenLoopState.size(); i++) {
+                AbstractAction action = actionsFromOpenLoopState.get(i);
+                int index = indexOf(action);
+                if (index == -1) {
+                    index = addAction(action.copy()); // mark a new node to be expanded
                     // This *does* rely on a good equals method being implemented for Actions
-                    if (!children.containsKey(action))
+                    if (indexOf(action) != index)
                         throw new AssertionError("We have an action that does not obey the equals/hashcode contract" + action);
                 }
+                actionIndicesFromOLS[i] = index;
             }
         }
     }
@@ -207,6 +408,14 @@ public class SingleTreeNode {
      * Performs full MCTS search, using the defined budget limits.
      */
     public void mctsSearch() {
+        mctsSearch(params.budget);
+    }
+
+    /**
+     * Performs full MCTS search, using the budget type from the parameters but with the specified budget.
+     * This is used in root-parallel search, where the budget is shared between several trees.
+     */
+    public void mctsSearch(int budget) {
 
         // Variables for tracking time budget
         double avgTimeTaken;
@@ -215,7 +424,7 @@ public class SingleTreeNode {
         int remainingLimit = params.breakMS;
         ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
         if (params.budgetType == BUDGET_TIME) {
-            elapsedTimer.setMaxTimeMillis(params.budget);
+            elapsedTimer.setMaxTimeMillis(budget);
         }
 
         // Tracking number of iterations for iteration budget
@@ -223,19 +432,7 @@ public class SingleTreeNode {
         rolloutActionsTaken = 0;
         boolean stop = false;
         while (!stop) {
-            switch (params.information) {
-                case Closed_Loop:
-                    openLoopState = state;
-                    break;
-                case Open_Loop:
-                    openLoopState = state.copy();
-                    copyCount++;
-                    break;
-                case Information_Set:
-                    openLoopState = state.copy(decisionPlayer);
-                    copyCount++;
-                    break;
-            }
+            resetOpenLoopState();
 
             // New timer for this iteration
             ElapsedCpuTimer elapsedTimerIteration = new ElapsedCpuTimer();
@@ -256,23 +453,53 @@ public class SingleTreeNode {
                 stop = remaining <= 2 * avgTimeTaken || remaining <= remainingLimit;
             } else if (budgetType == BUDGET_ITERATIONS) {
                 // Iteration budget
-                stop = numIters >= params.budget;
+                stop = numIters >= budget;
             } else if (budgetType == BUDGET_FM_CALLS) {
                 // FM calls budget
-                stop = fmCallsCount > params.budget || numIters > params.budget;
+                stop = fmCallsCount > budget || numIters > budget;
             } else if (budgetType == BUDGET_COPY_CALLS) {
-                stop = copyCount > params.budget || numIters > params.budget;
+                stop = copyCount > budget || numIters > budget;
             } else if (budgetType == BUDGET_FMANDCOPY_CALLS) {
-                stop = (copyCount + fmCallsCount) > params.budget || numIters > params.budget;
+                stop = (copyCount + fmCallsCount) > budget || numIters > budget;
             }
         }
     }
 
+    /**
+     * Searches until stop returns true, which is checked before each iteration. This ignores the budget in the
+     * parameters, and is used for pondering (which has a budget of its own, and can be stopped from another thread).
+     */
+    void searchUntil(BooleanSupplier stop) {
+        rolloutActionsTaken = 0;
+        while (!stop.getAsBoolean()) {
+            resetOpenLoopState();
+            oneSearchIteration();
+        }
+    }
+
+    private void resetOpenLoopState() {
+        switch (params.information) {
+            case Closed_Loop:
+                openLoopState = state;
+                break;
+            case Open_Loop:
+                openLoopState = state.copyForSearch();
+                copyCount++;
+                break;
+            case Information_Set:
+                openLoopState = state.copyForSearch(decisionPlayer);
+                copyCount++;
+                break;
+        }
+    }
+
     /**
      * oneSearchIteration() implements the strategy for tree search (plus expansion, rollouts, backup and so on)
      * Its result is purely stored in the tree generated from root
      */
     protected void oneSearchIteration() {
+        if (params.pruneTree && transpositions == null && treeIsFull())
+            prune();
         double[] startingValues = IntStream.range(0, openLoopState.getNPlayers())
                 .mapToDouble(i -> heuristic.evaluateState(openLoopState, i)).toArray();
 
@@ -288,7 +515,9 @@ public class SingleTreeNode {
 
         // Monte carlo rollout: return value of MC rollout from the newly added node
         int lastActorInTree = actionsInTree.isEmpty() ? decisionPlayer : actionsInTree.get(actionsInTree.size() - 1).a;
-        double[] delta = selected.rollout(startingValues, lastActorInTree);
+        double[] delta = rolloutExecutor == null || (params.rolloutLength == 0 && params.rolloutTermination == DEFAULT) ?
+                selected.rollout(startingValues, lastActorInTree) :
+                selected.leafParallelRollout(startingValues, lastActorInTree);
         // Back up the value of the rollout through the tree
         rolloutActionsTaken += actionsInRollout.size();
 
@@ -316,64 +545,69 @@ public class SingleTreeNode {
     }
 
     /**
-     * Uses plain java loop instead of streams for performance
-     * (this is called often enough it can make a measurable difference)
+     * The total visits to all the children reached by this action
      */
     public int actionVisits(AbstractAction action) {
-        int retValue = 0;
-        SingleTreeNode[] nodes = children.get(action);
-        if (nodes != null) {
-            for (SingleTreeNode node : nodes) {
-                if (node != null)
-                    retValue += node.nVisits;
-            }
-        }
-        return retValue;
+        int index = indexOf(action);
+        return index == -1 ? 0 : childVisits[index];
     }
 
-    private int validVisitsFor(AbstractAction action) {
+    private int validVisitsFor(int index) {
         if (params.information == Closed_Loop)
             return nVisits;
-        return nValidVisits.getOrDefault(action, 1);
+        // an action is counted as available from the first visit in which it is seen
+        return childValidVisits[index] == 0 ? 1 : childValidVisits[index];
     }
 
     /**
-     * Uses plain java loop instead of streams for performance
-     * (this is called often enough it can make a measurable difference)
+     * The total value (to the specified player) of all the children reached by this action
      */
     public double actionTotValue(AbstractAction action, int playerId) {
-        double retValue = 0.0;
-        SingleTreeNode[] nodes = children.get(action);
-        if (nodes != null) {
-            for (SingleTreeNode node : nodes) {
-                if (node != null)
-                    retValue += node.totValue[playerId];
-            }
-        }
-        return retValue;
+        int index = indexOf(action);
+        return index == -1 ? 0.0 : childTotValue[index * totValue.length + playerId];
     }
 
-    private double actionSquaredValue(AbstractAction action, int playerId) {
-        double retValue = 0.0;
-        SingleTreeNode[] nodes = children.get(action);
-        if (nodes != null) {
-            for (SingleTreeNode node : nodes) {
-                if (node != null)
-                    retValue += node.totSquares[playerId];
-            }
-        }
+    /**
+     * Uses only by TreeStatistics and bestAction() after mctsSearch()
+     *
+     * @return the visits for each expanded action
+     */
+    int[] actionVisits() {
+        int expanded = 0;
+        for (int i = 0; i < nActions; i++)
+            if (childNodes[i] != null) expanded++;
+        int[] retValue = new int[expanded];
+        for (int i = 0, j = 0; i < nActions; i++)
+            if (childNodes[i] != null) retValue[j++] = childVisits[i];
         return retValue;
     }
 
     /**
-     * Uses only by TreeStatistics and bestAction() after mctsSearch()
-     * For this reason not converted to old-style java loop as there would be no performance gain
+     * @return The number of distinct actions that have been available at this node
      */
-    int[] actionVisits() {
-        return children.values().stream()
-                .filter(Objects::nonNull)
-                .mapToInt(arr -> Arrays.stream(arr).filter(Objects::nonNull).mapToInt(n -> n.nVisits).sum())
-                .toArray();
+    int actionCount() {
+        return nActions;
+    }
+
+    /**
+     * @return The child nodes reached by this action (one element per player to act next), or null if not expanded
+     */
+    SingleTreeNode[] childrenFor(AbstractAction action) {
+        int index = indexOf(action);
+        return index == -1 ? null : childNodes[index];
+    }
+
+    /**
+     * @return All the child nodes of this node
+     */
+    List<SingleTreeNode> expandedChildren() {
+        List<SingleTreeNode> retValue = new ArrayList<>();
+        for (int i = 0; i < nActions; i++) {
+            if (childNodes[i] != null)
+                for (SingleTreeNode child : childNodes[i])
+                    if (child != null) retValue.add(child);
+        }
+        return retValue;
     }
 
     /**
@@ -387,24 +621,31 @@ public class SingleTreeNode {
 
         SingleTreeNode cur = this;
         int actingPlayer = cur.decisionPlayer;
+        pathLength = 0;
 
         // Keep iterating while the state reached is not terminal and the depth of the tree is not exceeded
         while (cur.openLoopState.isNotTerminalForPlayer(actingPlayer) && cur.depth < params.maxTreeDepth && cur.actionsFromOpenLoopState.size() > 0) {
             List<AbstractAction> unexpanded = cur.unexpandedActions();
             if (!unexpanded.isEmpty()) {
+                // If the tree is full we roll out from here (the root is always expanded, so that we have some actions)
+                if (cur != this && treeIsFull())
+                    return cur;
                 // We have an unexpanded action
                 AbstractAction chosen = cur.expand(unexpanded);
                 AbstractGameState nextState = cur.openLoopState;
                 if (params.information == Closed_Loop) {
                     root.copyCount++;
-                    nextState = nextState.copy();
+                    nextState = nextState.copyForSearch();
                     // In Closed Loop why do we do this?
                     // Because OLS = state in this case, so we need to copy it before updating it and
                     // using it to populate a new node.
                 }
                 cur.advance(nextState, chosen, false);
                 // then create the new node
-                return cur.expandNode(chosen, nextState);
+                SingleTreeNode expanded = cur.expandNode(chosen, nextState);
+                if (transpositions != null)
+                    addToPath(cur, cur.indexOf(chosen));
+                return expanded;
             } else {
                 // Move to next child given by UCT function
                 AbstractAction chosen = cur.treePolicyAction(true);
@@ -414,6 +655,8 @@ public class SingleTreeNode {
                     // to pick it up in the next uct() call as we descend the tree
                     cur.advance(cur.openLoopState, chosen, false);
                 }
+                if (transpositions != null)
+                    addToPath(cur, cur.indexOf(chosen));
                 cur = cur.nextNodeInTree(chosen);
                 // else we keep cur, but will exit immediately
                 treeActions.add(new Pair<>(actingPlayer, chosen));
@@ -422,6 +665,54 @@ public class SingleTreeNode {
         return cur;
     }
 
+    /**
+     * @return true if the tree has as many nodes as it is allowed
+     */
+    private boolean treeIsFull() {
+        return root.nodeCount >= root.nodeLimit;
+    }
+
+    /**
+     * Prunes a full tree back to three-quarters of its limit, by removing the nodes below the least-visited nodes.
+     * The nodes pruned back to keep their statistics (and those of their actions), and become leaves that can be
+     * expanded again.
+     */
+    private void prune() {
+        List<SingleTreeNode> candidates = new ArrayList<>();
+        for (SingleTreeNode node : allNodesInTree())
+            if (node != this && !node.expandedChildren().isEmpty())
+                candidates.add(node);
+        candidates.sort(Comparator.comparingInt(n -> n.nVisits));
+        int target = nodeLimit / 4 * 3;
+        Deque<SingleTreeNode> below = new ArrayDeque<>();
+        for (SingleTreeNode node : candidates) {
+            if (nodeCount <= target)
+                break;
+            if (node.root == null)
+                continue;  // already pruned, from further up the tree
+            node.pushChildren(below);
+            Arrays.fill(node.childNodes, null);
+            while (!below.isEmpty()) {
+                SingleTreeNode removed = below.pop();
+                removed.pushChildren(below);
+                removed.root = null;
+                nodeCount--;
+                prunedNodes++;
+            }
+        }
+        pruneEvents++;
+    }
+
+    private void addToPath(SingleTreeNode node, int index) {
+        if (pathLength == pathNodes.length) {
+            pathNodes = Arrays.copyOf(pathNodes, pathLength * 2);
+            pathIndices = Arrays.copyOf(pathIndices, pathLength * 2);
+        }
+        pathNodes[pathLength] = node;
+        pathIndices[pathLength] = index;
+        pathLength++;
+    }
+
     protected List<AbstractAction> actionsToConsider(List<AbstractAction> allAvailable, int usedElsewhere) {
         if (!allAvailable.isEmpty() && params.progressiveWideningConstant >= 1.0) {
             int actionsToConsider = (int) Math.floor(params.progressiveWideningConstant * Math.pow(nVisits + 1, params.progressiveWideningExponent));
@@ -445,7 +736,18 @@ public class SingleTreeNode {
         List<AbstractAction> topActions = params.progressiveWideningConstant >= 1.0
                 ? actionsToConsider(actionsFromOpenLoopState, 0)
                 : actionsFromOpenLoopState;
-        List<AbstractAction> allUnexpanded = topActions.stream().filter(a -> children.get(a) == null).collect(toList());
+        List<AbstractAction> allUnexpanded = new ArrayList<>();
+        if (topActions == actionsFromOpenLoopState && params.progressiveWideningConstant < 1.0) {
+            for (int i = 0; i < actionIndicesFromOLS.length; i++) {
+                if (childNodes[actionIndicesFromOLS[i]] == null)
+                    allUnexpanded.add(actionsFromOpenLoopState.get(i));
+            }
+        } else {
+            for (AbstractAction action : topActions) {
+                if (childrenFor(action) == null)
+                    allUnexpanded.add(action);
+            }
+        }
         return actionsToConsider(allUnexpanded, topActions.size() - allUnexpanded.size());
     }
 
@@ -458,11 +760,12 @@ public class SingleTreeNode {
         // the expansion order will use the actionValueFunction (if it exists, or the MAST order if specified)
         // else pick a random unchosen action
 
-        Collections.shuffle(notChosen);
+        Collections.shuffle(notChosen, rnd);
 
         AbstractAction chosen = null;
 
-        ToDoubleBiFunction<AbstractAction, AbstractGameState> valueFunction = params.expansionPolicy == MAST ? MASTFunction : advantageFunction;
+        ToDoubleBiFunction<AbstractAction, AbstractGameState> valueFunction = params.expansionPolicy == MAST ? MASTFunction :
+                advantagesOfActionsFromOLS.isEmpty() ? null : (a, s) -> advantagesOfActionsFromOLS.getOrDefault(a, 0.0);
         if (valueFunction != null) {
             double bestValue = Double.NEGATIVE_INFINITY;
             for (AbstractAction action : notChosen) {
@@ -484,10 +787,21 @@ public class SingleTreeNode {
     protected SingleTreeNode expandNode(AbstractAction actionCopy, AbstractGameState nextState) {
         // then instantiate a new node
         int nextPlayer = params.opponentTreePolicy.selfOnlyTree ? decisionPlayer : nextState.getCurrentPlayer();
-        SingleTreeNode tn = SingleTreeNode.createChildNode(this, actionCopy, nextState, factory);
-        SingleTreeNode[] nodeArray = new SingleTreeNode[nextState.getNPlayers()];
-        nodeArray[nextPlayer] = tn; // we store this by id of the player who will take their turn next
-        children.put(actionCopy, nodeArray);
+        int index = indexOf(actionCopy);
+        if (index == -1)
+            index = addAction(actionCopy);
+        if (childNodes[index] == null)
+            childNodes[index] = new SingleTreeNode[nextState.getNPlayers()];
+        SingleTreeNode tn = root.transpositions == null ? null : root.transpositions.get(nextState);
+        if (tn != null) {
+            // we have reached this state by a different path; the node keeps its original parent
+            childNodes[index][nextPlayer] = tn;
+            return tn;
+        }
+        tn = SingleTreeNode.createChildNode(this, actionCopy, nextState, factory);
+        if (root.transpositions != null)
+            root.transpositions.put(tn.state, tn);
+        setChild(index, nextPlayer, tn); // we store this by id of the player who will take their turn next
         return tn;
     }
 
@@ -581,7 +895,8 @@ public class SingleTreeNode {
 
     protected SingleTreeNode nextNodeInTree(AbstractAction actionChosen) {
         // Only advance the state if this is open loop
-        SingleTreeNode[] nodeArray = children.get(actionChosen);
+        int index = indexOf(actionChosen);
+        SingleTreeNode[] nodeArray = childNodes[index];
         if (params.information == Closed_Loop) {
             // in this case we have determinism...there should just be a single child node in the array...so we get that
             Optional<SingleTreeNode> next = Arrays.stream(nodeArray).filter(Objects::nonNull).findFirst();
@@ -597,10 +912,10 @@ public class SingleTreeNode {
                 // need to create a new node - this is because we have a different player acting than expected
                 if (params.opponentTreePolicy.selfOnlyTree)
                     throw new AssertionError("Not sure this should be possible though");
-                nodeArray[nextPlayer] = SingleTreeNode.createChildNode(this, actionChosen.copy(), openLoopState, factory);
+                setChild(index, nextPlayer, SingleTreeNode.createChildNode(this, actionChosen.copy(), openLoopState, factory));
                 nextNode = nodeArray[nextPlayer];
             } else if (params.opponentTreePolicy.selfOnlyTree && nextNode.decisionPlayer != decisionPlayer) {
-                nodeArray[nextPlayer] = SingleTreeNode.createChildNode(this, actionChosen.copy(), openLoopState, factory);
+                setChild(index, nextPlayer, SingleTreeNode.createChildNode(this, actionChosen.copy(), openLoopState, factory));
                 nextNode = nodeArray[nextPlayer];
             } else {
                 // pick up the existing one, and set the state
@@ -612,6 +927,15 @@ public class SingleTreeNode {
     }
 
     private AbstractAction ucb(List<AbstractAction> availableActions) {
+        if (params.biasVisits <= 0 && params.opponentTreePolicy != OMA && params.opponentTreePolicy != OMA_All)
+            return ucbKernel(availableActions);
+        return ucbWithBiasTerms(availableActions);
+    }
+
+    /**
+     * UCB selection that also takes account of any OMA and progressive bias terms
+     */
+    AbstractAction ucbWithBiasTerms(List<AbstractAction> availableActions) {
         // Find child with highest UCB value
         AbstractAction bestAction = null;
         double bestValue = -Double.MAX_VALUE;
@@ -619,15 +943,19 @@ public class SingleTreeNode {
         double nodeValue = totValue[decisionPlayer] / nVisits;
         // nodeValue is the value of the state, V(s), and is used as a baseline when we use an Advantage function later
 
-        for (AbstractAction action : availableActions) {
-            SingleTreeNode[] childArray = children.get(action);
-            if (childArray == null)
+        // if we are considering all the available actions then we already know their indices
+        boolean indicesKnown = availableActions == actionsFromOpenLoopState && params.progressiveWideningConstant < 1.0;
+        for (int i = 0; i < availableActions.size(); i++) {
+            AbstractAction action = availableActions.get(i);
+            int index = indicesKnown ? actionIndicesFromOLS[i] : indexOf(action);
+            if (index == -1 || childNodes[index] == null)
                 throw new AssertionError("Should not be here with a null child array");
+            int valueIndex = index * totValue.length + decisionPlayer;
 
             // Find child value
-            double hvVal = actionTotValue(action, decisionPlayer);
+            double hvVal = childTotValue[valueIndex];
 
-            int actionVisits = actionVisits(action);
+            int actionVisits = childVisits[index];
             double childValue = hvVal / (actionVisits + params.epsilon);
 
             // consider OMA term
@@ -663,7 +991,7 @@ public class SingleTreeNode {
             }
 
             // default to standard UCB
-            int effectiveTotalVisits = validVisitsFor(action) + 1;
+            int effectiveTotalVisits = validVisitsFor(index) + 1;
             double explorationTerm = params.K * Math.sqrt(Math.log(effectiveTotalVisits) / (actionVisits + params.epsilon));
             // unless we are using a variant
             switch (params.treePolicy) {
@@ -673,13 +1001,13 @@ public class SingleTreeNode {
                 case UCB_Tuned:
                     double range = root.highReward - root.lowReward;
                     if (range < 1e-6) range = 1e-6;
-                    double meanSq = actionSquaredValue(action, decisionPlayer) / (actionVisits + params.epsilon);
+                    double meanSq = childTotSquares[valueIndex] / (actionVisits + params.epsilon);
                     double standardVar = 0.25;
                     if (params.normaliseRewards) {
                         // we also need to standardise the sum of squares to calculate the variance
                         meanSq = (meanSq
                                 + root.lowReward * root.lowReward
-                                - 2 * root.lowReward * actionTotValue(action, decisionPlayer) / (actionVisits + params.epsilon)
+                                - 2 * root.lowReward * hvVal / (actionVisits + params.epsilon)
                         ) / (range * range);
                     } else {
                         // we need to modify the standard variance as it is not on a 0..1 basis (which is where 0.25 comes from)
@@ -717,6 +1045,112 @@ public class SingleTreeNode {
         return bestAction;
     }
 
+    /**
+     * ucb() for the usual case, in which there is no OMA or progressive bias term. This gives the same result, but
+     * first gathers the statistics of the available actions into contiguous arrays, and then works out the scores
+     * in simple loops over these, one for each tree policy, with anything that is the same for all actions (such as
+     * the log of the visits to this node in Closed_Loop, and the bounds used to normalise rewards) worked out first.
+     * This keeps map look-ups and branches out of the arithmetic, which the JIT can then compile to tight (and
+     * where possible vectorised) code.
+     */
+    AbstractAction ucbKernel(List<AbstractAction> availableActions) {
+        int n = availableActions.size();
+        SingleTreeNode r = root;
+        if (r.kernelValues.length < n) {
+            int length = Math.max(n, 2 * r.kernelValues.length);
+            r.kernelValues = new double[length];
+            r.kernelSquares = new double[length];
+            r.kernelVisits = new double[length];
+            r.kernelTotals = new double[length];
+            r.kernelScores = new double[length];
+        }
+        double[] values = r.kernelValues;
+        double[] squares = r.kernelSquares;
+        double[] visits = r.kernelVisits;
+        double[] totals = r.kernelTotals;
+        double[] scores = r.kernelScores;
+
+        // gather
+        int nPlayers = totValue.length;
+        boolean indicesKnown = availableActions == actionsFromOpenLoopState && params.progressiveWideningConstant < 1.0;
+        for (int i = 0; i < n; i++) {
+            int index = indicesKnown ? actionIndicesFromOLS[i] : indexOf(availableActions.get(i));
+            if (index == -1 || childNodes[index] == null)
+                throw new AssertionError("Should not be here with a null child array");
+            values[i] = childTotValue[index * nPlayers + decisionPlayer];
+            squares[i] = childTotSquares[index * nPlayers + decisionPlayer];
+            visits[i] = childVisits[index];
+            totals[i] = validVisitsFor(index) + 1;
+        }
+
+        // mean values (in scores), normalised if required
+        double epsilon = params.epsilon;
+        for (int i = 0; i < n; i++)
+            scores[i] = values[i] / (visits[i] + epsilon);
+        double low = r.lowReward, high = r.highReward;
+        if (params.normaliseRewards) {
+            if (low < high) {
+                double range = high - low;
+                for (int i = 0; i < n; i++)
+                    scores[i] = (scores[i] - low) / range;
+            } else if (low == high) {
+                Arrays.fill(scores, 0, n, 0.0);
+            } else {
+                Utils.normalise(scores[0], low, high);  // throws the usual exception
+            }
+        }
+
+        // exploration terms
+        double K = params.K;
+        boolean sameTotals = params.information == Closed_Loop;
+        double logTotal = Math.log(nVisits + 1);
+        switch (params.treePolicy) {
+            case AlphaGo:
+                for (int i = 0; i < n; i++)
+                    scores[i] += K * Math.sqrt(totals[i]) / (visits[i] + 1.0);
+                break;
+            case UCB_Tuned:
+                double range = high - low;
+                if (range < 1e-6) range = 1e-6;
+                double standardVar = params.normaliseRewards ? 0.25 : Math.sqrt(range / 2.0);
+                for (int i = 0; i < n; i++) {
+                    double visitsPlus = visits[i] + epsilon;
+                    double meanSq = squares[i] / visitsPlus;
+                    if (params.normaliseRewards)
+                        meanSq = (meanSq + low * low - 2 * low * values[i] / visitsPlus) / (range * range);
+                    double logTotalVisits = sameTotals ? logTotal : Math.log(totals[i]);
+                    double variance = Math.max(0.0, meanSq - scores[i] * scores[i]);
+                    double minTerm = Math.min(standardVar, variance + Math.sqrt(2 * logTotalVisits / visitsPlus));
+                    scores[i] += K * Math.sqrt(logTotalVisits / visitsPlus * minTerm);
+                }
+                break;
+            default:
+                if (sameTotals) {
+                    for (int i = 0; i < n; i++)
+                        scores[i] += K * Math.sqrt(logTotal / (visits[i] + epsilon));
+                } else {
+                    for (int i = 0; i < n; i++)
+                        scores[i] += K * Math.sqrt(Math.log(totals[i]) / (visits[i] + epsilon));
+                }
+        }
+
+        // Apply small noise to break ties randomly, and pick the best
+        int best = -1;
+        double bestValue = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            double uctValue = noise(scores[i], epsilon, rnd.nextDouble());
+            if (Double.isNaN(uctValue))
+                throw new AssertionError("Numeric error calculating uctValue");
+            if (uctValue > bestValue) {
+                best = i;
+                bestValue = uctValue;
+            }
+        }
+        if (best == -1)
+            throw new AssertionError("We have a null value in UCT : shouldn't really happen!");
+        return availableActions.get(best);
+    }
+
     public double exp3Value(AbstractAction action) {
         double actionValue = actionTotValue(action, decisionPlayer);
         int actionVisits = actionVisits(action);
@@ -753,7 +1187,9 @@ public class SingleTreeNode {
         double regret = potentialValue - totValue[decisionPlayer];
         if (regret < 0.0 && params.treePolicy == MCTSEnums.TreePolicy.RM_Plus) {
             // in this case we set our regret to zero if it is negative
-            // by updating the node statistics
+            // by updating the node statistics (and those held for this node's action on the parent)
+            if (parent != null)
+                parent.childTotValue[indexInParent * totValue.length + decisionPlayer] += potentialValue - totValue[decisionPlayer];
             totValue[decisionPlayer] = potentialValue;
         }
         if (params.treePolicy == MCTSEnums.TreePolicy.Hedge) {
@@ -791,23 +1227,102 @@ public class SingleTreeNode {
      * @return - value of rollout.
      */
     protected double[] rollout(double[] startingValues, int lastActor) {
+        AbstractGameState rolloutState = openLoopState;
+        if (params.information == Closed_Loop && (params.rolloutLength > 0 || params.rolloutTermination != DEFAULT)) {
+            // the thinking here is that in openLoop we copy the state right at the root, and then use the forward
+            // model at each action. Hence the current state on the node is the one we have been using up to now.
+            /// Hence we do not need to copy it.
+            rolloutState = state.copyForSearch();
+            root.copyCount++;
+        }
+        return rollout(rolloutState, startingValues, lastActor);
+    }
+
+    /**
+     * Leaf parallelisation: params.leafRollouts rollouts from this node, one on this thread and the rest on the
+     * rollout workers of the root. The actions of all of them are added to root.actionsInRollout (for MAST), and the
+     * mean of their values is returned. The results are combined in a fixed order, so a search with a given seed
+     * gives the same tree however the threads are scheduled.
+     *
+     * @return - mean value of the rollouts.
+     */
+    private double[] leafParallelRollout(double[] startingValues, int lastActor) {
+        if (root.rolloutWorkers == null)
+            root.createRolloutWorkers();
+        // All the copies are taken before our own rollout starts, as in Open_Loop that changes openLoopState
+        AbstractGameState from = params.information == Closed_Loop ? state : openLoopState;
+        List<Future<double[]>> results = new ArrayList<>(root.rolloutWorkers.length);
+        for (SingleTreeNode worker : root.rolloutWorkers) {
+            AbstractGameState workerState = from.copyForSearch();
+            root.copyCount++;
+            worker.actionsInRollout.clear();
+            worker.fmCallsCount = 0;
+            results.add(root.rolloutExecutor.submit(() -> worker.rollout(workerState, startingValues, lastActor)));
+        }
+        double[] retValue = rollout(startingValues, lastActor);
+        try {
+            for (int i = 0; i < results.size(); i++) {
+                double[] result = results.get(i).get();
+                for (int p = 0; p < retValue.length; p++)
+                    retValue[p] += result[p];
+                SingleTreeNode worker = root.rolloutWorkers[i];
+                root.actionsInRollout.addAll(worker.actionsInRollout);
+                root.fmCallsCount += worker.fmCallsCount;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("MCTS rollout failed in worker thread", e.getCause());
+        }
+        for (int p = 0; p < retValue.length; p++)
+            retValue[p] /= params.leafRollouts;
+        return retValue;
+    }
+
+    /**
+     * Creates the detached nodes that run rollouts on the worker threads. Each has its own copy of the forward model
+     * and of the rollout/opponent policies (which are not thread-safe), seeded from our random number generator.
+     * The heuristic and the MAST statistics are shared; they are only read during rollouts.
+     */
+    private void createRolloutWorkers() {
+        rolloutWorkers = new SingleTreeNode[params.leafRollouts - 1];
+        for (int i = 0; i < rolloutWorkers.length; i++) {
+            SingleTreeNode worker = new SingleTreeNode();
+            worker.root = worker;
+            worker.params = params;
+            worker.heuristic = heuristic;
+            worker.decisionPlayer = decisionPlayer;
+            worker.forwardModel = forwardModel.copy();
+            worker.rnd = new Random(rnd.nextLong());
+            worker.opponentModels = new AbstractPlayer[opponentModels.length];
+            for (int p = 0; p < opponentModels.length; p++) {
+                AbstractPlayer model = opponentModels[p].copy();
+                model.setForwardModel(worker.forwardModel);
+                model.getParameters().actionSpace = params.actionSpace;
+                if (model instanceof IMASTUser)
+                    ((IMASTUser) model).setStats(MASTStatistics);
+                worker.opponentModels[p] = model;
+            }
+            worker.actionsInRollout = new ArrayList<>();
+            rolloutWorkers[i] = worker;
+        }
+    }
+
+    /**
+     * Perform a Monte Carlo rollout from the given state (which is changed by this).
+     *
+     * @return - value of rollout.
+     */
+    private double[] rollout(AbstractGameState rolloutState, double[] startingValues, int lastActor) {
         rolloutDepth = 0; // counting from end of tree
         lastActorInRollout = lastActor;
-        roundAtStartOfRollout = openLoopState.getRoundCounter();
-        turnAtStartOfRollout = openLoopState.getTurnCounter();
+        roundAtStartOfRollout = rolloutState.getRoundCounter();
+        turnAtStartOfRollout = rolloutState.getTurnCounter();
 
         // If rollouts are enabled, select actions for the rollout in line with the rollout policy
-        AbstractGameState rolloutState = openLoopState;
         if (params.rolloutLength > 0 || params.rolloutTermination != DEFAULT) {
             // even if rollout length is zero, we may rollout a few actions to reach the end of our turn, or the start of our next turn
-            if (params.information == Closed_Loop) {
-                // the thinking here is that in openLoop we copy the state right at the root, and then use the forward
-                // model at each action. Hence the current state on the node is the one we have been using up to now.
-                /// Hence we do not need to copy it.
-                rolloutState = state.copy();
-                root.copyCount++;
-            }
-
             AbstractAction next = null;
             while (!finishRollout(rolloutState)) {
                 List<AbstractAction> availableActions = forwardModel.computeAvailableActions(rolloutState, params.actionSpace);
@@ -874,66 +1389,251 @@ public class SingleTreeNode {
             if (n.root.highReward < stats.getMax())
                 n.root.highReward = stats.getMax();
         }
-        while (n != null) {
-            if (params.discardStateAfterEachIteration) {
-                n.openLoopState = null; // releases for Garbage Collection
-                if (n.depth > 0 && !params.maintainMasterState)
-                    n.state = null;
-            }
-            n.nVisits++;
-            // Here we look at actionsFromOpenLoopState to see which ones were valid
-            // when we passed through, and keep track of valid visits
-            if (params.information != Closed_Loop)
-                for (AbstractAction action : n.actionsFromOpenLoopState) {
-                    if (!n.nValidVisits.containsKey(action))
-                        n.nValidVisits.put(action, 1);
-                    else
-                        n.nValidVisits.put(action, n.nValidVisits.get(action) + 1);
+        double[] valueDelta = new double[result.length];
+        double[] squaresDelta = new double[result.length];
+        switch (params.opponentTreePolicy) {
+            case SelfOnly:
+                for (int j = 0; j < result.length; j++) {
+                    valueDelta[j] = result[root.decisionPlayer];
+                    squaresDelta[j] = squaredResults[root.decisionPlayer];
                 }
-            switch (params.opponentTreePolicy) {
-                case SelfOnly:
+                break;
+            case OneTree:
+            case MultiTree:
+            case OMA_All:
+            case OMA:
+                if (params.paranoid) {
+                    int paranoid = root.paranoidPlayer == -1 ? root.decisionPlayer : root.paranoidPlayer;
                     for (int j = 0; j < result.length; j++) {
-                        n.totValue[j] += result[root.decisionPlayer];
-                        n.totSquares[j] += squaredResults[root.decisionPlayer];
+                        valueDelta[j] = j == paranoid ? result[paranoid] : -result[paranoid];
+                        squaresDelta[j] = squaredResults[paranoid];
                     }
-                    break;
-                case OneTree:
-                case MultiTree:
-                case OMA_All:
-                case OMA:
-                    if (params.paranoid) {
-                        int paranoid = root.paranoidPlayer == -1 ? root.decisionPlayer : root.paranoidPlayer;
-                        for (int j = 0; j < result.length; j++) {
-                            if (j == paranoid) {
-                                n.totValue[j] += result[paranoid];
-                                n.totSquares[j] += squaredResults[paranoid];
-                            } else {
-                                n.totValue[j] -= result[paranoid];
-                                n.totSquares[j] += squaredResults[paranoid];
-                            }
-                        }
-                    } else {
-                        for (int j = 0; j < result.length; j++) {
-                            n.totValue[j] += result[j];
-                            n.totSquares[j] += squaredResults[j];
-                        }
-                    }
-                    break;
+                } else {
+                    valueDelta = result;
+                    squaresDelta = squaredResults;
+                }
+                break;
+        }
+        if (root.transpositions != null) {
+            // a node may have several parents, so we follow the path taken on this iteration
+            n.addVisit(valueDelta, squaresDelta);
+            for (int i = root.pathLength - 1; i >= 0; i--) {
+                SingleTreeNode from = root.pathNodes[i];
+                from.childVisits[root.pathIndices[i]]++;
+                from.addChildValues(root.pathIndices[i], valueDelta, squaresDelta, 1.0);
+                from.addVisit(valueDelta, squaresDelta);
+            }
+            return;
+        }
+        while (n != null) {
+            n.addVisit(valueDelta, squaresDelta);
+            if (n.parent != null) {
+                n.parent.childVisits[n.indexInParent]++;
+                n.parent.addChildValues(n.indexInParent, valueDelta, squaresDelta, 1.0);
             }
             n = n.parent;
         }
     }
 
+    private void addVisit(double[] valueDelta, double[] squaresDelta) {
+        if (params.discardStateAfterEachIteration) {
+            openLoopState = null; // releases for Garbage Collection
+            if (depth > 0 && !params.maintainMasterState)
+                state = null;
+        }
+        nVisits++;
+        // Here we look at actionsFromOpenLoopState to see which ones were valid
+        // when we passed through, and keep track of valid visits
+        if (params.information != Closed_Loop)
+            for (int index : actionIndicesFromOLS)
+                childValidVisits[index]++;
+        for (int j = 0; j < valueDelta.length; j++) {
+            totValue[j] += valueDelta[j];
+            totSquares[j] += squaresDelta[j];
+        }
+    }
+
+
+    /**
+     * Used for tree reuse. This follows the actions played since this tree was searched down through the children,
+     * and if it reaches a node at which the player now to act makes the decision, then that node is detached to be
+     * the root of a new tree (keeping all its statistics), with the current state.
+     *
+     * @param actionsPlayed - the actions played in the game since the decision at this root (including that one)
+     * @param state         - the current state of the game
+     * @return - the new root, or null if the actions played do not lead to a suitable node in this tree
+     */
+    SingleTreeNode subtreeAfter(List<AbstractAction> actionsPlayed, AbstractGameState state) {
+        SingleTreeNode node = findNode(actionsPlayed, 0, state.getCurrentPlayer());
+        if (node == null || node == this)
+            return null;
+        node.becomeRoot(this, state);
+        return node;
+    }
+
+    private SingleTreeNode findNode(List<AbstractAction> actions, int index, int player) {
+        if (index == actions.size())
+            return decisionPlayer == player && !terminalNode ? this : null;
+        SingleTreeNode[] nodes = childrenFor(actions.get(index));
+        if (nodes != null) {
+            // in Open_Loop there is one possible node per next player; we do not know who that was, so try each
+            for (SingleTreeNode child : nodes) {
+                if (child != null) {
+                    SingleTreeNode found = child.findNode(actions, index + 1, player);
+                    if (found != null)
+                        return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void becomeRoot(SingleTreeNode oldRoot, AbstractGameState newState) {
+        int depthChange = depth;
+        for (SingleTreeNode node : allNodesInTree()) {
+            node.root = this;
+            node.depth -= depthChange;
+            // nodes adopted from another tree in root-parallel search must use this player's models from now on
+            node.forwardModel = oldRoot.forwardModel;
+            node.opponentModels = oldRoot.opponentModels;
+            node.heuristic = oldRoot.heuristic;
+            node.rnd = oldRoot.rnd;
+            // an advantage function may have changed since the actions were cached
+            node.actionsCached = false;
+        }
+        parent = null;
+        actionToReach = null;
+        indexInParent = -1;
+        MASTStatistics = oldRoot.MASTStatistics;
+        MASTFunction = oldRoot.MASTFunction;
+        paranoidPlayer = oldRoot.paranoidPlayer;
+        lowReward = oldRoot.lowReward;
+        highReward = oldRoot.highReward;
+        fmCallsCount = 0;
+        copyCount = 0;
+        rolloutExecutor = oldRoot.rolloutExecutor;
+        nodeLimit = params.maxNodes > 0 ? params.maxNodes : Integer.MAX_VALUE;
+        prunedNodes = pruneEvents = 0;
+        round = newState.getRoundCounter();
+        turn = newState.getTurnCounter();
+        turnOwner = newState.getCurrentPlayer();
+        if (params.information == Closed_Loop) {
+            state = newState;
+        } else {
+            copyCount++;
+            state = newState.copy();
+        }
+        setActionsFromOpenLoopState(state);
+        // In Open_Loop this node may have been reached in states with different actions available; at the root only
+        // those actually available now are relevant, so we discard the others (and remove their statistics)
+        Set<AbstractAction> available = new HashSet<>(actionsFromOpenLoopState);
+        int nPlayers = totValue.length;
+        int retained = 0;
+        actionIndex.clear();
+        for (int i = 0; i < nActions; i++) {
+            if (!available.contains(childActions[i])) {
+                nVisits -= childVisits[i];
+                for (int p = 0; p < nPlayers; p++) {
+                    totValue[p] -= childTotValue[i * nPlayers + p];
+                    totSquares[p] -= childTotSquares[i * nPlayers + p];
+                }
+                continue;
+            }
+            childActions[retained] = childActions[i];
+            childNodes[retained] = childNodes[i];
+            childVisits[retained] = childVisits[i];
+            childValidVisits[retained] = childValidVisits[i];
+            System.arraycopy(childTotValue, i * nPlayers, childTotValue, retained * nPlayers, nPlayers);
+            System.arraycopy(childTotSquares, i * nPlayers, childTotSquares, retained * nPlayers, nPlayers);
+            actionIndex.put(childActions[retained], retained);
+            if (childNodes[retained] != null)
+                for (SingleTreeNode child : childNodes[retained])
+                    if (child != null) child.indexInParent = retained;
+            retained++;
+        }
+        Arrays.fill(childActions, retained, nActions, null);
+        Arrays.fill(childNodes, retained, nActions, null);
+        nActions = retained;
+        for (int i = 0; i < actionsFromOpenLoopState.size(); i++)
+            actionIndicesFromOLS[i] = indexOf(actionsFromOpenLoopState.get(i));
+        nodeCount = allNodesInTree().size();
+    }
+
+    /**
+     * Adds the statistics from the root of another tree to this one. The other tree must have been searched
+     * independently from the same state (in root-parallel search). Only the statistics of this root and its
+     * immediate children are updated, which is all that bestAction() needs; if the other tree has a child that
+     * this one does not, then that child (and its sub-tree) is adopted.
+     *
+     * @param other - the root of the other tree
+     */
+    void mergeRootStatistics(SingleTreeNode other) {
+        addStatistics(other);
+        fmCallsCount += other.fmCallsCount;
+        copyCount += other.copyCount;
+        rolloutActionsTaken += other.rolloutActionsTaken;
+        lowReward = Math.min(lowReward, other.lowReward);
+        highReward = Math.max(highReward, other.highReward);
+        int nPlayers = totValue.length;
+        for (int j = 0; j < other.nActions; j++) {
+            int index = indexOf(other.childActions[j]);
+            if (index == -1)
+                index = addAction(other.childActions[j]);
+            childVisits[index] += other.childVisits[j];
+            childValidVisits[index] += other.childValidVisits[j];
+            for (int p = 0; p < nPlayers; p++) {
+                childTotValue[index * nPlayers + p] += other.childTotValue[j * nPlayers + p];
+                childTotSquares[index * nPlayers + p] += other.childTotSquares[j * nPlayers + p];
+            }
+            SingleTreeNode[] theirs = other.childNodes[j];
+            if (theirs == null)
+                continue;
+            if (childNodes[index] == null)
+                childNodes[index] = new SingleTreeNode[theirs.length];
+            SingleTreeNode[] ours = childNodes[index];
+            for (int i = 0; i < theirs.length; i++) {
+                if (theirs[i] == null)
+                    continue;
+                if (ours[i] == null) {
+                    ours[i] = theirs[i];
+                    ours[i].parent = this;
+                    ours[i].indexInParent = index;
+                    adoptSubtree(ours[i]);
+                } else {
+                    ours[i].addStatistics(theirs[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * The nodes of a subtree taken over from another tree now belong to this one, and use this tree's models from
+     * now on (as in becomeRoot)
+     */
+    private void adoptSubtree(SingleTreeNode subtreeRoot) {
+        for (SingleTreeNode node : subtreeRoot.allNodesInTree()) {
+            node.root = root;
+            node.forwardModel = forwardModel;
+            node.opponentModels = opponentModels;
+            node.heuristic = heuristic;
+            node.rnd = rnd;
+            root.nodeCount++;
+        }
+    }
+
+    private void addStatistics(SingleTreeNode other) {
+        nVisits += other.nVisits;
+        for (int i = 0; i < totValue.length; i++) {
+            totValue[i] += other.totValue[i];
+            totSquares[i] += other.totSquares[i];
+        }
+    }
 
     protected void MASTBackup(List<Pair<Integer, AbstractAction>> rolloutActions, double[] delta) {
         for (Pair<Integer, AbstractAction> pair : rolloutActions) {
             AbstractAction action = pair.b;
             int player = pair.a;
-            Object actionKey = params.MASTActionKey == null ? action.copy() : params.MASTActionKey.key(action);
-            Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(actionKey, new Pair<>(0, 0.0));
-            stats.a++;  // visits
-            stats.b += delta[player];   // value
-            MASTStatistics.get(player).put(actionKey, stats);
+            MASTStatistics.update(player, action, delta[player]);
         }
     }
 
@@ -960,14 +1660,15 @@ public class SingleTreeNode {
             // (and this is good, as it throws an error as a bug-check if this is not true).
             bestAction = treePolicyAction(false);
         } else {
-            for (AbstractAction action : children.keySet()) {
-                if (!children.containsKey(action)) {
+            for (int i = 0; i < nActions; i++) {
+                AbstractAction action = childActions[i];
+                if (indexOf(action) != i) {
                     throw new AssertionError("Hashcode / equals contract issue for " + action);
                 }
-                if (children.get(action) != null) {
-                    double childValue = actionVisits(action); // if ROBUST
+                if (childNodes[i] != null) {
+                    double childValue = childVisits[i]; // if ROBUST
                     if (policy == SIMPLE)
-                        childValue = actionTotValue(action, decisionPlayer) / (actionVisits(action) + params.epsilon);
+                        childValue = childTotValue[i * totValue.length + decisionPlayer] / (childVisits[i] + params.epsilon);
 
                     // Apply small noise to break ties randomly
                     childValue = noise(childValue, params.epsilon, rnd.nextDouble());
@@ -984,7 +1685,9 @@ public class SingleTreeNode {
         if (bestAction == null) {
             if (nVisits == 1) {
 //                System.out.println("Only one visit to root node - insufficient information - hopefully due to JVM warming up");
-                bestAction = children.keySet().stream().findFirst().orElseThrow(() -> new AssertionError("No children"));
+                if (nActions == 0)
+                    throw new AssertionError("No children");
+                bestAction = childActions[0];
             } else
                 throw new AssertionError("Unexpected - no selection made.");
         }
@@ -1010,8 +1713,16 @@ public class SingleTreeNode {
         return totValue;
     }
 
+    /**
+     * This builds a new map on each call, so is intended for analysis of the tree rather than for use in search
+     *
+     * @return A map from each action seen at this node to its child nodes (or null if not yet expanded)
+     */
     public Map<AbstractAction, SingleTreeNode[]> getChildren() {
-        return children;
+        Map<AbstractAction, SingleTreeNode[]> retValue = new LinkedHashMap<>();
+        for (int i = 0; i < nActions; i++)
+            retValue.put(childActions[i], childNodes[i]);
+        return retValue;
     }
 
     public AbstractAction getActionToReach() {
@@ -1059,15 +1770,15 @@ public class SingleTreeNode {
     public List<SingleTreeNode> allNodesInTree() {
         List<SingleTreeNode> retValue = new ArrayList<>();
         Queue<SingleTreeNode> nodeQueue = new ArrayDeque<>();
+        // with transpositions a node can be reached by more than one path
+        Set<SingleTreeNode> seen = root.transpositions == null ? null : Collections.newSetFromMap(new IdentityHashMap<>());
         nodeQueue.add(this);
         while (!nodeQueue.isEmpty()) {
             SingleTreeNode node = nodeQueue.poll();
+            if (seen != null && !seen.add(node))
+                continue;
             retValue.add(node);
-            nodeQueue.addAll(node.getChildren().values().stream()
-                    .filter(Objects::nonNull)
-                    .flatMap(Arrays::stream)
-                    .filter(Objects::nonNull)
-                    .collect(toList()));
+            nodeQueue.addAll(node.expandedChildren());
         }
         return retValue;
     }
@@ -1085,17 +1796,16 @@ public class SingleTreeNode {
                     .collect(joining(", "));
         }
         retValue.append(String.format("%d total visits, value %s, with %d children, depth %d, FMCalls %d: \n",
-                nVisits, valueString, children.size(), depth, fmCallsCount));
+                nVisits, valueString, nActions, depth, fmCallsCount));
         // sort all actions by visit count
-        List<AbstractAction> sortedActions = children.keySet().stream()
-                .filter(Objects::nonNull)
+        List<AbstractAction> sortedActions = Arrays.stream(childActions, 0, nActions)
                 .sorted(Comparator.comparingInt(a -> -actionVisits(a)))
                 .collect(toList());
 
         for (AbstractAction action : sortedActions) {
             String actionName = action.toString();
             int actionVisits = actionVisits(action);
-            int effectiveVisits = validVisitsFor(action);
+            int effectiveVisits = validVisitsFor(indexOf(action));
             if (actionName.length() > 50)
                 actionName = actionName.substring(0, 50);
             valueString = String.format("%.2f", actionTotValue(action, decisionPlayer) / actionVisits);
@@ -0,0 +1,83 @@
+package players.mcts;
+
+import core.AbstractGameState;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded map from game states to the nodes that hold them. This is used by Closed_Loop MCTS so that all the paths
+ * through the tree that reach the same state (using AbstractGameState equals() and getZobristHash()) share a single
+ * node, and hence its statistics and the sub-tree below it.
+ * <p>
+ * Once the table holds maxSize states, the least recently used one is evicted whenever a new one is added. This
+ * only removes the state from the table: the node stays in the tree, but any later path to the same state will
+ * be given a new node.
+ */
+class TranspositionTable {
+
+    private final Map<StateKey, SingleTreeNode> nodes;
+    private int hits;
+
+    TranspositionTable(int maxSize) {
+        nodes = new LinkedHashMap<StateKey, SingleTreeNode>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StateKey, SingleTreeNode> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the node already in the tree for this state, or null if there is none
+     */
+    SingleTreeNode get(AbstractGameState state) {
+        SingleTreeNode retValue = nodes.get(new StateKey(state));
+        if (retValue != null)
+            hits++;
+        return retValue;
+    }
+
+    /**
+     * @param state this must not be changed afterwards (in Closed_Loop it is the state held on the node)
+     */
+    void put(AbstractGameState state, SingleTreeNode node) {
+        nodes.put(new StateKey(state), node);
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return the number of times that a transposition has been found
+     */
+    int hits() {
+        return hits;
+    }
+
+    /**
+     * Uses the Zobrist hash of the state, which is much cheaper than hashCode() for games that support it
+     */
+    private static final class StateKey {
+        final AbstractGameState state;
+        final long hash;
+
+        StateKey(AbstractGameState state) {
+            this.state = state;
+            this.hash = state.getZobristHash();
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StateKey)) return false;
+            StateKey other = (StateKey) o;
+            return hash == other.hash && state.equals(other.state);
+        }
+    }
+}
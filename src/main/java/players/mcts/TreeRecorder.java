@@ -89,10 +89,7 @@ public class TreeRecorder {
                 fileWriter.write(output.toString());
 
                 // add children of current node to queue
-                for (SingleTreeNode child : node.children.values().stream()
-                        .filter(Objects::nonNull)
-                        .flatMap(Arrays::stream)
-                        .filter(Objects::nonNull)
+                for (SingleTreeNode child : node.expandedChildren().stream()
                         .filter(n -> n.getVisits() >= visitThreshold)
                         .collect(toList())) {
                     if (child != null)
@@ -21,6 +21,9 @@ public class TreeStatistics {
     final public int maxActionsAtNode;
     final public double meanActionsAtNode;
     final public int oneActionNodes;
+    // nodes removed from the tree by pruning during the last search (MCTSParams.pruneTree), and how often it was pruned
+    final public int prunedNodes;
+    final public int pruneEvents;
 
     public TreeStatistics(SingleTreeNode root) {
         Queue<SingleTreeNode> nodeQueue = new ArrayDeque<>();
@@ -36,32 +39,33 @@ public class TreeStatistics {
         int maxActions = 0;
         int totalActions = 0;
         int oneAction = 0;
+        // with transpositions a node can be reached by more than one path
+        Set<SingleTreeNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
         while (!nodeQueue.isEmpty()) {
             SingleTreeNode node = nodeQueue.poll();
+            if (!seen.add(node))
+                continue;
             if (node.depth < maxDepth) {
                 nodesAtDepth[node.depth]++;
                 if (node.terminalNode)
                     gameTerminalNodesAtDepth[node.depth]++;
-                totalActions += node.children.size();
-                if (node.children.size() == 1)
+                int nActions = node.actionCount();
+                totalActions += nActions;
+                if (nActions == 1)
                     oneAction++;
-                if (node.children.size() > maxActions)
-                    maxActions = node.children.size();
-                for (SingleTreeNode child : node.children.values().stream()
-                        .filter(Objects::nonNull)
-                        .flatMap(Arrays::stream)
-                        .filter(Objects::nonNull)
-                        .collect(toList())) {
-                    if (child != null)
-                        nodeQueue.add(child);
-                }
-                if (node.children.values().stream().allMatch(Objects::isNull))
+                if (nActions > maxActions)
+                    maxActions = nActions;
+                List<SingleTreeNode> children = node.expandedChildren();
+                nodeQueue.addAll(children);
+                if (children.isEmpty())
                     leavesAtDepth[node.depth]++;
             }
             if (node.depth > greatestDepth)
                 greatestDepth = node.depth;
         }
 
+        prunedNodes = root.prunedNodes;
+        pruneEvents = root.pruneEvents;
         maxActionsAtNode = maxActions;
         depthReached = greatestDepth;
         totalNodes = Arrays.stream(nodesAtDepth).sum();
@@ -86,6 +90,8 @@ public class TreeStatistics {
         List<String> leafDist = Arrays.stream(leafDistribution).mapToObj(n -> String.format("%2.0f%%", n * 100.0)).collect(toList());
         retValue.append(String.format("\tNodes  by depth: %s\n", String.join(", ", nodeDist)));
         retValue.append(String.format("\tLeaves by depth: %s\n", String.join(", ", leafDist)));
+        if (pruneEvents > 0)
+            retValue.append(String.format("\t%d nodes pruned in %d events\n", prunedNodes, pruneEvents));
 
         return retValue.toString();
     }
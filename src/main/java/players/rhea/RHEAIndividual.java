@@ -35,7 +35,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
         this.rolloutPolicy = rolloutPolicy;
 
         // Rollout with random actions and assign fitness value
-        gameStates[0] = gs.copy();
+        gameStates[0] = gs.copyForSearch();
         rollout(fm, 0, playerID, true);
     }
 
@@ -103,7 +103,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
         double delta = 0;
         double previousScore = 0;
         int fmCalls = 0, copyCalls = 0;
-        AbstractGameState gs = gameStates[startIndex].copy();
+        AbstractGameState gs = gameStates[startIndex].copyForSearch();
 
         // This lot are a local record for use in debugging; Very useful, with no compute overhead for keeping a local copy
         AbstractGameState[] oldGameStates = new AbstractGameState[gameStates.length];
@@ -126,7 +126,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
             if (gs.isNotTerminal()) {
                 // is the action valid
                 AbstractAction action;
-                AbstractGameState gsCopy = gs.copy();
+                AbstractGameState gsCopy = gs.copyForSearch();
                 copyCalls++;
                 List<AbstractAction> currentActions = fm.computeAvailableActions(gsCopy, rolloutPolicy.getParameters().actionSpace);
                 availableActions[i] = currentActions;
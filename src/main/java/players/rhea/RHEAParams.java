@@ -89,7 +89,7 @@ public class RHEAParams extends PlayerParameters
 
     @Override
     public RHEAPlayer instantiate() {
-        return new RHEAPlayer(this);
+        return new RHEAPlayer((RHEAParams) this.copy());
     }
 
     public IStateHeuristic getHeuristic() {
@@ -5,19 +5,18 @@ import core.AbstractPlayer;
 import core.actions.AbstractAction;
 import players.PlayerConstants;
 import players.mcts.MASTPlayer;
+import players.mcts.MASTTable;
 import players.simple.RandomPlayer;
 import utilities.ElapsedCpuTimer;
 import utilities.Pair;
-import utilities.Utils;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class RHEAPlayer extends AbstractPlayer {
     private static final AbstractPlayer randomPlayer = new RandomPlayer();
     private final Random randomGenerator;
     RHEAParams params;
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
+    MASTTable MASTStatistics; // (player, action) -> (visits, totValue)
     protected List<RHEAIndividual> population = new ArrayList<>();
     // Budgets
     protected double timePerIteration = 0, timeTaken = 0, initTime = 0;
@@ -44,9 +43,7 @@ public class RHEAPlayer extends AbstractPlayer {
 
     @Override
     public void initializePlayer(AbstractGameState state) {
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            MASTStatistics.add(new HashMap<>());
+        MASTStatistics = new MASTTable(null);
         population = new ArrayList<>();
     }
 
@@ -61,16 +58,11 @@ public class RHEAPlayer extends AbstractPlayer {
         nonRepairCount = 0;
 
         if (params.useMAST) {
-            if (MASTStatistics == null) {
-                MASTStatistics = new ArrayList<>();
-                for (int i = 0; i < stateObs.getNPlayers(); i++)
-                    MASTStatistics.add(new HashMap<>());
-            } else {
-                MASTStatistics = MASTStatistics.stream()
-                        .map(m -> Utils.decay(m, params.discountFactor))
-                        .collect(Collectors.toList());
-            }
-            mastPlayer = new MASTPlayer(null, 1.0, 0.0, System.currentTimeMillis(), 0.0);
+            if (MASTStatistics == null)
+                MASTStatistics = new MASTTable(null);
+            else
+                MASTStatistics.decay(params.discountFactor);
+            mastPlayer = new MASTPlayer(1.0, 0.0, System.currentTimeMillis(), 0.0);
             mastPlayer.setStats(MASTStatistics);
         }
         // Initialise individuals
@@ -80,7 +72,7 @@ public class RHEAPlayer extends AbstractPlayer {
                 if (!budgetLeft(timer)) break;
                 System.arraycopy(genome.actions, 1, genome.actions, 0, genome.actions.length - 1);
                 // we shift all actions along, and then rollout with repair
-                genome.gameStates[0] = stateObs.copy();
+                genome.gameStates[0] = stateObs.copyForSearch();
                 Pair<Integer, Integer> calls = genome.rollout(getForwardModel(), 0, getPlayerID(), true);
                 fmCalls += calls.a;
                 copyCalls += calls.b;
@@ -282,10 +274,7 @@ public class RHEAPlayer extends AbstractPlayer {
             AbstractAction action = rolloutActions[i];
             if (action == null)
                 break;
-            Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(action, new Pair<>(0, 0.0));
-            stats.a++;  // visits
-            stats.b += delta;   // value
-            MASTStatistics.get(player).put(action.copy(), stats);
+            MASTStatistics.update(player, action, delta);
         }
     }
 
@@ -24,7 +24,7 @@ public class Individual implements Comparable {
         this.discountFactor = discountFactor;
         actions = new AbstractAction[L];
         gameStates = new AbstractGameState[L+1];
-        gameStates[0] = gs.copy();
+        gameStates[0] = gs.copyForSearch();
         this.heuristic = heuristic;
 
         // Rollout with random actions and assign fitness value
@@ -40,7 +40,7 @@ public class Individual implements Comparable {
 
         for (int i = 0; i < length; i++){
             actions[i] = I.actions[i].copy();
-            gameStates[i] = I.gameStates[i].copy();
+            gameStates[i] = I.gameStates[i].copyForSearch();
         }
 
         value = I.value;
@@ -105,7 +105,7 @@ public class Individual implements Comparable {
             // Length of individual is updated depending on if it reaches a terminal game state
             if (gs.isNotTerminal()) {
                 // Copy the game state
-                AbstractGameState gsCopy = gs.copy();
+                AbstractGameState gsCopy = gs.copyForSearch();
                 List<AbstractAction> currentActions = fm.computeAvailableActions(gsCopy);
                 AbstractAction action = null;
                 if (currentActions.size() > 0) {
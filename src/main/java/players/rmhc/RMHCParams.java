@@ -36,6 +36,6 @@ public class RMHCParams extends PlayerParameters {
 
     @Override
     public RMHCPlayer instantiate() {
-        return new RMHCPlayer(this);
+        return new RMHCPlayer((RMHCParams) this.copy());
     }
 }
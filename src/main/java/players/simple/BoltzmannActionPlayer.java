@@ -61,6 +61,12 @@ public class BoltzmannActionPlayer extends AbstractPlayer {
         return Utils.sampleFrom(actionToValueMap, temperature, epsilon, rnd);
     }
 
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed);
+        rnd.setSeed(seed);
+    }
+
     @Override
     public AbstractPlayer copy() {
         return this; // stateless (except for rnd)
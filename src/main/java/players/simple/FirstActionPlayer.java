@@ -25,6 +25,6 @@ public class FirstActionPlayer extends AbstractPlayer{
 
     @Override
     public FirstActionPlayer copy() {
-        return this;
+        return new FirstActionPlayer();
     }
 }
@@ -46,7 +46,7 @@ public class OSLAPlayer extends AbstractPlayer {
         double[] valState = new double[actions.size()];
         for (int actionIndex = 0; actionIndex < actions.size(); actionIndex++) {
             AbstractAction action = actions.get(actionIndex);
-            AbstractGameState gsCopy = gs.copy();
+            AbstractGameState gsCopy = gs.copyForSearch();
 
             getForwardModel().next(gsCopy, action);
 
@@ -34,6 +34,12 @@ public class RandomPlayer extends AbstractPlayer {
         return "Random";
     }
 
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed);
+        rnd.setSeed(seed);
+    }
+
     @Override
     public RandomPlayer copy() {
         return new RandomPlayer(new Random(rnd.nextInt()));
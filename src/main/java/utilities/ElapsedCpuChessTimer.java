@@ -2,6 +2,36 @@ package utilities;
 
 public class ElapsedCpuChessTimer extends ElapsedCpuTimer {
 
+    /**
+     * A shared timer that ignores all updates and never runs out. This is used on game states copied purely for
+     * search (see AbstractGameState.copyForSearch()), where the forward model still updates the timers, but
+     * nothing ever reads them.
+     */
+    public static final ElapsedCpuChessTimer INERT = new ElapsedCpuChessTimer(0, 0, 0, 0, 0) {
+        @Override
+        public void reset() {}
+        @Override
+        public void pause() {}
+        @Override
+        public void resume() {}
+        @Override
+        public void incrementAction() {}
+        @Override
+        public void incrementTurn() {}
+        @Override
+        public void incrementRound() {}
+        @Override
+        public void incrementMileStone() {}
+        @Override
+        public boolean exceededMaxTime() {
+            return false;
+        }
+        @Override
+        public ElapsedCpuChessTimer copy() {
+            return this;
+        }
+    };
+
     private long timeRemaining;
     private final double incrementAction, incrementTurn, incrementRound, incrementMilestone;
 
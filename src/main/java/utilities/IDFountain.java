@@ -0,0 +1,42 @@
+package utilities;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe source of unique integer IDs, for use where many objects are created on several threads at once
+ * (for example Components, when several Games are run in parallel in the same JVM).
+ * <p>
+ * Each thread reserves a block of IDs from a shared counter, and then hands them out from that block without any
+ * further synchronisation. IDs are therefore unique across all threads, and increase in order of creation within
+ * any one thread; but they are not in order of creation across threads.
+ * If only one thread ever uses the fountain then IDs are 0, 1, 2, ... exactly as with a plain counter.
+ */
+public final class IDFountain {
+
+    private final AtomicInteger nextBlockStart = new AtomicInteger(0);
+    private final int blockSize;
+    // element 0 is the next ID to hand out on this thread; element 1 is the end of the block (exclusive)
+    private final ThreadLocal<int[]> currentBlock = ThreadLocal.withInitial(() -> new int[2]);
+
+    public IDFountain() {
+        this(1024);
+    }
+
+    public IDFountain(int blockSize) {
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Block size must be positive : " + blockSize);
+        this.blockSize = blockSize;
+    }
+
+    public int nextID() {
+        int[] block = currentBlock.get();
+        if (block[0] == block[1]) {
+            int start = nextBlockStart.getAndAdd(blockSize);
+            if (start < 0)
+                throw new AssertionError("IDFountain has run out of IDs");
+            block[0] = start;
+            block[1] = start + blockSize;
+        }
+        return block[0]++;
+    }
+}
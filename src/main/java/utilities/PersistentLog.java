@@ -0,0 +1,80 @@
+package utilities;
+
+import java.util.*;
+
+/**
+ * An immutable, append-only log. Appending returns a new log that shares all previous entries with the
+ * log it was appended to, so 'copying' a log is just copying the reference - O(1) regardless of length.
+ * <p>
+ * This is used for the action history on AbstractGameState, which is copied many thousands of times during
+ * search, but only read (in full) for debugging, GUI display or end-of-game analysis.
+ * Reading the contents with toList() is O(n).
+ *
+ * @param <T> type of the entries in the log
+ */
+public final class PersistentLog<T> implements Iterable<T> {
+
+    private static final PersistentLog<?> EMPTY = new PersistentLog<>(null, null, 0);
+
+    private final T last;
+    private final PersistentLog<T> prefix;
+    private final int size;
+
+    private PersistentLog(T last, PersistentLog<T> prefix, int size) {
+        this.last = last;
+        this.prefix = prefix;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentLog<T> empty() {
+        return (PersistentLog<T>) EMPTY;
+    }
+
+    /**
+     * @param item - the entry to add
+     * @return a new log with item added to the end. This log is unchanged.
+     */
+    public PersistentLog<T> append(T item) {
+        return new PersistentLog<>(item, this, size + 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the most recent entry in the log (or null if the log is empty)
+     */
+    public T last() {
+        return last;
+    }
+
+    /**
+     * @return a new, mutable, list of all entries in the order in which they were appended
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> toList() {
+        Object[] retValue = new Object[size];
+        PersistentLog<T> node = this;
+        for (int i = size - 1; i >= 0; i--) {
+            retValue[i] = node.last;
+            node = node.prefix;
+        }
+        return new ArrayList<>(Arrays.asList((T[]) retValue));
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return toList().iterator();
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
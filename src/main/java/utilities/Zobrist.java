@@ -0,0 +1,43 @@
+package utilities;
+
+/**
+ * Keys for Zobrist-style hashing of game states. A Zobrist hash is the XOR of one random key for each (position, value)
+ * pair in the state, so that changing the value at one position updates the hash in O(1): XOR out the key for the old
+ * value and XOR in the key for the new one.
+ * <p>
+ * Rather than a table of random numbers (which would need to know all possible positions and values in advance)
+ * the keys are generated by mixing the position and value with the SplitMix64 finaliser. This is as good as random for
+ * hashing, needs no memory and no allocation, and gives the same keys in every JVM.
+ */
+public final class Zobrist {
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return a well-mixed 64-bit value; any change to z changes about half the bits of the result
+     */
+    public static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param position - the position (cell index, position in a deck, etc.)
+     * @param value    - the hashCode() of whatever is at that position
+     * @return the key for value at position
+     */
+    public static long key(int position, int value) {
+        return mix(((long) position << 32) | (value & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Combines hashes of different parts of a state. Unlike XOR, this depends on the order in which the parts are
+     * combined, so two decks with swapped contents do not hash to the same value.
+     */
+    public static long combine(long hash, long value) {
+        return mix(hash * 31 + value);
+    }
+}
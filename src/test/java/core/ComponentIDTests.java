@@ -0,0 +1,46 @@
+package core;
+
+import core.components.Token;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class ComponentIDTests {
+
+    @Test
+    public void idsAreUniqueAcrossThreads() throws Exception {
+        int nThreads = 8;
+        int perThread = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        List<Future<int[]>> results = new ArrayList<>();
+        for (int t = 0; t < nThreads; t++) {
+            results.add(executor.submit(() -> {
+                int[] ids = new int[perThread];
+                for (int i = 0; i < perThread; i++)
+                    ids[i] = new Token("Test").getComponentID();
+                return ids;
+            }));
+        }
+        Set<Integer> allIDs = new HashSet<>();
+        for (Future<int[]> result : results) {
+            int[] ids = result.get();
+            for (int i = 0; i < ids.length; i++) {
+                assertTrue(allIDs.add(ids[i]));
+                if (i > 0)
+                    assertTrue(ids[i] > ids[i - 1]);
+            }
+        }
+        executor.shutdown();
+        assertEquals(nThreads * perThread, allIDs.size());
+    }
+
+    @Test
+    public void copiesKeepTheirID() {
+        Token token = new Token("Test");
+        assertEquals(token.getComponentID(), token.copy().getComponentID());
+        assertNotEquals(token.getComponentID(), new Token("Test").getComponentID());
+    }
+}
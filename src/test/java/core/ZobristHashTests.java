@@ -0,0 +1,193 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.components.*;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ZobristHashTests {
+
+    Random rnd = new Random(4021);
+
+    /**
+     * @return the hash of a new deck with the same components, which is calculated from scratch
+     */
+    private long freshHash(Deck<Card> deck) {
+        Deck<Card> fresh = new Deck<>("Fresh", CoreConstants.VisibilityMode.VISIBLE_TO_ALL);
+        fresh.setComponents(new ArrayList<>(deck.getComponents()));
+        return fresh.getZobristHash();
+    }
+
+    private void checkDeckHashFollowsChanges(Deck<Card> deck) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < 12; i++)
+            cards.add(new Card("Card " + i));
+        deck.getZobristHash();
+        for (int step = 0; step < 2000; step++) {
+            Card card = cards.get(rnd.nextInt(cards.size()));
+            int size = deck.getSize();
+            switch (rnd.nextInt(size == 0 ? 3 : 11)) {
+                case 0:
+                    deck.add(card);
+                    break;
+                case 1:
+                    deck.add(card, rnd.nextInt(size + 1));
+                    break;
+                case 2:
+                    Deck<Card> other = new Deck<>("Other", CoreConstants.VisibilityMode.VISIBLE_TO_ALL);
+                    other.add(card);
+                    other.add(cards.get(0));
+                    deck.add(other, rnd.nextInt(size + 1));
+                    break;
+                case 3:
+                    deck.addToBottom(card);
+                    break;
+                case 4:
+                    deck.draw();
+                    break;
+                case 5:
+                    deck.pick(rnd.nextInt(size));
+                    break;
+                case 6:
+                    deck.pickLast();
+                    break;
+                case 7:
+                    deck.remove(rnd.nextInt(size));
+                    break;
+                case 8:
+                    deck.setComponent(rnd.nextInt(size), card);
+                    break;
+                case 9:
+                    deck.shuffle(rnd);
+                    break;
+                case 10:
+                    if (rnd.nextInt(10) == 0)
+                        deck.clear();
+                    else
+                        deck.shuffle(0, rnd.nextInt(size + 1), rnd);
+                    break;
+            }
+            assertEquals(freshHash(deck), deck.getZobristHash());
+            assertEquals(deck.getZobristHash(), deck.copy().getZobristHash());
+        }
+    }
+
+    @Test
+    public void deckHashFollowsChanges() {
+        checkDeckHashFollowsChanges(new Deck<>("Test", CoreConstants.VisibilityMode.VISIBLE_TO_ALL));
+    }
+
+    @Test
+    public void partialObservableDeckHashFollowsChanges() {
+        PartialObservableDeck<Card> deck = new PartialObservableDeck<>("Test", 2);
+        checkDeckHashFollowsChanges(deck);
+        for (int i = 0; i < 10; i++)
+            deck.add(new Card("Card " + i), new boolean[]{i % 2 == 0, true});
+        deck.getZobristHash();
+        deck.shuffleVisible(rnd, 0, false);
+        assertEquals(freshHash(deck), deck.getZobristHash());
+        deck.shuffleAndResetVisibility(rnd);
+        assertEquals(freshHash(deck), deck.getZobristHash());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void deckComponentsCannotBeChangedBehindTheHash() {
+        Deck<Card> deck = new Deck<>("Test", CoreConstants.VisibilityMode.VISIBLE_TO_ALL);
+        deck.add(new Card("A"));
+        deck.getZobristHash();
+        deck.getComponents().add(new Card("B"));
+    }
+
+    @Test
+    public void deckHashDependsOnOrder() {
+        Card a = new Card("A"), b = new Card("B");
+        Deck<Card> deck = new Deck<>("Test", CoreConstants.VisibilityMode.VISIBLE_TO_ALL);
+        deck.add(a);
+        deck.add(b);
+        Deck<Card> other = new Deck<>("Test", CoreConstants.VisibilityMode.VISIBLE_TO_ALL);
+        other.add(b);
+        other.add(a);
+        assertNotEquals(deck.getZobristHash(), other.getZobristHash());
+        other.setComponent(0, b);
+        other.setComponent(1, a);
+        assertEquals(deck.getZobristHash(), other.getZobristHash());
+    }
+
+    @Test
+    public void gridBoardHashFollowsChanges() {
+        Token[] tokens = {null, new Token("x"), new Token("o")};
+        GridBoard<Token> board = new GridBoard<>(5, 4, tokens[0]);
+        board.getZobristHash();
+        for (int step = 0; step < 500; step++) {
+            board.setElement(rnd.nextInt(5), rnd.nextInt(4), tokens[rnd.nextInt(tokens.length)]);
+            Component[][] grid = new Component[4][];
+            for (int y = 0; y < 4; y++)
+                grid[y] = board.getGridValues()[y].clone();
+            assertEquals(new GridBoard<Token>(grid).getZobristHash(), board.getZobristHash());
+            assertEquals(board.getZobristHash(), board.copy().getZobristHash());
+        }
+        GridBoard<Token> refilled = board.emptyCopy();
+        for (int y = 0; y < 4; y++)
+            for (int x = 0; x < 5; x++)
+                refilled.setElement(x, y, board.getElement(x, y));
+        assertEquals(board.getZobristHash(), refilled.getZobristHash());
+    }
+
+    /**
+     * Plays a random game with two copies of the state. One has its hash kept up to date throughout, and this must
+     * always match the hash of the other as calculated from scratch.
+     * Some games create new cards (with new IDs) at the start of each round, after which the two copies are no longer
+     * equal, so for these we stop at the end of the first round.
+     */
+    private void checkStateHashFollowsGame(GameType gameType, int nPlayers, boolean firstRoundOnly) {
+        Game game = gameType.createGameInstance(nPlayers, 3028);
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        AbstractGameState tracked = game.getGameState().copy();
+        AbstractGameState untracked = game.getGameState().copy();
+        int decisions = 0;
+        do {
+            assertEquals(untracked, tracked);
+            assertEquals(untracked.copy().getZobristHash(), tracked.getZobristHash());
+            assertEquals(tracked.getZobristHash(), tracked.copy().getZobristHash());
+            List<AbstractAction> actions = forwardModel.computeAvailableActions(tracked);
+            AbstractAction action = actions.get(rnd.nextInt(actions.size()));
+            forwardModel.next(tracked, action.copy());
+            forwardModel.next(untracked, action.copy());
+            decisions++;
+        } while (tracked.isNotTerminal() && decisions < 500 && !(firstRoundOnly && tracked.getRoundCounter() > 0));
+    }
+
+    @Test
+    public void ticTacToe() {
+        checkStateHashFollowsGame(GameType.TicTacToe, 2, false);
+    }
+
+    @Test
+    public void connect4() {
+        checkStateHashFollowsGame(GameType.Connect4, 2, false);
+    }
+
+    @Test
+    public void dotsAndBoxes() {
+        checkStateHashFollowsGame(GameType.DotsAndBoxes, 3, false);
+    }
+
+    @Test
+    public void stratego() {
+        checkStateHashFollowsGame(GameType.Stratego, 2, false);
+    }
+
+    @Test
+    public void loveLetter() {
+        checkStateHashFollowsGame(GameType.LoveLetter, 4, true);
+    }
+
+    @Test
+    public void uno() {
+        checkStateHashFollowsGame(GameType.Uno, 3, true);
+    }
+}
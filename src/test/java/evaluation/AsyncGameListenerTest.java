@@ -0,0 +1,176 @@
+package evaluation;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.interfaces.IGameEvent;
+import evaluation.listeners.AsyncGameListener;
+import evaluation.listeners.AsyncGameListener.Snapshot;
+import evaluation.listeners.IGameListener;
+import evaluation.metrics.Event;
+import games.GameType;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AsyncGameListenerTest {
+
+    /**
+     * Records each event it sees, and the thread it was seen on
+     */
+    static class RecordingListener implements IGameListener {
+        final List<String> events = new ArrayList<>();
+        final Set<Thread> threads = new HashSet<>();
+        final long delay;
+        Game game;
+        int reports;
+
+        RecordingListener(long delay) {
+            this.delay = delay;
+        }
+
+        @Override
+        public void onEvent(Event event) {
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }
+            threads.add(Thread.currentThread());
+            events.add(event.type + ":" + event.state.getGameTick() + ":" + event.playerID + ":" + event.action);
+        }
+
+        @Override
+        public void report() {
+            reports++;
+        }
+
+        @Override
+        public void setGame(Game game) {
+            this.game = game;
+        }
+
+        @Override
+        public Game getGame() {
+            return game;
+        }
+    }
+
+    private void runGames(IGameListener listener, int nGames) {
+        Game game = GameType.LoveLetter.createGameInstance(2, 42);
+        game.addListener(listener);
+        for (int i = 0; i < nGames; i++) {
+            List<AbstractPlayer> players = Arrays.asList(new RandomPlayer(new Random(i)), new RandomPlayer(new Random(i + 100)));
+            game.reset(players, 42 + i);
+            game.run();
+        }
+    }
+
+    @Test
+    public void sameEventsAsSynchronousListener() {
+        RecordingListener synchronous = new RecordingListener(0);
+        runGames(synchronous, 3);
+        RecordingListener recorder = new RecordingListener(0);
+        AsyncGameListener async = new AsyncGameListener(recorder, 5, 2);
+        runGames(async, 3);
+        // each game is flushed at GAME_OVER, so everything has been processed as soon as the game finishes
+        assertEquals(synchronous.events, recorder.events);
+        assertFalse(recorder.threads.contains(Thread.currentThread()));
+        async.report();
+        assertEquals(1, recorder.reports);
+    }
+
+    @Test
+    public void slowListenerHoldsUpGame() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener blocked = new RecordingListener(0) {
+            @Override
+            public void onEvent(Event event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                super.onEvent(event);
+            }
+        };
+        AsyncGameListener async = new AsyncGameListener(blocked, 1, 1);
+        AbstractGameState state = GameType.LoveLetter.createGameInstance(2, 42).getGameState();
+        AtomicInteger submitted = new AtomicInteger();
+        Thread game = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                async.onEvent(Event.createEvent(Event.GameEvent.ACTION_CHOSEN, state, i));
+                submitted.incrementAndGet();
+            }
+        });
+        game.start();
+        // the listener is stuck on the first event, and the queue holds one more, so the third has to wait
+        game.join(500);
+        assertTrue(game.isAlive());
+        assertEquals(2, submitted.get());
+        release.countDown();
+        game.join(5000);
+        assertEquals(10, submitted.get());
+        async.flush();
+        assertEquals(10, blocked.events.size());
+    }
+
+    @Test
+    public void onlyEventsListenedToAreCaptured() {
+        RecordingListener synchronous = new RecordingListener(0);
+        runGames(synchronous, 1);
+        RecordingListener gameOverOnly = new RecordingListener(0) {
+            @Override
+            public boolean listensTo(IGameEvent eventType) {
+                return eventType == Event.GameEvent.GAME_OVER;
+            }
+        };
+        Snapshot counting = new Snapshot() {
+            int captured;
+
+            @Override
+            public Event capture(Event event) {
+                assertEquals(1, ++captured);
+                return AsyncGameListener.COPY_STATE.capture(event);
+            }
+        };
+        runGames(new AsyncGameListener(gameOverOnly, counting, 5, 2), 1);
+        assertEquals(Collections.singletonList(synchronous.events.get(synchronous.events.size() - 1)), gameOverOnly.events);
+    }
+
+    @Test
+    public void listenerCanBeReusedAfterReport() {
+        RecordingListener recorder = new RecordingListener(0);
+        AsyncGameListener async = new AsyncGameListener(recorder);
+        runGames(async, 1);
+        async.report();
+        int events = recorder.events.size();
+        runGames(async, 1);
+        async.report();
+        assertEquals(2, recorder.reports);
+        assertTrue(recorder.events.size() > events);
+    }
+
+    @Test
+    public void exceptionIsRethrownAtGameOver() {
+        RecordingListener failing = new RecordingListener(0) {
+            @Override
+            public void onEvent(Event event) {
+                throw new IllegalStateException("Test");
+            }
+        };
+        try {
+            runGames(new AsyncGameListener(failing), 1);
+            fail("Exception should have been rethrown");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
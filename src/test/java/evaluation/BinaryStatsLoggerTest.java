@@ -0,0 +1,207 @@
+package evaluation;
+
+import core.AbstractPlayer;
+import core.Game;
+import evaluation.listeners.StateFeatureListener;
+import evaluation.loggers.BinaryStatsLogger;
+import evaluation.loggers.BinaryStatsReader;
+import evaluation.loggers.FileStatsLogger;
+import evaluation.metrics.Event;
+import games.GameType;
+import games.loveletter.LLStateFeaturesReduced;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import players.learners.AbstractLearner;
+import players.simple.RandomPlayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class BinaryStatsLoggerTest {
+
+    File dir;
+
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("BinaryStatsLoggerTest").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : Objects.requireNonNull(dir.listFiles()))
+            assertTrue(file.delete());
+        assertTrue(dir.delete());
+    }
+
+    private String file(String name) {
+        return new File(dir, name).getPath();
+    }
+
+    private Map<String, Object> row(int a, double b) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("A", a);
+        data.put("B", b);
+        return data;
+    }
+
+    private void checkRoundTrip(boolean compress) {
+        BinaryStatsLogger logger = new BinaryStatsLogger(file("test.data"), compress, false);
+        logger.blockSize = 7;
+        for (int i = 0; i < 100; i++)
+            logger.record(row(i, i / 3.0));
+        logger.record(Collections.singletonMap("B", 2.5));  // A is missing
+        logger.processDataAndFinish();
+        assertEquals(101, logger.getRowsWritten());
+
+        BinaryStatsReader reader = new BinaryStatsReader(file("test.data"));
+        assertArrayEquals(new String[]{"A", "B"}, reader.getNames());
+        assertArrayEquals(new BinaryStatsLogger.ColumnType[]{BinaryStatsLogger.ColumnType.INT, BinaryStatsLogger.ColumnType.DOUBLE},
+                reader.getTypes());
+        assertEquals(101, reader.getRowCount());
+        double[][] rows = reader.getRows();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, rows[i][0], 0.0);
+            assertEquals(i / 3.0, rows[i][1], 0.0);
+        }
+        assertTrue(Double.isNaN(rows[100][0]));
+        assertEquals(2.5, reader.getColumn("B")[100], 0.0);
+    }
+
+    @Test
+    public void roundTripCompressed() {
+        checkRoundTrip(true);
+    }
+
+    @Test
+    public void roundTripUncompressed() {
+        checkRoundTrip(false);
+    }
+
+    @Test
+    public void onlyFullBlocksAreWrittenBeforeFinishing() {
+        BinaryStatsLogger logger = new BinaryStatsLogger(file("blocks.data"), true, false);
+        logger.blockSize = 7;
+        for (int i = 0; i < 10; i++) {
+            logger.record(row(i, 0.5));
+            logger.processDataAndNotFinish();  // as FeatureListener does at the end of each game
+        }
+        assertEquals(7, logger.getRowsWritten());
+        logger.processDataAndFinish();
+        assertEquals(10, logger.getRowsWritten());
+        assertEquals(10, new BinaryStatsReader(file("blocks.data")).getRowCount());
+    }
+
+    @Test
+    public void appendToExistingFile() {
+        for (int run = 0; run < 2; run++) {
+            BinaryStatsLogger logger = new BinaryStatsLogger(file("append.data"), true, true);
+            for (int i = 0; i < 10; i++)
+                logger.record(row(run * 10 + i, 0.5));
+            logger.processDataAndFinish();
+        }
+        BinaryStatsReader reader = new BinaryStatsReader(file("append.data"));
+        assertEquals(20, reader.getRowCount());
+        assertEquals(19.0, reader.getColumn("A")[19], 0.0);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void appendWithDifferentColumnsFails() {
+        BinaryStatsLogger logger = new BinaryStatsLogger(file("append.data"), true, true);
+        logger.record(row(1, 0.5));
+        logger.processDataAndFinish();
+        logger = new BinaryStatsLogger(file("append.data"), true, true);
+        logger.record(Collections.singletonMap("C", 1.0));
+        logger.processDataAndFinish();
+    }
+
+    @Test
+    public void longsAreNotTruncated() {
+        BinaryStatsLogger logger = new BinaryStatsLogger(file("long.data"));
+        long big = (1L << 40) + 3;
+        logger.record(Collections.singletonMap("L", big));
+        logger.processDataAndFinish();
+        BinaryStatsReader reader = new BinaryStatsReader(file("long.data"));
+        assertArrayEquals(new BinaryStatsLogger.ColumnType[]{BinaryStatsLogger.ColumnType.DOUBLE}, reader.getTypes());
+        assertEquals((double) big, reader.getColumn("L")[0], 0.0);
+    }
+
+    @Test
+    public void fileWithNoColumns() {
+        for (boolean compress : new boolean[]{true, false}) {
+            BinaryStatsLogger logger = new BinaryStatsLogger(file("empty.data"), compress, false);
+            for (int i = 0; i < 3; i++)
+                logger.record(new HashMap<>());
+            logger.processDataAndFinish();
+            BinaryStatsReader reader = new BinaryStatsReader(file("empty.data"));
+            assertEquals(0, reader.getNames().length);
+            assertEquals(3, reader.getRowCount());
+            assertEquals(0, reader.getRows()[2].length);
+        }
+    }
+
+    static class TestLearner extends AbstractLearner {
+        @Override
+        public void learnFrom(String... files) {
+            loadData(files);
+        }
+
+        @Override
+        public void writeToFile(String prefix) {
+        }
+
+        @Override
+        public String name() {
+            return "Test";
+        }
+
+        double[][] data() {
+            return dataArray;
+        }
+
+        double[][] target() {
+            return target;
+        }
+    }
+
+    @Test
+    public void learnerReadsSameDataAsFromTextFile() {
+        StateFeatureListener textListener = new StateFeatureListener(new LLStateFeaturesReduced(), Event.GameEvent.ACTION_CHOSEN, false);
+        textListener.setLogger(new FileStatsLogger(file("text.data"), "\t", false));
+        StateFeatureListener binaryListener = new StateFeatureListener(new LLStateFeaturesReduced(), Event.GameEvent.ACTION_CHOSEN, false);
+        binaryListener.setLogger(new BinaryStatsLogger(file("binary.data")));
+        for (int g = 0; g < 3; g++) {
+            Game game = GameType.LoveLetter.createGameInstance(2, 42 + g);
+            List<AbstractPlayer> players = Arrays.asList(new RandomPlayer(new Random(g)), new RandomPlayer(new Random(g + 100)));
+            game.reset(players);
+            game.addListener(textListener);
+            game.addListener(binaryListener);
+            game.run();
+        }
+        textListener.report();
+        binaryListener.report();
+        assertTrue(BinaryStatsReader.isBinaryStatsFile(file("binary.data")));
+        assertFalse(BinaryStatsReader.isBinaryStatsFile(file("text.data")));
+
+        for (AbstractLearner.Target target : AbstractLearner.Target.values()) {
+            TestLearner fromText = new TestLearner();
+            fromText.setTarget(target);
+            fromText.learnFrom(file("text.data"));
+            TestLearner fromBinary = new TestLearner();
+            fromBinary.setTarget(target);
+            fromBinary.learnFrom(file("binary.data"));
+            assertTrue(fromText.data().length > 10);
+            assertEquals(fromText.data().length, fromBinary.data().length);
+            for (int i = 0; i < fromText.data().length; i++) {
+                // the text file only has values to 3 significant figures
+                for (int j = 0; j < fromText.data()[i].length; j++)
+                    assertEquals(fromText.data()[i][j], fromBinary.data()[i][j], 0.005 * Math.abs(fromText.data()[i][j]) + 1e-9);
+                assertEquals(fromText.target()[i][0], fromBinary.target()[i][0], 0.005 * Math.abs(fromText.target()[i][0]) + 1e-9);
+            }
+        }
+    }
+}
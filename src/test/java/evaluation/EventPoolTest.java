@@ -0,0 +1,78 @@
+package evaluation;
+
+import core.Game;
+import evaluation.listeners.IGameListener;
+import evaluation.metrics.Event;
+import org.junit.Test;
+
+import java.util.*;
+
+import static evaluation.metrics.Event.GameEvent.*;
+import static org.junit.Assert.*;
+
+public class EventPoolTest {
+
+    /**
+     * Records the events it sees (and then changes them), and optionally sends a further event from within onEvent()
+     */
+    static class Recorder implements IGameListener {
+        final List<Event> events = new ArrayList<>();
+        final List<String> seen = new ArrayList<>();
+        Runnable nested;
+
+        @Override
+        public void onEvent(Event event) {
+            events.add(event);
+            seen.add(event.type + ":" + event.playerID);
+            if (nested != null && event.type == ACTION_CHOSEN)
+                nested.run();
+            event.type = GAME_EVENT;
+            event.playerID = 99;
+        }
+
+        @Override
+        public void report() {
+        }
+
+        @Override
+        public void setGame(Game game) {
+        }
+
+        @Override
+        public Game getGame() {
+            return null;
+        }
+    }
+
+    @Test
+    public void eachListenerSeesTheEventAsSent() {
+        Event.Pool pool = new Event.Pool();
+        Recorder first = new Recorder(), second = new Recorder();
+        List<IGameListener> listeners = Arrays.asList(first, second);
+        pool.send(listeners, ACTION_CHOSEN, null, null, 1);
+        pool.send(listeners, ACTION_TAKEN, null, null, 0);
+        assertEquals(Arrays.asList("ACTION_CHOSEN:1", "ACTION_TAKEN:0"), first.seen);
+        assertEquals(first.seen, second.seen);
+        // the same Event is used each time
+        assertSame(first.events.get(0), first.events.get(1));
+        assertSame(first.events.get(0), second.events.get(0));
+    }
+
+    @Test
+    public void nestedEventsUseADifferentEvent() {
+        Event.Pool pool = new Event.Pool();
+        Recorder first = new Recorder(), second = new Recorder();
+        List<IGameListener> listeners = Arrays.asList(first, second);
+        first.nested = () -> pool.send(listeners, TURN_OVER, null, null, 2);
+        pool.send(listeners, ACTION_CHOSEN, null, null, 1);
+        assertEquals(Arrays.asList("ACTION_CHOSEN:1", "TURN_OVER:2"), first.seen);
+        assertEquals(Arrays.asList("TURN_OVER:2", "ACTION_CHOSEN:1"), second.seen);
+        assertNotSame(second.events.get(0), second.events.get(1));
+    }
+
+    @Test
+    public void gameEventValuesAreShared() {
+        assertSame(GAME_OVER.getValues(), ACTION_TAKEN.getValues());
+        assertEquals(Event.GameEvent.values().length, GAME_OVER.getValues().size());
+    }
+}
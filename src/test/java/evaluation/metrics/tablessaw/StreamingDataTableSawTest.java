@@ -0,0 +1,152 @@
+package evaluation.metrics.tablessaw;
+
+import core.AbstractPlayer;
+import core.Game;
+import evaluation.listeners.MetricsGameListener;
+import evaluation.metrics.AbstractMetric;
+import evaluation.metrics.GameMetrics;
+import evaluation.metrics.IDataLogger;
+import games.GameType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static evaluation.metrics.IDataLogger.ReportType.*;
+import static org.junit.Assert.*;
+
+public class StreamingDataTableSawTest {
+
+    File dir;
+
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("StreamingDataTableSawTest").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : Objects.requireNonNull(dir.listFiles()))
+            assertTrue(file.delete());
+        assertTrue(dir.delete());
+    }
+
+    private AbstractMetric[] metrics() {
+        return new AbstractMetric[]{new GameMetrics.Actions(), new GameMetrics.StateSpace(), new GameMetrics.GameDuration(),
+                new GameMetrics.Winner()};
+    }
+
+    private MetricsGameListener listener(AbstractMetric[] metrics, boolean stream) {
+        MetricsGameListener listener = new MetricsGameListener(IDataLogger.ReportDestination.ToFile,
+                new IDataLogger.ReportType[]{RawData, Summary}, metrics);
+        if (stream)
+            listener.streamData();
+        return listener;
+    }
+
+    private void runGames(MetricsGameListener... listeners) {
+        Game game = GameType.LoveLetter.createGameInstance(2, 42);
+        List<AbstractPlayer> players = Arrays.asList(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2)));
+        game.reset(players, 42);
+        Set<String> names = new HashSet<>();
+        players.forEach(p -> names.add(p.toString()));
+        for (MetricsGameListener listener : listeners) {
+            listener.init(game, 2, names);
+            game.addListener(listener);
+        }
+        for (int i = 0; i < 5; i++) {
+            game.reset(players, 42 + i);
+            game.run();
+        }
+    }
+
+    /**
+     * The contents of a table, ignoring the order of rows and columns (which depends on the order in which
+     * categories and games are seen)
+     */
+    private List<String> contents(Table table) {
+        Table sorted = table.sortOn(table.column(0).name());
+        List<String> columns = new ArrayList<>();
+        for (int c = 0; c < sorted.columnCount(); c++) {
+            StringBuilder sb = new StringBuilder();
+            for (int r = 0; r < sorted.rowCount(); r++) {
+                Object value = sorted.column(c).get(r);
+                sb.append(value instanceof Double ? String.format("%.6g", (Double) value) : value).append(",");
+            }
+            columns.add(sb.toString());
+        }
+        Collections.sort(columns);
+        List<String> names = new ArrayList<>(table.columnNames());
+        Collections.sort(names);
+        columns.add(0, table.name() + " : " + names);
+        return columns;
+    }
+
+    @Test
+    public void sameSummariesAndRawDataAsDataTableSaw() throws IOException {
+        AbstractMetric[] fullMetrics = metrics();
+        AbstractMetric[] streamingMetrics = metrics();
+        runGames(listener(fullMetrics, false), listener(streamingMetrics, true));
+
+        TableSawDataProcessor fullProcessor = new TableSawDataProcessor();
+        StreamingDataProcessor streamingProcessor = new StreamingDataProcessor();
+        for (int m = 0; m < fullMetrics.length; m++) {
+            String metric = fullMetrics[m].getName();
+            IDataLogger fullData = fullMetrics[m].getDataLogger();
+            IDataLogger streamedData = streamingMetrics[m].getDataLogger();
+            assertTrue(fullData instanceof DataTableSaw);
+            assertTrue(streamedData instanceof StreamingDataTableSaw);
+
+            Map<String, List<Table>> expected = fullProcessor.getSummarisedData(fullData);
+            Map<String, List<Table>> actual = streamingProcessor.getSummarisedData(streamedData);
+            assertEquals(metric, expected.keySet(), actual.keySet());
+            for (String column : expected.keySet()) {
+                assertEquals(expected.get(column).size(), actual.get(column).size());
+                for (int i = 0; i < expected.get(column).size(); i++)
+                    assertEquals(metric + " " + column, contents(expected.get(column).get(i)), contents(actual.get(column).get(i)));
+            }
+
+            // and all the columns can be plotted
+            assertEquals(streamingMetrics[m].getColumnNames(), streamingProcessor.getFigures(streamedData).keySet());
+
+            File fullFile = new File(dir, "full.csv");
+            File streamedFile = new File(dir, "streamed.csv");
+            ((DataTableSaw) fullData).data.write().csv(fullFile);
+            assertTrue(((StreamingDataTableSaw) streamedData).writeRawData(streamedFile));
+            assertEquals(metric, Files.readAllLines(fullFile.toPath()), Files.readAllLines(streamedFile.toPath()));
+        }
+    }
+
+    @Test
+    public void rawDataIsWrittenInChunks() throws IOException {
+        AbstractMetric[] fullMetrics = metrics();
+        AbstractMetric[] streamingMetrics = metrics();
+        MetricsGameListener streaming = listener(streamingMetrics, false);
+        StreamingDataTableSaw logger = new StreamingDataTableSaw(streamingMetrics[0], true, 7);
+        streamingMetrics[0].setDataLogger(logger);
+        runGames(listener(fullMetrics, false), streaming);
+
+        File fullFile = new File(dir, "full.csv");
+        File streamedFile = new File(dir, "streamed.csv");
+        ((DataTableSaw) fullMetrics[0].getDataLogger()).data.write().csv(fullFile);
+        assertTrue(logger.writeRawData(streamedFile));
+        List<String> expected = Files.readAllLines(fullFile.toPath());
+        assertTrue(expected.size() > 20);
+        assertEquals(expected, Files.readAllLines(streamedFile.toPath()));
+        assertEquals(expected.size() - 1, logger.rows);
+    }
+
+    @Test
+    public void noRawDataUnlessRequested() {
+        AbstractMetric metric = new GameMetrics.GameDuration();
+        StreamingDataTableSaw logger = new StreamingDataTableSaw(metric);
+        assertFalse(logger.writeRawData(new File(dir, "none.csv")));
+        assertFalse(new File(dir, "none.csv").exists());
+    }
+}
@@ -0,0 +1,61 @@
+package evaluation.optimisation;
+
+import games.GameType;
+import ntbea.NTupleSystem;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Before;
+import org.junit.Test;
+import players.heuristics.WinOnlyHeuristic;
+import players.mcts.MCTSParams;
+import players.simple.RandomPlayer;
+
+import java.util.Collections;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.*;
+
+public class ParallelNTBEATest {
+
+    ITPSearchSpace searchSpace;
+
+    @Before
+    public void setup() throws Exception {
+        JSONObject json = (JSONObject) new JSONParser().parse("{\"class\" : \"players.mcts.MCTSParams\", " +
+                "\"K\" : [0.1, 1.0, 3.0], \"rolloutLength\" : [0, 3, 10], " +
+                "\"budget\" : 20, \"budgetType\" : \"BUDGET_ITERATIONS\"}");
+        searchSpace = new ITPSearchSpace(new MCTSParams(), json);
+    }
+
+    private GameEvaluator evaluator(long seed) {
+        return new GameEvaluator(GameType.TicTacToe, searchSpace, null, 2,
+                Collections.singletonList(new RandomPlayer()), seed, new WinOnlyHeuristic(), null, true);
+    }
+
+    @Test
+    public void evaluationTaskCanBeRunLater() throws Exception {
+        GameEvaluator direct = evaluator(23);
+        double first = direct.evaluate(new int[]{1, 1});
+        double second = direct.evaluate(new int[]{2, 0});
+
+        GameEvaluator deferred = evaluator(23);
+        Callable<Double> firstTask = deferred.evaluationTask(new int[]{1, 1});
+        Callable<Double> secondTask = deferred.evaluationTask(new int[]{2, 0});
+        assertEquals(2, deferred.nEvals());
+        // tasks are independent of each other, and of the order in which they are run
+        assertEquals(second, secondTask.call(), 0.0);
+        assertEquals(first, firstTask.call(), 0.0);
+    }
+
+    @Test
+    public void allEvaluationsAreAddedToModel() {
+        NTupleSystem model = new NTupleSystem(searchSpace);
+        model.addTuples();
+        ParallelNTupleBanditEA ea = new ParallelNTupleBanditEA(model, 1.0, 50, 4, 42);
+        GameEvaluator evaluator = evaluator(42);
+        double[] best = ea.runTrial(evaluator, 30);
+        assertEquals(30, evaluator.nEvals());
+        assertEquals(30, model.numberOfSamples());
+        assertEquals(2, best.length);
+    }
+}
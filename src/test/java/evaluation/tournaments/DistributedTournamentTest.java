@@ -0,0 +1,231 @@
+package evaluation.tournaments;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.actions.AbstractAction;
+import evaluation.RunArg;
+import evaluation.RunGames;
+import evaluation.listeners.IGameListener;
+import evaluation.listeners.MetricsGameListener;
+import evaluation.listeners.TournamentMetricsGameListener;
+import evaluation.metrics.AbstractMetric;
+import evaluation.metrics.DataRecorder;
+import evaluation.metrics.IMetricsCollection;
+import games.GameType;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import utilities.Pair;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static evaluation.tournaments.AbstractTournament.TournamentMode.*;
+import static org.junit.Assert.*;
+
+public class DistributedTournamentTest {
+
+    // Deterministic players (public, so that the workers can create them from JSON files)
+    public static class LastActionPlayer extends AbstractPlayer {
+        @Override
+        public AbstractAction _getAction(AbstractGameState gameState, List<AbstractAction> possibleActions) {
+            return possibleActions.get(possibleActions.size() - 1);
+        }
+
+        @Override
+        public LastActionPlayer copy() {
+            return new LastActionPlayer();
+        }
+    }
+
+    public static class MiddleActionPlayer extends LastActionPlayer {
+        @Override
+        public AbstractAction _getAction(AbstractGameState gameState, List<AbstractAction> possibleActions) {
+            return possibleActions.get(possibleActions.size() / 2);
+        }
+
+        @Override
+        public MiddleActionPlayer copy() {
+            return new MiddleActionPlayer();
+        }
+    }
+
+    // The metrics for the listeners, which the workers create from the name of this class
+    public static class TestMetrics implements IMetricsCollection {
+        public static class ActionsPerGame extends ParallelTournamentTest.ActionsPerGame {
+        }
+    }
+
+    File dir;
+    String[] workerArgs;
+
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("DistributedTournamentTest").toFile();
+        File players = new File(dir, "players");
+        assertTrue(players.mkdir());
+        writeJSON(new File(players, "first.json"), "players.simple.FirstActionPlayer");
+        writeJSON(new File(players, "last.json"), LastActionPlayer.class.getName());
+        writeJSON(new File(players, "middle.json"), MiddleActionPlayer.class.getName());
+        workerArgs = new String[]{"playerDirectory=" + players.getAbsolutePath(),
+                "listener=" + MetricsGameListener.class.getName(),
+                "metrics=" + TestMetrics.class.getName()};
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    private void writeJSON(File file, String className) throws IOException {
+        Files.write(file.toPath(), ("{\"class\" : \"" + className + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<AbstractPlayer> agents() {
+        return RunGames.createAgents(RunArg.parseConfig(workerArgs, RunArg.Usage.RunGames, false));
+    }
+
+    // A listener with the metrics of TestMetrics, that keeps their data (rather than reporting it)
+    private MetricsGameListener metricsListener() {
+        AbstractMetric[] metrics = new TestMetrics().getAllMetrics();
+        MetricsGameListener listener = new MetricsGameListener(metrics) {
+            @Override
+            public void report() {
+            }
+        };
+        for (AbstractMetric metric : metrics)
+            metric.setDataLogger(new DataRecorder(metric));
+        return listener;
+    }
+
+    // As metricsListener(), but keeping the data for each match-up separately (and only the last can be seen)
+    private MetricsGameListener tournamentListener() {
+        return new TournamentMetricsGameListener(new TestMetrics().getAllMetrics()) {
+            {
+                for (AbstractMetric metric : metrics.values())
+                    metric.setDataLogger(new DataRecorder(metric));
+            }
+
+            @Override
+            public void report() {
+            }
+        };
+    }
+
+    // the data recorded, apart from the game IDs (which depend on the process and how many games it has created)
+    private List<Pair<String, Object>> recordedData(RoundRobinTournament tournament) {
+        MetricsGameListener listener = (MetricsGameListener) tournament.getListeners().get(0);
+        return listener.takeGameData().metricData.get(0).stream()
+                .filter(p -> !p.a.equals("GameID"))
+                .collect(Collectors.toList());
+    }
+
+    // Uno is used as (unlike some games) the results depend only on the seed, and not on the process they are run in
+    private RoundRobinTournament runTournament(int nPlayers, int nThreads, TournamentWorkers workers, IGameListener listener) {
+        RoundRobinTournament tournament = new RoundRobinTournament(agents(), GameType.Uno, nPlayers, 4, NO_SELF_PLAY, null);
+        tournament.setVerbose(false);
+        tournament.setRandomSeed(42);
+        tournament.setNumberOfThreads(nThreads);
+        tournament.setWorkers(workers);
+        tournament.addListener(listener);
+        tournament.run();
+        return tournament;
+    }
+
+    private RoundRobinTournament runTournament(int nPlayers, int nThreads, TournamentWorkers workers) {
+        return runTournament(nPlayers, nThreads, workers, metricsListener());
+    }
+
+    private void assertSameResults(RoundRobinTournament expected, RoundRobinTournament actual) {
+        assertArrayEquals(expected.nGamesPlayed, actual.nGamesPlayed);
+        assertArrayEquals(expected.pointsPerPlayer, actual.pointsPerPlayer, 0.0);
+        assertArrayEquals(expected.winsPerPlayer, actual.winsPerPlayer, 0.0);
+        assertArrayEquals(expected.rankPerPlayer, actual.rankPerPlayer, 0.0);
+        for (int i = 0; i < expected.winsPerPlayerPerOpponent.length; i++)
+            assertArrayEquals(expected.winsPerPlayerPerOpponent[i], actual.winsPerPlayerPerOpponent[i], 0.0);
+        assertEquals(expected.finalWinRanking, actual.finalWinRanking);
+        assertEquals(expected.finalOrdinalRanking, actual.finalOrdinalRanking);
+    }
+
+    @Test
+    public void workerResultsMatchThreads() {
+        RoundRobinTournament threaded = runTournament(2, 2, null);
+        RoundRobinTournament distributed;
+        try (TournamentWorkers workers = new TournamentWorkers(2, 0)) {
+            workers.setWorkerArgs(workerArgs);
+            distributed = runTournament(2, 1, workers);
+        }
+        assertEquals(48, distributed.nGamesPlayed[0] + distributed.nGamesPlayed[1] + distributed.nGamesPlayed[2]);
+        assertSameResults(threaded, distributed);
+        // the data from the metrics on the workers is added to the listener here, in the same order
+        List<Pair<String, Object>> expected = recordedData(threaded);
+        // GameName, PlayerCount, GameSeed, Tick, Turn, Round, Event, Actions and Winner for each game
+        assertEquals(24 * 9, expected.size());
+        assertEquals(expected, recordedData(distributed));
+    }
+
+    @Test
+    public void tournamentMetricsAreKeptForEachMatchUp() {
+        RoundRobinTournament threaded = runTournament(2, 2, null, tournamentListener());
+        RoundRobinTournament distributed;
+        try (TournamentWorkers workers = new TournamentWorkers(2, 0)) {
+            workerArgs[1] = "listener=" + TournamentMetricsGameListener.class.getName();
+            workers.setWorkerArgs(workerArgs);
+            distributed = runTournament(2, 1, workers, tournamentListener());
+        }
+        assertSameResults(threaded, distributed);
+        // the data for the last pair of agents (in either order, so 8 games)
+        List<Pair<String, Object>> expected = recordedData(threaded);
+        assertEquals(8 * 9, expected.size());
+        assertEquals(expected, recordedData(distributed));
+    }
+
+    @Test
+    public void listenersMustHaveMetrics() {
+        try (TournamentWorkers workers = new TournamentWorkers(1, 0)) {
+            workers.setWorkerArgs(workerArgs);
+            RoundRobinTournament tournament = new RoundRobinTournament(agents(), GameType.Uno, 2, 4, NO_SELF_PLAY, null);
+            tournament.setVerbose(false);
+            tournament.setWorkers(workers);
+            tournament.addListener(new ParallelTournamentTest.GameCounter());
+            try {
+                tournament.run();
+                fail("Expected an exception");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().contains("cannot be used with worker processes"));
+            }
+        }
+    }
+
+    @Test
+    public void workersAreReusedAcrossTournaments() {
+        try (TournamentWorkers workers = new TournamentWorkers(2, 0)) {
+            workers.setWorkerArgs(workerArgs);
+            assertSameResults(runTournament(2, 3, null), runTournament(2, 1, workers));
+            assertSameResults(runTournament(3, 3, null), runTournament(3, 1, workers));
+        }
+    }
+
+    @Test
+    public void workersMustHaveTheSameAgents() {
+        try (TournamentWorkers workers = new TournamentWorkers(1, 0)) {
+            workers.setWorkerArgs(workerArgs);
+            List<AbstractPlayer> agents = agents();
+            agents.remove(1);
+            RoundRobinTournament tournament = new RoundRobinTournament(agents, GameType.Uno, 2, 4, NO_SELF_PLAY, null);
+            tournament.setVerbose(false);
+            tournament.setWorkers(workers);
+            try {
+                tournament.run();
+                fail("Expected an exception");
+            } catch (RuntimeException e) {
+                assertTrue(e.getCause().getMessage().contains("rather than"));
+            }
+        }
+    }
+}
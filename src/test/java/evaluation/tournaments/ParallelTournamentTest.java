@@ -0,0 +1,224 @@
+package evaluation.tournaments;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import core.interfaces.IGameEvent;
+import evaluation.listeners.IGameListener;
+import evaluation.listeners.MetricsGameListener;
+import evaluation.metrics.AbstractMetric;
+import evaluation.metrics.DataRecorder;
+import evaluation.metrics.Event;
+import games.GameType;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+import players.simple.FirstActionPlayer;
+import players.simple.RandomPlayer;
+import utilities.Pair;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static evaluation.tournaments.AbstractTournament.TournamentMode.*;
+import static org.junit.Assert.*;
+
+public class ParallelTournamentTest {
+
+    // Deterministic players, so that results depend only on the game seeds
+    static class LastActionPlayer extends AbstractPlayer {
+        @Override
+        public AbstractAction _getAction(AbstractGameState gameState, List<AbstractAction> possibleActions) {
+            return possibleActions.get(possibleActions.size() - 1);
+        }
+
+        @Override
+        public LastActionPlayer copy() {
+            return new LastActionPlayer();
+        }
+
+        @Override
+        public String toString() {
+            return "LastAction";
+        }
+    }
+
+    static class MiddleActionPlayer extends LastActionPlayer {
+        @Override
+        public AbstractAction _getAction(AbstractGameState gameState, List<AbstractAction> possibleActions) {
+            return possibleActions.get(possibleActions.size() / 2);
+        }
+
+        @Override
+        public MiddleActionPlayer copy() {
+            return new MiddleActionPlayer();
+        }
+
+        @Override
+        public String toString() {
+            return "MiddleAction";
+        }
+    }
+
+    // Counts the actions in each game as it goes along, and records the total (and the winner) at the end
+    public static class ActionsPerGame extends AbstractMetric {
+        int actions;
+
+        @Override
+        protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
+            if (e.type == Event.GameEvent.ACTION_CHOSEN) {
+                actions++;
+                return false;
+            }
+            records.put("Actions", actions);
+            records.put("Winner", listener.getGame().getPlayers().get(e.state.getWinners().iterator().next()).toString());
+            actions = 0;
+            return true;
+        }
+
+        @Override
+        public Set<IGameEvent> getDefaultEventTypes() {
+            return new HashSet<>(Arrays.asList(Event.GameEvent.ACTION_CHOSEN, Event.GameEvent.GAME_OVER));
+        }
+
+        @Override
+        public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
+            Map<String, Class<?>> columns = new HashMap<>();
+            columns.put("Actions", Integer.class);
+            columns.put("Winner", String.class);
+            return columns;
+        }
+    }
+
+    // Counts the games it sees
+    static class GameCounter implements IGameListener {
+        int games;
+        Game game;
+
+        @Override
+        public void onEvent(Event event) {
+            if (event.type == Event.GameEvent.GAME_OVER)
+                games++;
+        }
+
+        @Override
+        public void report() {
+        }
+
+        @Override
+        public void setGame(Game game) {
+            this.game = game;
+        }
+
+        @Override
+        public Game getGame() {
+            return game;
+        }
+    }
+
+    private RoundRobinTournament runTournament(AbstractTournament.TournamentMode mode, int nAgents, int nThreads, IGameListener... listeners) {
+        List<AbstractPlayer> agents = Arrays.asList(new FirstActionPlayer(), new LastActionPlayer(), new MiddleActionPlayer())
+                .subList(0, nAgents);
+        return runTournament(agents, GameType.LoveLetter, mode, nThreads, listeners);
+    }
+
+    private RoundRobinTournament runTournament(List<AbstractPlayer> agents, GameType gameType, AbstractTournament.TournamentMode mode,
+                                               int nThreads, IGameListener... listeners) {
+        RoundRobinTournament tournament = new RoundRobinTournament(agents, gameType, 2, 20, mode, null);
+        tournament.setVerbose(false);
+        tournament.setRandomSeed(42);
+        tournament.setNumberOfThreads(nThreads);
+        for (IGameListener listener : listeners)
+            tournament.addListener(listener);
+        tournament.run();
+        return tournament;
+    }
+
+    // A listener that keeps the data from ActionsPerGame (rather than reporting it)
+    private MetricsGameListener actionsListener() {
+        AbstractMetric metric = new ActionsPerGame();
+        MetricsGameListener listener = new MetricsGameListener(new AbstractMetric[]{metric}) {
+            @Override
+            public void report() {
+            }
+        };
+        metric.setDataLogger(new DataRecorder(metric));
+        return listener;
+    }
+
+    // the data recorded, apart from the game IDs (which depend on how many games have been created)
+    private List<Pair<String, Object>> recordedData(MetricsGameListener listener) {
+        return listener.takeGameData().metricData.get(0).stream()
+                .filter(p -> !p.a.equals("GameID"))
+                .collect(Collectors.toList());
+    }
+
+    private void assertSameResults(RoundRobinTournament expected, RoundRobinTournament actual) {
+        assertArrayEquals(expected.nGamesPlayed, actual.nGamesPlayed);
+        assertArrayEquals(expected.pointsPerPlayer, actual.pointsPerPlayer, 0.0);
+        assertArrayEquals(expected.pointsPerPlayerSquared, actual.pointsPerPlayerSquared, 0.0);
+        assertArrayEquals(expected.winsPerPlayer, actual.winsPerPlayer, 0.0);
+        assertArrayEquals(expected.rankPerPlayer, actual.rankPerPlayer, 0.0);
+        assertArrayEquals(expected.rankPerPlayerSquared, actual.rankPerPlayerSquared, 0.0);
+        for (int i = 0; i < expected.winsPerPlayerPerOpponent.length; i++) {
+            assertArrayEquals(expected.winsPerPlayerPerOpponent[i], actual.winsPerPlayerPerOpponent[i], 0.0);
+            assertArrayEquals(expected.nGamesPlayedPerOpponent[i], actual.nGamesPlayedPerOpponent[i]);
+        }
+    }
+
+    @Test
+    public void parallelResultsMatchSequential() {
+        RoundRobinTournament sequential = runTournament(NO_SELF_PLAY, 3, 1);
+        RoundRobinTournament parallel = runTournament(NO_SELF_PLAY, 3, 4);
+        assertEquals(240, parallel.nGamesPlayed[0] + parallel.nGamesPlayed[1] + parallel.nGamesPlayed[2]);
+        assertSameResults(sequential, parallel);
+    }
+
+    // MCTS and random players, which both use random numbers for each decision
+    private List<AbstractPlayer> stochasticAgents() {
+        MCTSParams params = new MCTSParams(3023);
+        // (set as parameter values, so that they are kept by copies of the parameters)
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 50);
+        MCTSPlayer mcts = new MCTSPlayer(params, "MCTS");
+        return Arrays.asList(mcts, new RandomPlayer(new Random(42)), new RandomPlayer(new Random(43)));
+    }
+
+    @Test
+    public void stochasticAgentsMatchSequential() {
+        // (Connect4, as the players' copies of the state in a game with hidden information may be redeterminised
+        // with a random seed taken from the clock)
+        RoundRobinTournament sequential = runTournament(stochasticAgents(), GameType.Connect4, NO_SELF_PLAY, 1);
+        RoundRobinTournament parallel = runTournament(stochasticAgents(), GameType.Connect4, NO_SELF_PLAY, 4);
+        assertSameResults(sequential, parallel);
+        assertSameResults(sequential, runTournament(stochasticAgents(), GameType.Connect4, NO_SELF_PLAY, 3));
+    }
+
+    @Test
+    public void parallelListenerDataMatchesSequential() {
+        MetricsGameListener sequentialListener = actionsListener();
+        MetricsGameListener parallelListener = actionsListener();
+        RoundRobinTournament sequential = runTournament(NO_SELF_PLAY, 3, 1, sequentialListener);
+        RoundRobinTournament parallel = runTournament(NO_SELF_PLAY, 3, 4, parallelListener);
+        assertSameResults(sequential, parallel);
+        List<Pair<String, Object>> expected = recordedData(sequentialListener);
+        // GameName, PlayerCount, GameSeed, Tick, Turn, Round, Event, Actions and Winner for each game
+        assertEquals(120 * 9, expected.size());
+        assertEquals(expected, recordedData(parallelListener));
+    }
+
+    @Test
+    public void otherListenersAreRunSequentially() {
+        GameCounter counter = new GameCounter();
+        assertSameResults(runTournament(NO_SELF_PLAY, 3, 1), runTournament(NO_SELF_PLAY, 3, 4, counter));
+        assertEquals(120, counter.games);
+    }
+
+    @Test
+    public void oneVsAllParallelResultsMatchSequential() {
+        // with only two agents the match-ups (and seeds) are deterministic
+        assertSameResults(runTournament(ONE_VS_ALL, 2, 1), runTournament(ONE_VS_ALL, 2, 3));
+    }
+}
@@ -0,0 +1,93 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ActionCacheTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams(9332);
+        params.information = MCTSEnums.Information.Open_Loop;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 500;
+        params.rolloutLength = 10;
+    }
+
+    /**
+     * @return the visits to each action at the root (in the order of their names, as with hidden information the
+     * actions in the tree come from a redeterminised state), and then the size of the tree, after a decision in a
+     * copy of the given state (so that the components have the same IDs in each search)
+     */
+    private List<String> search(Game game, AbstractGameState initialState) {
+        TestMCTSPlayer mctsPlayer = new TestMCTSPlayer(params, null);
+        // this sets up the player (the game's own state is not used)
+        game.reset(Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023))));
+        AbstractGameState state = initialState.copy();
+        // a copy of the state has a new random seed, which the game may use to redeterminise it
+        state.getGameParameters().setRandomSeed(initialState.getGameParameters().getRandomSeed());
+        mctsPlayer.getAction(state, game.getForwardModel().computeAvailableActions(state));
+        SingleTreeNode root = mctsPlayer.getRoot(0);
+        List<String> retValue = new ArrayList<>();
+        for (AbstractAction action : root.getChildren().keySet())
+            retValue.add(action + "=" + root.actionVisits(action));
+        Collections.sort(retValue);
+        retValue.add("nodes=" + root.allNodesInTree().size());
+        return retValue;
+    }
+
+    private void checkCacheMakesNoDifference(GameType gameType) {
+        Game game = gameType.createGameInstance(2, 42);
+        game.reset(Arrays.asList(new RandomPlayer(new Random(3023)), new RandomPlayer(new Random(3023))));
+        AbstractGameState state = game.getGameState().copy();
+        state.getGameParameters().setRandomSeed(42);
+        List<String> withoutCache = search(game, state);
+        params.cacheActions = true;
+        assertEquals(withoutCache, search(game, state));
+    }
+
+    @Test
+    public void connect4() {
+        checkCacheMakesNoDifference(GameType.Connect4);
+    }
+
+    @Test
+    public void ticTacToe() {
+        checkCacheMakesNoDifference(GameType.TicTacToe);
+    }
+
+    @Test
+    public void strategoWithInformationSets() {
+        // (in LoveLetter, each copy of the state redeterminises the hidden cards with a new seed taken from the clock,
+        // so two searches are not repeatable; Stratego redeterminises the hidden pieces from the game's own seed)
+        params.information = MCTSEnums.Information.Information_Set;
+        checkCacheMakesNoDifference(GameType.Stratego);
+    }
+
+    @Test
+    public void onlyGamesWithAZobristHashCanCacheActions() {
+        assertTrue(GameType.Connect4.createGameInstance(2, 42).getGameState().hasZobristHash());
+        assertTrue(GameType.LoveLetter.createGameInstance(2, 42).getGameState().hasZobristHash());
+        assertFalse(GameType.Dominion.createGameInstance(2, 42).getGameState().hasZobristHash());
+    }
+
+    @Test
+    public void withMASTExpansion() {
+        params.expansionPolicy = MCTSEnums.Strategies.MAST;
+        params.useMAST = true;
+        checkCacheMakesNoDifference(GameType.Connect4);
+    }
+}
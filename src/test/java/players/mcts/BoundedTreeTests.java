@@ -0,0 +1,90 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class BoundedTreeTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams(9332);
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 1000;
+        params.rolloutLength = 10;
+        params.maxNodes = 100;
+    }
+
+    private SingleTreeNode firstDecision() {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        game.reset(Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023))));
+        AbstractGameState state = game.getGameState();
+        mctsPlayer.getAction(state, game.getForwardModel().computeAvailableActions(state));
+        return mctsPlayer.getRoot(0);
+    }
+
+    @Test
+    public void expansionStopsAtLimit() {
+        SingleTreeNode root = firstDecision();
+        TreeStatistics stats = new TreeStatistics(root);
+        assertEquals(100, stats.totalNodes);
+        assertEquals(100, root.nodeCount);
+        assertEquals(0, stats.pruneEvents);
+        assertEquals(params.budget, root.getVisits());
+    }
+
+    @Test
+    public void pruningKeepsTreeWithinLimit() {
+        params.pruneTree = true;
+        SingleTreeNode root = firstDecision();
+        TreeStatistics stats = new TreeStatistics(root);
+        assertTrue(stats.totalNodes <= 100);
+        assertEquals(stats.totalNodes, root.nodeCount);
+        assertTrue(stats.pruneEvents > 0);
+        assertTrue(stats.prunedNodes >= 25 * stats.pruneEvents);
+        assertEquals(params.budget, root.getVisits());
+        // pruned nodes keep their statistics, so visits still add up
+        for (SingleTreeNode node : root.allNodesInTree())
+            assertTrue(Arrays.stream(node.actionVisits()).sum() <= node.getVisits());
+    }
+
+    @Test
+    public void nodeCountIsKeptWithTreeReuse() {
+        params.pruneTree = true;
+        params.reuseTree = true;
+        params.information = MCTSEnums.Information.Open_Loop;
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        game.reset(Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023))));
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        do {
+            AbstractPlayer player = game.getPlayers().get(state.getCurrentPlayer());
+            AbstractAction action = player.getAction(state.copy(), forwardModel.computeAvailableActions(state));
+            if (player == mctsPlayer) {
+                SingleTreeNode root = mctsPlayer.getRoot(0);
+                assertEquals(root.allNodesInTree().size(), root.nodeCount);
+                assertTrue(root.nodeCount <= 100 + 10);
+            }
+            forwardModel.next(state, action);
+        } while (state.isNotTerminal());
+    }
+}
@@ -0,0 +1,98 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import core.actions.SetGridValueAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class LeafParallelTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams(9332);
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.rolloutLength = 10;
+        params.maxTreeDepth = 20;
+    }
+
+    private SingleTreeNode firstDecision() {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        game.reset(Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023))));
+        AbstractGameState state = game.getGameState();
+        mctsPlayer.getAction(state, game.getForwardModel().computeAvailableActions(state));
+        return mctsPlayer.getRoot(0);
+    }
+
+    /**
+     * @return visits of each root action, by column (the actions themselves refer to the ID of the board, which is
+     * different in each game)
+     */
+    private Map<Integer, Integer> rootVisits(SingleTreeNode root) {
+        Map<Integer, Integer> retValue = new HashMap<>();
+        for (AbstractAction action : root.getChildren().keySet())
+            retValue.put(((SetGridValueAction) action).getX(), root.actionVisits(action));
+        return retValue;
+    }
+
+    @Test
+    public void eachIterationCountsOnce() {
+        SingleTreeNode serial = firstDecision();
+        params.leafRollouts = 4;
+        SingleTreeNode parallel = firstDecision();
+        assertEquals(params.budget, parallel.getVisits());
+        assertEquals(params.budget, rootVisits(parallel).values().stream().mapToInt(i -> i).sum());
+        // but with (nearly) four times as many rollout actions
+        assertTrue(parallel.fmCallsCount > 3 * serial.fmCallsCount);
+        assertTrue(parallel.rolloutActionsTaken > 3 * serial.rolloutActionsTaken);
+    }
+
+    @Test
+    public void searchIsRepeatable() {
+        params.leafRollouts = 3;
+        params.useMAST = true;
+        params.MAST = MCTSEnums.MASTType.Rollout;
+        SingleTreeNode first = firstDecision();
+        Map<Integer, Integer> firstVisits = rootVisits(first);
+        double firstValue = first.getTotValue()[0];
+        for (int i = 0; i < 3; i++) {
+            SingleTreeNode again = firstDecision();
+            assertEquals(firstVisits, rootVisits(again));
+            assertEquals(firstValue, again.getTotValue()[0], 1e-9);
+        }
+    }
+
+    @Test
+    public void openLoopGame() {
+        params.leafRollouts = 3;
+        params.information = MCTSEnums.Information.Open_Loop;
+        firstDecision();
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        game.reset(Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023))));
+        AbstractGameState state = game.getGameState();
+        do {
+            AbstractPlayer player = game.getPlayers().get(state.getCurrentPlayer());
+            AbstractAction action = player.getAction(state.copy(), game.getForwardModel().computeAvailableActions(state));
+            if (player == mctsPlayer)
+                assertEquals(params.budget, mctsPlayer.getRoot(0).getVisits());
+            game.getForwardModel().next(state, action);
+        } while (state.isNotTerminal());
+    }
+}
@@ -0,0 +1,93 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+import core.actions.LogEvent;
+import core.interfaces.IActionKey;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MASTTableTest {
+
+    // "Aa" and "BB" have the same String hashCode
+    AbstractAction a = new LogEvent("Aa");
+    AbstractAction b = new LogEvent("BB");
+    IActionKey textKey = action -> ((LogEvent) action).text;
+
+    @Test
+    public void statisticsAreHeldPerPlayerAndAction() {
+        MASTTable table = new MASTTable(null);
+        table.update(0, a, 1.0);
+        table.update(0, a, 0.5);
+        table.update(1, a, -1.0);
+        table.update(0, b, 2.0);
+
+        assertEquals(3, table.size());
+        assertEquals(2, table.getVisits(0, a));
+        assertEquals(1.5, table.getTotValue(0, a), 1e-9);
+        assertEquals(0.75, table.getMeanValue(0, a, 99.0), 1e-9);
+        assertEquals(-1.0, table.getMeanValue(1, a, 99.0), 1e-9);
+        assertEquals(2.0, table.getMeanValue(0, b, 99.0), 1e-9);
+        assertEquals(99.0, table.getMeanValue(1, b, 99.0), 1e-9);
+        assertEquals(0, table.getVisits(1, b));
+        // equal actions find the same entry
+        assertEquals(2, table.getVisits(0, new LogEvent("Aa")));
+    }
+
+    @Test
+    public void equalActionKeysShareStatistics() {
+        MASTTable table = new MASTTable(action -> ((LogEvent) action).text.substring(0, 1));
+        table.update(0, new LogEvent("Aa"), 1.0);
+        table.update(0, new LogEvent("Ab"), 3.0);
+        assertEquals(1, table.size());
+        assertEquals(2, table.getVisits(0, a));
+        assertEquals(2.0, table.getMeanValue(0, new LogEvent("Ax"), 0.0), 1e-9);
+    }
+
+    @Test
+    public void actionKeysWithTheSameHashAreKeptApart() {
+        MASTTable table = new MASTTable(textKey);
+        table.update(0, a, 1.0);
+        table.update(0, b, 3.0);
+        table.update(0, b, 5.0);
+        assertEquals(2, table.size());
+        assertEquals(1, table.getVisits(0, a));
+        assertEquals(1.0, table.getMeanValue(0, a, 0.0), 1e-9);
+        assertEquals(2, table.getVisits(0, b));
+        assertEquals(4.0, table.getMeanValue(0, b, 0.0), 1e-9);
+        assertEquals(2, table.copy().getVisits(0, new LogEvent("BB")));
+    }
+
+    @Test
+    public void decayMatchesUtilsDecay() {
+        MASTTable table = new MASTTable(null);
+        for (int i = 0; i < 5; i++)
+            table.update(0, a, 2.0);
+        table.update(0, b, 1.0);
+        table.decay(0.5);
+        assertEquals(2, table.getVisits(0, a));
+        assertEquals(4.0, table.getTotValue(0, a), 1e-9);
+        assertEquals(0, table.getVisits(0, b));
+        assertEquals(-5.0, table.getMeanValue(0, b, -5.0), 1e-9);
+        // gamma outside [0, 1) has no effect
+        table.decay(1.0);
+        assertEquals(2, table.getVisits(0, a));
+    }
+
+    @Test
+    public void growthKeepsAllEntries() {
+        MASTTable table = new MASTTable(null);
+        for (int i = 0; i < 1000; i++)
+            table.update(i % 3, new LogEvent("Action " + i), i);
+        MASTTable copy = table.copy();
+        table.update(0, new LogEvent("Action 0"), 10.0);
+        assertEquals(1000, table.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(1, copy.getVisits(i % 3, new LogEvent("Action " + i)));
+            assertEquals(i, copy.getTotValue(i % 3, new LogEvent("Action " + i)), 1e-9);
+            assertEquals(0, copy.getVisits((i + 1) % 3, new LogEvent("Action " + i)));
+        }
+        assertEquals(2, table.getVisits(0, new LogEvent("Action 0")));
+        assertEquals(1, copy.getVisits(0, new LogEvent("Action 0")));
+    }
+}
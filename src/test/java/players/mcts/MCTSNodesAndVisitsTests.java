@@ -107,6 +107,86 @@ public class MCTSNodesAndVisitsTests {
         runGame(game, 4, new int[0], new int[0]);
     }
 
+    @Test
+    public void actionStatisticsMatchChildren() {
+        for (MCTSEnums.OpponentTreePolicy policy : MCTSEnums.OpponentTreePolicy.values()) {
+            params.opponentTreePolicy = policy;
+            params.paranoid = policy == MCTSEnums.OpponentTreePolicy.OneTree;
+            Game game = createGame(params);
+            AbstractGameState state = game.getGameState();
+            AbstractForwardModel forwardModel = game.getForwardModel();
+            for (int move = 0; move < 6; move++) {
+                AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())
+                        ._getAction(state, forwardModel.computeAvailableActions(state));
+                if (state.getCurrentPlayer() == 0) {
+                    // the statistics held for each action must be the totals over the child nodes
+                    for (SingleTreeNode node : mctsPlayer.getRoot(0).allNodesInTree()) {
+                        node.getChildren().forEach((action, children) -> {
+                            if (children == null) return;
+                            SingleTreeNode[] nonNull = Arrays.stream(children).filter(Objects::nonNull).toArray(SingleTreeNode[]::new);
+                            assertEquals(Arrays.stream(nonNull).mapToInt(SingleTreeNode::getVisits).sum(), node.actionVisits(action));
+                            for (int p = 0; p < state.getNPlayers(); p++) {
+                                int player = p;
+                                assertEquals(Arrays.stream(nonNull).mapToDouble(n -> n.getTotValue()[player]).sum(),
+                                        node.actionTotValue(action, player), 1e-6);
+                            }
+                        });
+                    }
+                }
+                forwardModel.next(state, actionChosen);
+            }
+        }
+    }
+
+    @Test
+    public void rootParallel() {
+        params.nThreads = 3;
+        for (MCTSEnums.Information information : MCTSEnums.Information.values()) {
+            params.information = information;
+            params.discardStateAfterEachIteration = information != MCTSEnums.Information.Closed_Loop;
+            Game game = createGame(params);
+            AbstractGameState state = game.getGameState();
+            AbstractForwardModel forwardModel = game.getForwardModel();
+            int counter = 0;
+            do {
+                List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+                AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())._getAction(state, actions);
+                assertTrue(actions.contains(actionChosen));
+                if (state.getCurrentPlayer() == 0) {
+                    // the budget is split between the three trees, and all their visits are merged at the root
+                    SingleTreeNode root = mctsPlayer.getRoot(0);
+                    assertEquals(200, root.getVisits());
+                    assertEquals(200, Arrays.stream(root.actionVisits()).sum());
+                    counter++;
+                }
+                forwardModel.next(state, actionChosen);
+            } while (counter < 4);
+        }
+    }
+
+    @Test
+    public void rootParallelTakesOverSubtrees() {
+        // with so few iterations each tree expands different actions, and the main tree takes over the others
+        params.nThreads = 4;
+        params.budget = 12;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        // play randomly until we have a decision with several options (such as which card to buy)
+        Random rnd = new Random(42);
+        List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+        while (state.getCurrentPlayer() != 0 || actions.size() < 6) {
+            forwardModel.next(state, actions.get(rnd.nextInt(actions.size())));
+            actions = forwardModel.computeAvailableActions(state);
+        }
+        mctsPlayer._getAction(state, actions);
+        SingleTreeNode root = mctsPlayer.getRoot(0);
+        List<SingleTreeNode> allNodes = root.allNodesInTree();
+        assertTrue(root.getChildren().size() > 3);
+        assertTrue(allNodes.stream().allMatch(node -> node.root == root && node.rnd == root.rnd));
+        assertEquals(allNodes.size(), root.nodeCount);
+    }
+
     private void runGame(Game game, int moves, int[] expectedNodes, int[] errorMargin) {
         int counter = 0;
         AbstractGameState state = game.getGameState();
@@ -0,0 +1,121 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class NodePoolTests {
+
+    private MCTSParams params(MCTSEnums.Information information, MCTSEnums.OpponentTreePolicy policy,
+                              boolean reuseTree, boolean poolNodes) {
+        MCTSParams params = new MCTSParams(9332);
+        params.information = information;
+        params.opponentTreePolicy = policy;
+        params.discardStateAfterEachIteration = information != MCTSEnums.Information.Closed_Loop;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.rolloutLength = 10;
+        params.reuseTree = reuseTree;
+        params.poolNodes = poolNodes;
+        return params;
+    }
+
+    /**
+     * Plays the first few decisions of a game, and records the action chosen (as a String, as component IDs differ
+     * between games) and the size of the tree for each decision made by the MCTS player
+     */
+    private List<Object> runGame(GameType gameType, MCTSParams params) {
+        TestMCTSPlayer mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023)));
+        Game game = gameType.createGameInstance(players.size(), 42);
+        game.reset(players);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        List<Object> retValue = new ArrayList<>();
+        int decisions = 0;
+        do {
+            AbstractPlayer player = game.getPlayers().get(state.getCurrentPlayer());
+            AbstractGameState observation = state.copy(state.getCurrentPlayer());
+            AbstractAction actionChosen = player.getAction(observation, forwardModel.computeAvailableActions(observation));
+            if (player == mctsPlayer) {
+                SingleTreeNode root = mctsPlayer.getRoot(0);
+                retValue.add(actionChosen.getString(state));
+                retValue.add(root.getVisits());
+                retValue.add(root.allNodesInTree().size());
+                if (params.poolNodes && decisions > 0)
+                    assertNotNull(mctsPlayer.nodePool);
+                decisions++;
+            }
+            forwardModel.next(state, actionChosen);
+        } while (decisions < 6 && state.isNotTerminal());
+        return retValue;
+    }
+
+    private void checkSameSearch(GameType gameType, MCTSEnums.Information information,
+                                 MCTSEnums.OpponentTreePolicy policy, boolean reuseTree) {
+        // recycled nodes must behave exactly as new ones, so the search is unchanged
+        List<Object> expected = runGame(gameType, params(information, policy, reuseTree, false));
+        List<Object> actual = runGame(gameType, params(information, policy, reuseTree, true));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void closedLoop() {
+        checkSameSearch(GameType.Connect4, MCTSEnums.Information.Closed_Loop, MCTSEnums.OpponentTreePolicy.OneTree, false);
+    }
+
+    @Test
+    public void closedLoopWithReuse() {
+        checkSameSearch(GameType.Connect4, MCTSEnums.Information.Closed_Loop, MCTSEnums.OpponentTreePolicy.OneTree, true);
+    }
+
+    @Test
+    public void openLoopWithReuse() {
+        checkSameSearch(GameType.Connect4, MCTSEnums.Information.Open_Loop, MCTSEnums.OpponentTreePolicy.OneTree, true);
+    }
+
+    @Test
+    public void informationSets() {
+        checkSameSearch(GameType.Connect4, MCTSEnums.Information.Information_Set, MCTSEnums.OpponentTreePolicy.SelfOnly, false);
+    }
+
+    @Test
+    public void opponentMoveAbstraction() {
+        checkSameSearch(GameType.Connect4, MCTSEnums.Information.Open_Loop, MCTSEnums.OpponentTreePolicy.OMA, false);
+    }
+
+    @Test
+    public void releasedTreeIsRecycled() {
+        NodePool pool = new NodePool();
+        MCTSParams params = params(MCTSEnums.Information.Closed_Loop, MCTSEnums.OpponentTreePolicy.OneTree, false, false);
+        TestMCTSPlayer mctsPlayer = new TestMCTSPlayer(params, null);
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        game.reset(Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023))));
+        AbstractGameState state = game.getGameState();
+        mctsPlayer.getAction(state, game.getForwardModel().computeAvailableActions(state));
+        SingleTreeNode root = mctsPlayer.getRoot(0);
+        int nodes = root.allNodesInTree().size();
+        SingleTreeNode kept = root.expandedChildren().get(0);
+        int keptNodes = kept.allNodesInTree().size();
+
+        pool.release(root, kept);
+        assertEquals(nodes - keptNodes, pool.size());
+        assertEquals(0, root.getVisits());
+        assertNull(root.getParent());
+        assertTrue(root.expandedChildren().isEmpty());
+        assertEquals(keptNodes, kept.allNodesInTree().size());
+        // and nodes are then handed out from the pool before any new ones are created
+        assertSame(root.getClass(), pool.supplier(() -> null).get().getClass());
+        assertEquals(nodes - keptNodes - 1, pool.size());
+    }
+}
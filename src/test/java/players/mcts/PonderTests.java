@@ -0,0 +1,158 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PonderTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+    int pondered;  // iterations, in actionsWithoutReuse()
+
+    /**
+     * An opponent that takes a while to decide, to give us time to ponder
+     */
+    static class SlowRandomPlayer extends RandomPlayer {
+        final long delay;
+
+        SlowRandomPlayer(Random rnd, long delay) {
+            super(rnd);
+            this.delay = delay;
+        }
+
+        @Override
+        public AbstractAction _getAction(AbstractGameState gameState, List<AbstractAction> actions) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            return super._getAction(gameState, actions);
+        }
+    }
+
+    @Before
+    public void setup() {
+        params = new MCTSParams(9332);
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.rolloutLength = 10;
+        params.ponderBudget = 1000;
+    }
+
+    /**
+     * @return total visits reused from the pondered trees
+     */
+    private int runGame(long opponentDelay, int decisions) {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = Arrays.asList(mctsPlayer, new SlowRandomPlayer(new Random(3023), opponentDelay));
+        Game game = GameType.Connect4.createGameInstance(players.size(), 42);
+        game.reset(players);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        int counter = 0;
+        int totalReused = 0;
+        do {
+            AbstractPlayer player = game.getPlayers().get(state.getCurrentPlayer());
+            AbstractGameState observation = state.copy(state.getCurrentPlayer());
+            AbstractAction actionChosen = player.getAction(observation, forwardModel.computeAvailableActions(observation));
+            if (player == mctsPlayer) {
+                SingleTreeNode root = mctsPlayer.getRoot(0);
+                assertNull(root.getParent());
+                assertEquals(params.budget + mctsPlayer.reusedVisits, root.getVisits());
+                assertTrue(mctsPlayer.reusedVisits <= mctsPlayer.ponderIterations);
+                assertTrue(mctsPlayer.ponderTime <= params.ponderBudget + 100);
+                if (counter == 0)
+                    assertEquals(0, mctsPlayer.ponderIterations);
+                totalReused += mctsPlayer.reusedVisits;
+                counter++;
+            }
+            forwardModel.next(state, actionChosen);
+        } while (counter < decisions && state.isNotTerminal());
+        mctsPlayer.finalizePlayer(state);
+        return totalReused;
+    }
+
+    @Test
+    public void closedLoop() {
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;
+        assertTrue(runGame(50, 5) > 0);
+    }
+
+    @Test
+    public void openLoop() {
+        params.information = MCTSEnums.Information.Open_Loop;
+        assertTrue(runGame(50, 5) > 0);
+    }
+
+    @Test
+    public void withNodePool() {
+        params.information = MCTSEnums.Information.Open_Loop;
+        params.poolNodes = true;
+        assertTrue(runGame(50, 5) > 0);
+    }
+
+    /**
+     * @return the actions taken by the MCTS player, which never reuses a pondered tree
+     */
+    private List<String> actionsWithoutReuse(long opponentDelay, int decisions) {
+        mctsPlayer = new TestMCTSPlayer(params, () -> new SingleTreeNode() {
+            @Override
+            SingleTreeNode subtreeAfter(List<AbstractAction> actionsPlayed, AbstractGameState state) {
+                return null;
+            }
+        });
+        List<AbstractPlayer> players = Arrays.asList(mctsPlayer, new SlowRandomPlayer(new Random(3023), opponentDelay));
+        Game game = GameType.Connect4.createGameInstance(players.size(), 42);
+        game.reset(players);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        List<String> retValue = new ArrayList<>();  // as Strings, as each game has new component IDs
+        pondered = 0;
+        do {
+            AbstractPlayer player = game.getPlayers().get(state.getCurrentPlayer());
+            AbstractGameState observation = state.copy(state.getCurrentPlayer());
+            AbstractAction actionChosen = player.getAction(observation, forwardModel.computeAvailableActions(observation));
+            if (player == mctsPlayer) {
+                retValue.add(actionChosen.getString(state));
+                assertEquals(0, mctsPlayer.reusedVisits);
+                pondered += mctsPlayer.ponderIterations;
+            }
+            forwardModel.next(state, actionChosen);
+        } while (retValue.size() < decisions && state.isNotTerminal());
+        mctsPlayer.finalizePlayer(state);
+        return retValue;
+    }
+
+    @Test
+    public void ponderingDoesNotChangeLaterSearches() {
+        params.information = MCTSEnums.Information.Open_Loop;
+        // the opponent delay changes how long we ponder for
+        List<String> first = actionsWithoutReuse(5, 100);
+        List<String> second = actionsWithoutReuse(60, 100);
+        assertTrue(first.size() > 2);
+        assertEquals(first, second);
+        assertTrue(pondered > 0);
+    }
+
+    @Test
+    public void budgetIsRespected() {
+        params.information = MCTSEnums.Information.Open_Loop;
+        params.ponderBudget = 20;
+        runGame(300, 3);
+    }
+}
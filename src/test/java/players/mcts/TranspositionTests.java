@@ -0,0 +1,118 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TranspositionTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams(9332);
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 500;
+        params.rolloutLength = 10;
+        params.maxTreeDepth = 20;
+    }
+
+    private Game createGame(GameType gameType) {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        Game game = gameType.createGameInstance(2, 42);
+        game.reset(Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023))));
+        return game;
+    }
+
+    private SingleTreeNode firstDecision(GameType gameType) {
+        Game game = createGame(gameType);
+        AbstractGameState state = game.getGameState();
+        mctsPlayer.getAction(state, game.getForwardModel().computeAvailableActions(state));
+        return mctsPlayer.getRoot(0);
+    }
+
+    /**
+     * Every visit to a node (other than the root) comes through one of the actions that lead to it, from whichever
+     * of its parents the path went through
+     */
+    private void checkVisitsMatchIncomingActions(SingleTreeNode root) {
+        Map<SingleTreeNode, Integer> incomingVisits = new IdentityHashMap<>();
+        for (SingleTreeNode node : root.allNodesInTree()) {
+            node.getChildren().forEach((action, children) -> {
+                if (children == null) return;
+                for (SingleTreeNode child : children)
+                    if (child != null)
+                        incomingVisits.merge(child, node.actionVisits(action), Integer::sum);
+            });
+        }
+        for (SingleTreeNode node : root.allNodesInTree()) {
+            if (node == root)
+                assertEquals(params.budget, node.getVisits());
+            else
+                assertEquals((int) incomingVisits.get(node), node.getVisits());
+        }
+    }
+
+    @Test
+    public void transposedStatesShareNodes() {
+        int nodesWithoutTable = firstDecision(GameType.TicTacToe).allNodesInTree().size();
+        params.transpositionTableSize = 10000;
+        SingleTreeNode root = firstDecision(GameType.TicTacToe);
+        assertTrue(root.transpositions.hits() > 0);
+        assertTrue(root.allNodesInTree().size() < nodesWithoutTable);
+        assertEquals(root.allNodesInTree().size() - 1, root.transpositions.size());
+        // and some node now has more than one parent
+        Map<SingleTreeNode, Integer> parents = new IdentityHashMap<>();
+        for (SingleTreeNode node : root.allNodesInTree())
+            for (SingleTreeNode child : node.expandedChildren())
+                parents.merge(child, 1, Integer::sum);
+        assertTrue(parents.values().stream().anyMatch(n -> n > 1));
+        checkVisitsMatchIncomingActions(root);
+    }
+
+    @Test
+    public void tableSizeIsBounded() {
+        params.transpositionTableSize = 50;
+        SingleTreeNode root = firstDecision(GameType.Connect4);
+        assertEquals(50, root.transpositions.size());
+        assertTrue(root.allNodesInTree().size() > 50);
+        checkVisitsMatchIncomingActions(root);
+    }
+
+    @Test
+    public void statisticsAreConsistentThroughoutGame() {
+        params.transpositionTableSize = 10000;
+        Game game = createGame(GameType.Connect4);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        do {
+            AbstractPlayer player = game.getPlayers().get(state.getCurrentPlayer());
+            AbstractAction action = player.getAction(state.copy(), forwardModel.computeAvailableActions(state));
+            if (player == mctsPlayer)
+                checkVisitsMatchIncomingActions(mctsPlayer.getRoot(0));
+            forwardModel.next(state, action);
+        } while (state.isNotTerminal());
+    }
+
+    @Test
+    public void onlyUsedWithClosedLoop() {
+        params.transpositionTableSize = 10000;
+        params.information = MCTSEnums.Information.Open_Loop;
+        assertNull(firstDecision(GameType.TicTacToe).transpositions);
+    }
+}
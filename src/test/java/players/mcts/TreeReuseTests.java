@@ -0,0 +1,89 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TreeReuseTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams(9332);
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.rolloutLength = 10;
+        params.reuseTree = true;
+    }
+
+    private void runGame(GameType gameType, int decisions) {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023)));
+        Game game = gameType.createGameInstance(players.size(), 42);
+        game.reset(players);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        int counter = 0;
+        int totalReused = 0;
+        do {
+            AbstractPlayer player = game.getPlayers().get(state.getCurrentPlayer());
+            AbstractGameState observation = state.copy(state.getCurrentPlayer());
+            AbstractAction actionChosen = player.getAction(observation, forwardModel.computeAvailableActions(observation));
+            if (player == mctsPlayer) {
+                SingleTreeNode root = mctsPlayer.getRoot(0);
+                assertNull(root.getParent());
+                assertEquals(0, root.getDepth());
+                assertEquals(params.budget + mctsPlayer.reusedVisits, root.getVisits());
+                if (counter == 0)
+                    assertEquals(0, mctsPlayer.reusedVisits);
+                totalReused += mctsPlayer.reusedVisits;
+                counter++;
+            }
+            forwardModel.next(state, actionChosen);
+        } while (counter < decisions && state.isNotTerminal());
+        assertTrue(totalReused > 0);
+    }
+
+    @Test
+    public void closedLoop() {
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;
+        runGame(GameType.Connect4, 5);
+    }
+
+    @Test
+    public void openLoop() {
+        params.information = MCTSEnums.Information.Open_Loop;
+        runGame(GameType.Connect4, 5);
+    }
+
+    @Test
+    public void noReuseWithInformationSets() {
+        params.information = MCTSEnums.Information.Information_Set;
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        game.reset(Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023))));
+        AbstractGameState state = game.getGameState();
+        for (int i = 0; i < 6; i++) {
+            AbstractAction action = game.getPlayers().get(state.getCurrentPlayer())
+                    .getAction(state, game.getForwardModel().computeAvailableActions(state));
+            if (state.getCurrentPlayer() == 0)
+                assertEquals(0, mctsPlayer.reusedVisits);
+            game.getForwardModel().next(state, action);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class UCBKernelTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams(9332);
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 1000;
+        params.rolloutLength = 10;
+    }
+
+    /**
+     * Searches the first decision of Connect4, and then checks that at each node of the tree at which all the actions
+     * have been expanded (so UCB would be used) the kernel picks the same action as the general version
+     */
+    private void checkKernelMatchesGeneralUCB() {
+        TestMCTSPlayer mctsPlayer = new TestMCTSPlayer(params, null);
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        game.reset(Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023))));
+        AbstractGameState state = game.getGameState();
+        mctsPlayer.getAction(state, game.getForwardModel().computeAvailableActions(state));
+        int nodesChecked = 0;
+        for (SingleTreeNode node : mctsPlayer.getRoot(0).allNodesInTree()) {
+            List<AbstractAction> actions = node.actionsFromOpenLoopState;
+            if (actions.size() < 2 || actions.stream().anyMatch(a -> node.childrenFor(a) == null))
+                continue;
+            for (int seed = 0; seed < 5; seed++) {
+                node.rnd = new Random(seed);
+                AbstractAction general = node.ucbWithBiasTerms(actions);
+                node.rnd = new Random(seed);
+                assertEquals(general, node.ucbKernel(actions));
+            }
+            nodesChecked++;
+        }
+        assertTrue(nodesChecked > 10);
+    }
+
+    @Test
+    public void ucb() {
+        checkKernelMatchesGeneralUCB();
+    }
+
+    @Test
+    public void ucbNormalised() {
+        params.normaliseRewards = true;
+        checkKernelMatchesGeneralUCB();
+    }
+
+    @Test
+    public void ucbOpenLoop() {
+        params.information = MCTSEnums.Information.Open_Loop;
+        checkKernelMatchesGeneralUCB();
+    }
+
+    @Test
+    public void ucbTuned() {
+        params.treePolicy = MCTSEnums.TreePolicy.UCB_Tuned;
+        checkKernelMatchesGeneralUCB();
+    }
+
+    @Test
+    public void ucbTunedNormalised() {
+        params.treePolicy = MCTSEnums.TreePolicy.UCB_Tuned;
+        params.normaliseRewards = true;
+        checkKernelMatchesGeneralUCB();
+    }
+
+    @Test
+    public void alphaGo() {
+        params.treePolicy = MCTSEnums.TreePolicy.AlphaGo;
+        params.information = MCTSEnums.Information.Open_Loop;
+        checkKernelMatchesGeneralUCB();
+    }
+}